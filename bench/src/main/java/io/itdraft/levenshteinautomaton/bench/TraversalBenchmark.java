@@ -0,0 +1,138 @@
+package io.itdraft.levenshteinautomaton.bench;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import io.itdraft.levenshteinautomaton.CompiledLevenshteinAutomaton;
+import io.itdraft.levenshteinautomaton.LazyLevenshteinAutomaton;
+import io.itdraft.levenshteinautomaton.LevenshteinAutomatonConfig;
+import io.itdraft.levenshteinautomaton.ParametricLevenshteinAutomaton;
+import io.itdraft.levenshteinautomaton.description.nonparametric.PositionSet;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures recognition of candidate words by the parametric, the lazy and the compiled
+ * Levenshtein-automata. The primary result is time per candidate word,
+ * {@code transitions} is time per transition.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TraversalBenchmark {
+
+    @Param({"1", "2"})
+    public int degree;
+
+    @Param({"false", "true"})
+    public boolean inclTransposition;
+
+    @Param({"3", "8", "16", "40"})
+    public int wordLength;
+
+    @Param({"ASCII", "ASTRAL"})
+    public Workload.Alphabet alphabet;
+
+    @Param({"ACCEPT_HEAVY", "REJECT_HEAVY"})
+    public Workload.Mix mix;
+
+    private int[][] candidates;
+    private ParametricLevenshteinAutomaton parametric;
+    private CompiledLevenshteinAutomaton compiled;
+    private LazyLevenshteinAutomaton lazy;
+
+    @Setup
+    public void setUp() throws Exception {
+        Workload workload = new Workload(wordLength, degree, alphabet, mix);
+        LevenshteinAutomatonConfig config =
+                new LevenshteinAutomatonConfig(workload.word, degree, inclTransposition);
+
+        candidates = workload.candidates;
+        parametric = ParametricLevenshteinAutomaton.create(config);
+        compiled = parametric.compile();
+        lazy = LazyLevenshteinAutomaton.apply(config);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.CANDIDATES_COUNT)
+    public int parametric(TransitionCounter counter) {
+        final ParametricLevenshteinAutomaton automaton = parametric;
+        int accepted = 0;
+
+        for (int[] candidate : candidates) {
+            int stateId = automaton.getInitialStateId();
+
+            for (int i = 0; i < candidate.length; i++) {
+                stateId = automaton.getNextStateId(stateId, candidate[i]);
+                counter.transitions++;
+                if (automaton.isFailureState(stateId)) break;
+            }
+
+            if (automaton.isFinalState(stateId)) accepted++;
+        }
+
+        return accepted;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.CANDIDATES_COUNT)
+    public int compiled(TransitionCounter counter) {
+        final CompiledLevenshteinAutomaton automaton = compiled;
+        int accepted = 0;
+
+        for (int[] candidate : candidates) {
+            int stateId = automaton.getInitialStateId();
+
+            for (int i = 0; i < candidate.length; i++) {
+                stateId = automaton.getNextStateId(stateId, candidate[i]);
+                counter.transitions++;
+                if (automaton.isFailureState(stateId)) break;
+            }
+
+            if (automaton.isFinalState(stateId)) accepted++;
+        }
+
+        return accepted;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.CANDIDATES_COUNT)
+    public int lazy(TransitionCounter counter) {
+        final LazyLevenshteinAutomaton automaton = lazy;
+        int accepted = 0;
+
+        PositionSet state = automaton.newState();
+        PositionSet next = automaton.newState();
+
+        for (int[] candidate : candidates) {
+            state = automaton.initialState(state);
+
+            for (int i = 0; i < candidate.length; i++) {
+                PositionSet cur = state;
+                state = automaton.getNextState(cur, candidate[i], next);
+                next = cur;
+                counter.transitions++;
+                if (automaton.isFailure(state)) break;
+            }
+
+            if (automaton.isFinal(state)) accepted++;
+        }
+
+        return accepted;
+    }
+}
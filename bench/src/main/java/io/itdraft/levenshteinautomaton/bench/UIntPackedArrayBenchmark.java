@@ -0,0 +1,69 @@
+package io.itdraft.levenshteinautomaton.bench;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import io.itdraft.levenshteinautomaton.util.UIntPackedArray;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code UIntPackedArray.get} with random access, which is the access pattern
+ * of transitions table lookups.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UIntPackedArrayBenchmark {
+
+    private static final int INDEXES_COUNT = 1024;
+
+    @Param({"3", "6", "11", "17"})
+    public int bitsPerValue;
+
+    @Param({"4096", "65536"})
+    public int size;
+
+    private UIntPackedArray packed;
+    private int[] indexes;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(size);
+        int[] xs = new int[size];
+
+        for (int i = 0; i < size; i++) xs[i] = random.nextInt(1 << bitsPerValue);
+        xs[0] = (1 << bitsPerValue) - 1;
+
+        packed = UIntPackedArray.pack(xs);
+        indexes = new int[INDEXES_COUNT];
+        for (int i = 0; i < INDEXES_COUNT; i++) indexes[i] = random.nextInt(size);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INDEXES_COUNT)
+    public int get() {
+        final UIntPackedArray array = packed;
+        int result = 0;
+
+        for (int index : indexes) result += array.get(index);
+
+        return result;
+    }
+}
@@ -0,0 +1,133 @@
+package io.itdraft.levenshteinautomaton.bench;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Random;
+
+/**
+ * Generates a query word and candidate words to recognize. Candidates are either
+ * misspellings of the query word (within the degree) or random words of a similar length.
+ * Generation is deterministic, so every run measures the same workload.
+ */
+public final class Workload {
+
+    public static final int CANDIDATES_COUNT = 1024;
+
+    public enum Alphabet {
+        /**
+         * Lowercase latin letters.
+         */
+        ASCII(0x61, 26),
+        /**
+         * Emoticons which are encoded as surrogate pairs in UTF-16.
+         */
+        ASTRAL(0x1F600, 26);
+
+        private final int firstCodePoint;
+        private final int size;
+
+        Alphabet(int firstCodePoint, int size) {
+            this.firstCodePoint = firstCodePoint;
+            this.size = size;
+        }
+
+        int randomCodePoint(Random random) {
+            return firstCodePoint + random.nextInt(size);
+        }
+    }
+
+    public enum Mix {
+        /**
+         * 90% of candidates are misspellings within the degree.
+         */
+        ACCEPT_HEAVY(90),
+        /**
+         * 10% of candidates are misspellings within the degree.
+         */
+        REJECT_HEAVY(10);
+
+        private final int acceptPercent;
+
+        Mix(int acceptPercent) {
+            this.acceptPercent = acceptPercent;
+        }
+    }
+
+    public final int[] word;
+    public final int[][] candidates;
+
+    public Workload(int wordLength, int degree, Alphabet alphabet, Mix mix) {
+        Random random = new Random(31 * wordLength + degree);
+
+        word = randomWord(random, alphabet, wordLength);
+        candidates = new int[CANDIDATES_COUNT][];
+
+        for (int i = 0; i < CANDIDATES_COUNT; i++) {
+            candidates[i] = random.nextInt(100) < mix.acceptPercent ?
+                    misspell(random, alphabet, word, degree) :
+                    randomWord(random, alphabet,
+                            Math.max(0, wordLength + random.nextInt(2 * degree + 3) - degree - 1));
+        }
+    }
+
+    /**
+     * Returns candidates as strings.
+     */
+    public String[] candidatesAsStrings() {
+        String[] result = new String[candidates.length];
+        for (int i = 0; i < candidates.length; i++) {
+            result[i] = new String(candidates[i], 0, candidates[i].length);
+        }
+        return result;
+    }
+
+    private static int[] randomWord(Random random, Alphabet alphabet, int length) {
+        int[] result = new int[length];
+        for (int i = 0; i < length; i++) result[i] = alphabet.randomCodePoint(random);
+        return result;
+    }
+
+    private static int[] misspell(Random random, Alphabet alphabet, int[] word, int degree) {
+        int[] result = word.clone();
+
+        for (int k = random.nextInt(degree + 1); k > 0; k--) {
+            int i = random.nextInt(result.length + 1);
+            int[] next;
+
+            switch (random.nextInt(3)) {
+                case 0: // insertion
+                    next = new int[result.length + 1];
+                    System.arraycopy(result, 0, next, 0, i);
+                    next[i] = alphabet.randomCodePoint(random);
+                    System.arraycopy(result, i, next, i + 1, result.length - i);
+                    break;
+                case 1: // deletion
+                    if (i == result.length) continue;
+                    next = new int[result.length - 1];
+                    System.arraycopy(result, 0, next, 0, i);
+                    System.arraycopy(result, i + 1, next, i, result.length - i - 1);
+                    break;
+                default: // substitution
+                    if (i == result.length) continue;
+                    next = result.clone();
+                    next[i] = alphabet.randomCodePoint(random);
+            }
+
+            result = next;
+        }
+
+        return result;
+    }
+}
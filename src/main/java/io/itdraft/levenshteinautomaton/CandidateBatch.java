@@ -0,0 +1,193 @@
+package io.itdraft.levenshteinautomaton;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Represents candidate words to be recognized by {@code ParametricLevenshteinAutomaton}
+ * at once. The batch is split between threads at multiples of 64, so threads collecting
+ * results as bits of a {@code long[]} never write the same element.
+ */
+abstract class CandidateBatch {
+
+    /**
+     * The number of candidates recognized by a single fork-join task.
+     */
+    private static final int PARALLEL_THRESHOLD = 1024;
+
+    abstract int size();
+
+    /**
+     * Returns the Levenshtein-distance to the {@code index}-th candidate
+     * or {@code -1} if the candidate is rejected.
+     *
+     * @param buffer a buffer returned by {@link #newBuffer(ParametricLevenshteinAutomaton)}
+     *               for the range the candidate belongs to.
+     */
+    abstract int distance(ParametricLevenshteinAutomaton automaton, int index, int[] buffer);
+
+    /**
+     * Returns a buffer to decode candidates of a range into, it's {@code null}
+     * if candidates are code points already.
+     */
+    int[] newBuffer(ParametricLevenshteinAutomaton automaton) {
+        return null;
+    }
+
+    /**
+     * Recognizes candidates from {@code from} up to (but not including) {@code until}.
+     */
+    void matchRange(ParametricLevenshteinAutomaton automaton, int from, int until, long[] result) {
+        final int[] buffer = newBuffer(automaton);
+
+        for (int i = from; i < until; i++) {
+            if (distance(automaton, i, buffer) >= 0) result[i >> 6] |= 1L << i;
+        }
+    }
+
+    /**
+     * Computes distances to candidates from {@code from} up to (but not including) {@code until}.
+     */
+    void distanceRange(ParametricLevenshteinAutomaton automaton, int from, int until, int[] result) {
+        final int[] buffer = newBuffer(automaton);
+
+        for (int i = from; i < until; i++) {
+            result[i] = distance(automaton, i, buffer);
+        }
+    }
+
+    RecursiveAction newMatchTask(ParametricLevenshteinAutomaton automaton, long[] result) {
+        return new RangeTask((from, until) -> matchRange(automaton, from, until, result), 0, size());
+    }
+
+    RecursiveAction newDistanceTask(ParametricLevenshteinAutomaton automaton, int[] result) {
+        return new RangeTask((from, until) -> distanceRange(automaton, from, until, result), 0, size());
+    }
+
+    @FunctionalInterface
+    private interface RangeAction {
+        void apply(int from, int until);
+    }
+
+    private static class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final RangeAction action;
+        private final int from;
+        private final int until;
+
+        RangeTask(RangeAction action, int from, int until) {
+            this.action = action;
+            this.from = from;
+            this.until = until;
+        }
+
+        @Override
+        protected void compute() {
+            if (until - from <= PARALLEL_THRESHOLD) {
+                action.apply(from, until);
+
+            } else {
+                // the middle is a multiple of 64, so halves don't share elements of a bitmap
+                int middle = (from + (until - from) / 2) & ~63;
+                invokeAll(new RangeTask(action, from, middle),
+                        new RangeTask(action, middle, until));
+            }
+        }
+    }
+
+    /**
+     * Candidates decoded into code points one by one, so they are recognized
+     * by the same loop as code point candidates.
+     */
+    static class CharSequences extends CandidateBatch {
+        private final CharSequence[] words;
+
+        CharSequences(CharSequence[] words) {
+            this.words = words;
+        }
+
+        int size() {
+            return words.length;
+        }
+
+        /**
+         * A candidate longer than the word plus the degree is rejected,
+         * so it's decoded up to that length.
+         */
+        @Override
+        int[] newBuffer(ParametricLevenshteinAutomaton automaton) {
+            return new int[automaton.getWordLength() + automaton.getDegree()];
+        }
+
+        int distance(ParametricLevenshteinAutomaton automaton, int index, int[] buffer) {
+            final CharSequence word = words[index];
+            final int charsCount = word.length();
+            // a code point takes one char at least
+            if (charsCount < automaton.getWordLength() - automaton.getDegree()) return -1;
+
+            int length = 0;
+            for (int i = 0; i < charsCount; length++) {
+                if (length == buffer.length) return -1;
+
+                int codePoint = Character.codePointAt(word, i);
+                buffer[length] = codePoint;
+                i += Character.charCount(codePoint);
+            }
+
+            return automaton.batchDistance(buffer, 0, length);
+        }
+    }
+
+    static class CodePointArrays extends CandidateBatch {
+        private final int[][] words;
+
+        CodePointArrays(int[][] words) {
+            this.words = words;
+        }
+
+        int size() {
+            return words.length;
+        }
+
+        int distance(ParametricLevenshteinAutomaton automaton, int index, int[] buffer) {
+            int[] word = words[index];
+            return automaton.batchDistance(word, 0, word.length);
+        }
+    }
+
+    /**
+     * Candidates packed into a single code points buffer, the {@code i}-th candidate
+     * occupies the range from {@code offsets[i]} up to {@code offsets[i + 1]}.
+     */
+    static class PackedCodePoints extends CandidateBatch {
+        private final int[] codePoints;
+        private final int[] offsets;
+
+        PackedCodePoints(int[] codePoints, int[] offsets) {
+            this.codePoints = codePoints;
+            this.offsets = offsets;
+        }
+
+        int size() {
+            return offsets.length - 1;
+        }
+
+        int distance(ParametricLevenshteinAutomaton automaton, int index, int[] buffer) {
+            return automaton.batchDistance(codePoints, offsets[index], offsets[index + 1]);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package io.itdraft.levenshteinautomaton;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cheap test to reject candidates that can't be accepted by the Levenshtein-automaton
+ * built for the same config, before the automaton is traversed.
+ * <p>
+ * Two lower bounds of the distance are checked in a single pass over a candidate:
+ * </p>
+ * <ul>
+ * <li>the length difference, since every edit operation changes the length by one at most;</li>
+ * <li>the character-bag difference: a code point of the candidate beyond the number of
+ * its occurrences in the word is inserted or substituted, and every such code point
+ * takes an edit operation. Transposition doesn't change the bag.</li>
+ * </ul>
+ * <p>
+ * Code points are hashed into 64 buckets and the number of occurrences of a bucket in the
+ * word is kept as bitmasks of buckets occurring at least once, twice and so on up to
+ * {@link #MAX_OCCURRENCES} times. So a candidate is checked by a few bit operations per
+ * code point without allocation and the check stops as soon as a bound exceeds the degree.
+ * Buckets merge code points and more occurrences aren't counted, so the bounds may be
+ * lower than the exact ones, but never greater.
+ * </p>
+ * <p>
+ * <b>Note:</b>
+ * </p>
+ * <p>
+ * The prefilter is immutable except for its counters and is thread-safe.
+ * </p>
+ */
+public final class CandidatePrefilter {
+
+    /**
+     * The max number of occurrences of a bucket counted.
+     */
+    public static final int MAX_OCCURRENCES = 4;
+
+    private final int w;
+    private final int n;
+    /**
+     * Buckets occurring in the word at least once, twice, thrice and 4 times.
+     */
+    private final long occurs1;
+    private final long occurs2;
+    private final long occurs3;
+    private final long occurs4;
+    private final CodePointFolding codePointFolding;
+
+    private final LongAdder candidatesCounter = new LongAdder();
+    private final LongAdder rejectedCounter = new LongAdder();
+
+    private CandidatePrefilter(int w, int n, CodePointFolding codePointFolding,
+                               long occurs1, long occurs2, long occurs3, long occurs4) {
+        this.w = w;
+        this.n = n;
+        this.codePointFolding = codePointFolding;
+        this.occurs1 = occurs1;
+        this.occurs2 = occurs2;
+        this.occurs3 = occurs3;
+        this.occurs4 = occurs4;
+    }
+
+    /**
+     * Factory method to create an instance of {@code CandidatePrefilter}.
+     *
+     * @param config the config of the automaton candidates are prefiltered for.
+     */
+    public static CandidatePrefilter create(LevenshteinAutomatonConfig config) {
+        final CodePointFolding codePointFolding = config.getCodePointFolding();
+        final int[] wordCodePoints = codePointFolding.fold(config.getWordCodePoints());
+        long occurs1 = 0, occurs2 = 0, occurs3 = 0, occurs4 = 0;
+
+        for (int codePoint : wordCodePoints) {
+            long bucket = bucket(codePoint);
+
+            if ((occurs1 & bucket) == 0) occurs1 |= bucket;
+            else if ((occurs2 & bucket) == 0) occurs2 |= bucket;
+            else if ((occurs3 & bucket) == 0) occurs3 |= bucket;
+            else occurs4 |= bucket;
+        }
+
+        return new CandidatePrefilter(wordCodePoints.length, config.getDegree(), codePointFolding,
+                occurs1, occurs2, occurs3, occurs4);
+    }
+
+    /**
+     * The shift distance is taken modulo 64, so the bucket is the low 6 bits of the code point
+     * and letters of an alphabet block fall into distinct buckets.
+     */
+    private static long bucket(int codePoint) {
+        return 1L << codePoint;
+    }
+
+    /**
+     * Tests if {@code candidate} may be accepted by the automaton. If {@code false}
+     * is returned, the candidate is rejected by the automaton for sure.
+     */
+    public boolean mayMatch(CharSequence candidate) {
+        final int maxLength = w + n;
+        long seen1 = 0, seen2 = 0, seen3 = 0, seen4 = 0;
+        int length = 0;
+        int excess = 0;
+
+        for (int i = 0, size = candidate.length(); i < size; length++) {
+            if (length == maxLength) return count(false);
+
+            int codePoint = Character.codePointAt(candidate, i);
+            long bucket = bucket(codePointFolding.fold(codePoint));
+            long occurs;
+
+            if ((seen1 & bucket) == 0) {
+                seen1 |= bucket;
+                occurs = occurs1;
+            } else if ((seen2 & bucket) == 0) {
+                seen2 |= bucket;
+                occurs = occurs2;
+            } else if ((seen3 & bucket) == 0) {
+                seen3 |= bucket;
+                occurs = occurs3;
+            } else {
+                seen4 |= bucket;
+                occurs = occurs4;
+            }
+
+            if ((occurs & bucket) == 0 && ++excess > n) return count(false);
+
+            i += Character.charCount(codePoint);
+        }
+
+        return count(isWithinDegree(length, excess));
+    }
+
+    /**
+     * Tests if a candidate given as code points may be accepted by the automaton.
+     * If {@code false} is returned, the candidate is rejected by the automaton for sure.
+     *
+     * @param codePoints code points of the candidate.
+     * @param from       the index of the first code point of the candidate.
+     * @param until      the index after the last code point of the candidate.
+     */
+    public boolean mayMatch(int[] codePoints, int from, int until) {
+        final int length = until - from;
+        if (Math.abs(length - w) > n) return count(false);
+
+        final int maxExcess = n - Math.max(w - length, 0);
+        long seen1 = 0, seen2 = 0, seen3 = 0, seen4 = 0;
+        int excess = 0;
+
+        for (int i = from; i < until; i++) {
+            long bucket = bucket(codePointFolding.fold(codePoints[i]));
+            long occurs;
+
+            if ((seen1 & bucket) == 0) {
+                seen1 |= bucket;
+                occurs = occurs1;
+            } else if ((seen2 & bucket) == 0) {
+                seen2 |= bucket;
+                occurs = occurs2;
+            } else if ((seen3 & bucket) == 0) {
+                seen3 |= bucket;
+                occurs = occurs3;
+            } else {
+                seen4 |= bucket;
+                occurs = occurs4;
+            }
+
+            if ((occurs & bucket) == 0 && ++excess > maxExcess) return count(false);
+        }
+
+        return count(true);
+    }
+
+    /**
+     * Every code point of the candidate beyond the bag of the word is inserted or
+     * substituted, so {@code w - (length - excess)} code points of the word are
+     * deleted or substituted.
+     */
+    private boolean isWithinDegree(int length, int excess) {
+        return Math.abs(length - w) <= n && excess + Math.max(w - length, 0) <= n;
+    }
+
+    private boolean count(boolean mayMatch) {
+        candidatesCounter.increment();
+        if (!mayMatch) rejectedCounter.increment();
+        return mayMatch;
+    }
+
+    /**
+     * Returns the number of candidates tested.
+     */
+    public long getCandidatesCount() {
+        return candidatesCounter.sum();
+    }
+
+    /**
+     * Returns the number of candidates rejected, i.e. the number of traversals saved.
+     */
+    public long getRejectedCount() {
+        return rejectedCounter.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "CandidatePrefilter(candidates = " + getCandidatesCount() +
+                ", rejected = " + getRejectedCount() + ")";
+    }
+}
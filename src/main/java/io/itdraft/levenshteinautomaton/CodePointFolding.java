@@ -0,0 +1,72 @@
+package io.itdraft.levenshteinautomaton;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * An equivalence of code points given by folding every code point to the representative
+ * of its class, e.g. {@code 'A'}, {@code U+00C1} and {@code 'a'} to {@code 'a'}.
+ * An automaton folds the word once on construction and every alpha on a transition,
+ * so code points of a class are the same letter for the automaton and a candidate
+ * isn't normalized before it's recognized.
+ * <p>
+ * <b>Note:</b>
+ * </p>
+ * <p>
+ * A folding must be idempotent, i.e. {@code fold(fold(c)) == fold(c)}, and thread-safe.
+ * A folding maps a code point to a code point, so a candidate is expected in the composed
+ * form (NFC): a separate combining mark is a letter of its own.
+ * </p>
+ */
+@FunctionalInterface
+public interface CodePointFolding {
+
+    /**
+     * Every code point is a class of its own.
+     */
+    CodePointFolding IDENTITY = codePoint -> codePoint;
+
+    /**
+     * Folds upper and title case letters of the Latin, Greek and Cyrillic scripts
+     * to lower case by a table lookup.
+     */
+    CodePointFolding CASE_INSENSITIVE = TableCodePointFolding.create(false);
+
+    /**
+     * Folds letters of the Latin, Greek and Cyrillic scripts to lower case and strips
+     * their diacritics by a table lookup, e.g. {@code U+00C9} to {@code 'e'} and
+     * {@code U+0401} to {@code U+0435}. The Cyrillic short i {@code U+0439}
+     * is a letter of its own and only its case is folded.
+     */
+    CodePointFolding CASE_AND_ACCENT_INSENSITIVE = TableCodePointFolding.create(true);
+
+    /**
+     * Returns the representative of the class of {@code codePoint}.
+     */
+    int fold(int codePoint);
+
+    /**
+     * Returns {@code codePoints} folded into a new array or {@code codePoints} itself
+     * if this folding is {@code IDENTITY}.
+     */
+    default int[] fold(int[] codePoints) {
+        if (this == IDENTITY) return codePoints;
+
+        final int[] result = new int[codePoints.length];
+        for (int i = 0; i < codePoints.length; i++) {
+            result[i] = fold(codePoints[i]);
+        }
+        return result;
+    }
+}
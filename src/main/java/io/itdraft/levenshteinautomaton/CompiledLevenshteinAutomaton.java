@@ -0,0 +1,172 @@
+package io.itdraft.levenshteinautomaton;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.itdraft.levenshteinautomaton.util.IntArrayUtil.findInHash;
+import static io.itdraft.levenshteinautomaton.util.IntArrayUtil.getUniqueElements;
+
+/**
+ * A class to represent the Levenshtein-automaton expanded for a particular word
+ * into a dense transitions table. The table has a row per reachable state and
+ * a column per distinct code point of the word plus the column for any other code point,
+ * so a transition doesn't compute a characteristic vector.
+ * <p>
+ * <b>Note:</b>
+ * </p>
+ * <p>
+ * State ids of {@code CompiledLevenshteinAutomaton} are not compatible with state ids
+ * of the automaton it is compiled from.
+ * </p>
+ * <p>
+ * The automaton is immutable and thread-safe.
+ * </p>
+ */
+public class CompiledLevenshteinAutomaton implements LevenshteinAutomaton {
+
+    public static final int FAILURE_STATE_ID = 0;
+
+    private static final int INITIAL_STATE_ID = 1;
+
+    /**
+     * A code point which never occurs in a word, it represents the "other" column.
+     */
+    private static final int OTHER_CODE_POINT = -1;
+
+    private static final int ASCII_SIZE = 128;
+
+    private final int[] alphabetHash;
+    private final int[] asciiColumns;
+    private final CodePointFolding codePointFolding;
+    private final int columnsCount;
+    private final int[] transitions;
+    private final int[] distances;
+
+    private CompiledLevenshteinAutomaton(int[] alphabetHash, int[] asciiColumns,
+                                         CodePointFolding codePointFolding,
+                                         int[] transitions, int[] distances) {
+        this.alphabetHash = alphabetHash;
+        this.asciiColumns = asciiColumns;
+        this.codePointFolding = codePointFolding;
+        this.columnsCount = alphabetHash.length + 1;
+        this.transitions = transitions;
+        this.distances = distances;
+    }
+
+    /**
+     * Expands {@code automaton} built for {@code wordCodePoints} by breadth-first
+     * traverse of its reachable states.
+     *
+     * @param wordCodePoints   the word folded by {@code codePointFolding}.
+     * @param codePointFolding the folding of {@code automaton}, alphas are folded
+     *                         before they're looked up in the table.
+     */
+    static CompiledLevenshteinAutomaton compile(LevenshteinAutomaton automaton,
+                                                int[] wordCodePoints,
+                                                CodePointFolding codePointFolding) {
+        final int[] alphabetHash = getUniqueElements(wordCodePoints, wordCodePoints.length);
+        final int columnsCount = alphabetHash.length + 1;
+        final int[] columnCodePoints = Arrays.copyOf(alphabetHash, columnsCount);
+        columnCodePoints[columnsCount - 1] = OTHER_CODE_POINT;
+
+        // compiled ids of the source automaton states in order of discovery
+        final Map<Integer, Integer> compiledIds = new HashMap<>();
+        int[] sourceIds = new int[16];
+        int[] transitions = new int[16 * columnsCount];
+        int statesCount = INITIAL_STATE_ID + 1;
+
+        sourceIds[INITIAL_STATE_ID] = automaton.getInitialStateId();
+        compiledIds.put(sourceIds[INITIAL_STATE_ID], INITIAL_STATE_ID);
+
+        for (int id = INITIAL_STATE_ID; id < statesCount; id++) {
+            for (int column = 0; column < columnsCount; column++) {
+                int next = automaton.getNextStateId(sourceIds[id], columnCodePoints[column]);
+                int nextId = FAILURE_STATE_ID;
+
+                if (!automaton.isFailureState(next)) {
+                    Integer compiledId = compiledIds.get(next);
+
+                    if (compiledId == null) {
+                        compiledId = statesCount++;
+                        compiledIds.put(next, compiledId);
+
+                        if (compiledId == sourceIds.length) {
+                            sourceIds = Arrays.copyOf(sourceIds, compiledId * 2);
+                            transitions = Arrays.copyOf(transitions, compiledId * 2 * columnsCount);
+                        }
+                        sourceIds[compiledId] = next;
+                    }
+
+                    nextId = compiledId;
+                }
+
+                transitions[id * columnsCount + column] = nextId;
+            }
+        }
+
+        final int[] distances = new int[statesCount];
+        distances[FAILURE_STATE_ID] = -1;
+        for (int id = INITIAL_STATE_ID; id < statesCount; id++) {
+            distances[id] = automaton.getDistance(sourceIds[id]);
+        }
+
+        final int[] asciiColumns = new int[ASCII_SIZE];
+        for (int codePoint = 0; codePoint < ASCII_SIZE; codePoint++) {
+            asciiColumns[codePoint] = findColumn(alphabetHash, codePoint);
+        }
+
+        return new CompiledLevenshteinAutomaton(alphabetHash, asciiColumns, codePointFolding,
+                Arrays.copyOf(transitions, statesCount * columnsCount), distances);
+    }
+
+    private static int findColumn(int[] alphabetHash, int codePoint) {
+        int column = findInHash(alphabetHash, codePoint, alphabetHash.length);
+        return column >= 0 ? column : alphabetHash.length;
+    }
+
+    public int getInitialStateId() {
+        return INITIAL_STATE_ID;
+    }
+
+    public int getNextStateId(int curStateId, int alphaCodePoint) {
+        final int alpha = codePointFolding.fold(alphaCodePoint);
+        int column = alpha >= 0 && alpha < ASCII_SIZE ?
+                asciiColumns[alpha] : findColumn(alphabetHash, alpha);
+
+        return transitions[curStateId * columnsCount + column];
+    }
+
+    public boolean isFailureState(int stateId) {
+        return stateId == FAILURE_STATE_ID;
+    }
+
+    public boolean isFinalState(int stateId) {
+        return distances[stateId] >= 0;
+    }
+
+    public int getDistance(int stateId) {
+        return distances[stateId];
+    }
+
+    /**
+     * Returns the number of states including the failure state.
+     */
+    public int getStatesCount() {
+        return distances.length;
+    }
+}
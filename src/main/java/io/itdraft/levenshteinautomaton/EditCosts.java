@@ -0,0 +1,234 @@
+package io.itdraft.levenshteinautomaton;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Integer costs of the primitive edit operations of a weighted Levenshtein-distance.
+ * A substitution costs the default substitution cost unless a cost is set
+ * for the pair of code points, e.g. adjacent keys of a keyboard or glyphs
+ * an OCR confuses.
+ * <p>
+ * <b>Note:</b>
+ * </p>
+ * <p>
+ * Operation costs are positive and a pair cost is non-negative, a pair of zero cost
+ * makes its code points interchangeable. A pair cost is symmetric. Instances are
+ * immutable, so they can be shared between threads freely.
+ * </p>
+ * <p>Example:</p>
+ * <pre>{@code
+ * EditCosts costs = EditCosts.of(2, 2, 2, 2)
+ *         .withSubstitutionCost('0', 'O', 1)
+ *         .withSubstitutionCost('1', 'l', 1);
+ * }</pre>
+ */
+public final class EditCosts {
+
+    /**
+     * Every operation costs {@code 1}, so the distance is the Levenshtein-distance.
+     */
+    public static final EditCosts UNIT = of(1, 1, 1, 1);
+
+    private final int insertionCost;
+    private final int deletionCost;
+    private final int substitutionCost;
+    private final int transpositionCost;
+    private final Map<Long, Integer> substitutionCosts;
+
+    /**
+     * An open-addressing table of {@code substitutionCosts} looked up without boxing:
+     * a pair key is never {@code 0}, so {@code 0} marks a free slot. The tables
+     * are {@code null} if there are no pair costs.
+     */
+    private final long[] pairKeys;
+    private final int[] pairCosts;
+
+    private EditCosts(int insertionCost, int deletionCost, int substitutionCost,
+                      int transpositionCost, Map<Long, Integer> substitutionCosts) {
+        this.insertionCost = insertionCost;
+        this.deletionCost = deletionCost;
+        this.substitutionCost = substitutionCost;
+        this.transpositionCost = transpositionCost;
+        this.substitutionCosts = substitutionCosts;
+
+        if (substitutionCosts.isEmpty()) {
+            this.pairKeys = null;
+            this.pairCosts = null;
+        } else {
+            // at most half of the slots are taken, so a probe sequence is short
+            int length = Integer.highestOneBit(substitutionCosts.size()) * 4;
+            this.pairKeys = new long[length];
+            this.pairCosts = new int[length];
+
+            for (Map.Entry<Long, Integer> e : substitutionCosts.entrySet()) {
+                long key = e.getKey();
+                int slot = slot(key, length - 1);
+                while (pairKeys[slot] != 0) slot = (slot + 1) & (length - 1);
+
+                pairKeys[slot] = key;
+                pairCosts[slot] = e.getValue();
+            }
+        }
+    }
+
+    /**
+     * Factory method to create an instance of {@code EditCosts}.
+     *
+     * @param insertionCost     the cost of a letter inserted into the word.
+     * @param deletionCost      the cost of a letter deleted from the word.
+     * @param substitutionCost  the cost of a substitution of a pair without its own cost.
+     * @param transpositionCost the cost of a transposition of two adjacent letters.
+     * @throws IllegalArgumentException if a cost isn't positive.
+     */
+    public static EditCosts of(int insertionCost, int deletionCost,
+                               int substitutionCost, int transpositionCost) {
+        requirePositive(insertionCost, "insertionCost");
+        requirePositive(deletionCost, "deletionCost");
+        requirePositive(substitutionCost, "substitutionCost");
+        requirePositive(transpositionCost, "transpositionCost");
+
+        return new EditCosts(insertionCost, deletionCost, substitutionCost,
+                transpositionCost, Collections.emptyMap());
+    }
+
+    /**
+     * Returns a copy of these costs where substituting {@code a} for {@code b}
+     * and {@code b} for {@code a} costs {@code cost}.
+     *
+     * @throws IllegalArgumentException if {@code a == b} or {@code cost} is negative.
+     */
+    public EditCosts withSubstitutionCost(int a, int b, int cost) {
+        if (a == b) throw new IllegalArgumentException("A pair of the same code point " + a + ".");
+        if (cost < 0) throw new IllegalArgumentException("cost = " + cost + " is negative.");
+
+        Map<Long, Integer> costs = new HashMap<>(substitutionCosts);
+        costs.put(pairKey(a, b), cost);
+
+        return new EditCosts(insertionCost, deletionCost, substitutionCost,
+                transpositionCost, Collections.unmodifiableMap(costs));
+    }
+
+    /**
+     * Returns these costs with the pairs folded by {@code folding}, so a pair cost is found
+     * for folded code points. A pair folded to a single code point is dropped and pairs
+     * folded to the same pair keep the lowest cost.
+     */
+    EditCosts fold(CodePointFolding folding) {
+        if (folding == CodePointFolding.IDENTITY || substitutionCosts.isEmpty()) return this;
+
+        Map<Long, Integer> costs = new HashMap<>();
+        for (Map.Entry<Long, Integer> e : substitutionCosts.entrySet()) {
+            long key = e.getKey();
+            int a = folding.fold((int) (key >> 32));
+            int b = folding.fold((int) key);
+
+            if (a != b) costs.merge(pairKey(a, b), e.getValue(), Math::min);
+        }
+
+        return new EditCosts(insertionCost, deletionCost, substitutionCost,
+                transpositionCost, Collections.unmodifiableMap(costs));
+    }
+
+    public int getInsertionCost() {
+        return insertionCost;
+    }
+
+    public int getDeletionCost() {
+        return deletionCost;
+    }
+
+    /**
+     * Returns the cost of a substitution of a pair without its own cost.
+     */
+    public int getSubstitutionCost() {
+        return substitutionCost;
+    }
+
+    public int getTranspositionCost() {
+        return transpositionCost;
+    }
+
+    /**
+     * Returns the cost of substituting {@code b} for {@code a}, it's {@code 0}
+     * if {@code a == b}.
+     */
+    public int getSubstitutionCost(int a, int b) {
+        if (a == b) return 0;
+
+        final long[] keys = pairKeys;
+        if (keys == null) return substitutionCost;
+
+        final long key = pairKey(a, b);
+        final int mask = keys.length - 1;
+        for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return pairCosts[slot];
+            if (keys[slot] == 0) return substitutionCost;
+        }
+    }
+
+    /**
+     * Whether {@code that} has the same insertion, deletion and transposition costs,
+     * substitution costs may differ.
+     */
+    public boolean hasSameOperationCosts(EditCosts that) {
+        return insertionCost == that.insertionCost &&
+                deletionCost == that.deletionCost &&
+                transpositionCost == that.transpositionCost;
+    }
+
+    private static long pairKey(int a, int b) {
+        return (long) Math.min(a, b) << 32 | Math.max(a, b);
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ h >>> 32) & mask;
+    }
+
+    private static void requirePositive(int cost, String name) {
+        if (cost <= 0) throw new IllegalArgumentException(name + " = " + cost + " isn't positive.");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EditCosts)) return false;
+
+        EditCosts that = (EditCosts) o;
+        return hasSameOperationCosts(that) &&
+                substitutionCost == that.substitutionCost &&
+                substitutionCosts.equals(that.substitutionCosts);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = insertionCost;
+        result = 31 * result + deletionCost;
+        result = 31 * result + substitutionCost;
+        result = 31 * result + transpositionCost;
+        result = 31 * result + substitutionCosts.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "EditCosts(" + insertionCost + ", " + deletionCost + ", " + substitutionCost +
+                ", " + transpositionCost + ", " + substitutionCosts.size() + " pairs)";
+    }
+}
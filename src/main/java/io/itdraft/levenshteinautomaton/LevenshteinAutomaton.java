@@ -0,0 +1,95 @@
+package io.itdraft.levenshteinautomaton;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Represents the Levenshtein-automaton whose states are encoded as integers.
+ * <p>
+ * <b>Note:</b>
+ * </p>
+ * <p>
+ * Automata of this library are immutable and can be shared between threads,
+ * a traverse state is kept by the caller, e.g. in a {@code LevenshteinMatcher}.
+ * </p>
+ */
+public interface LevenshteinAutomaton {
+
+    /**
+     * Returns the initial state to start an automaton traverse.
+     */
+    int getInitialStateId();
+
+    /**
+     * Method to traverse the automaton.
+     *
+     * @param curStateId     current state.
+     * @param alphaCodePoint code point of a next alpha from the word
+     *                       is being recognized.
+     * @return next automaton state.
+     */
+    int getNextStateId(int curStateId, int alphaCodePoint);
+
+    /**
+     * Tests if `state` is a failure state.
+     */
+    boolean isFailureState(int stateId);
+
+    /**
+     * Tests if `state` is a final state.
+     */
+    boolean isFinalState(int stateId);
+
+    /**
+     * Returns the Levenshtein-distance between the word the automaton is built for
+     * and the word recognized up to `state`.
+     *
+     * @return the Levenshtein-distance if `state` is a final state or {@code -1} otherwise.
+     */
+    int getDistance(int stateId);
+
+    /**
+     * Tests if the automaton can read another code point from `state` without reaching
+     * the failure state, e.g. a dictionary traverse doesn't descend below a node
+     * reached in a state that can't advance.
+     * <p>
+     * The default implementation tests if `state` isn't a failure state.
+     * </p>
+     */
+    default boolean canAdvance(int stateId) {
+        return !isFailureState(stateId);
+    }
+
+    /**
+     * Tests if `state` accepts the word recognized up to it in the prefix mode,
+     * i.e. the word the automaton is built for is within the degree of the recognized word.
+     * The recognized word is a prefix of every its continuation, so every continuation
+     * is accepted as well and the rest of a candidate can be skipped.
+     * <p>
+     * A final state is such a state, so autocomplete with a Levenshtein-automaton
+     * is a traverse that stops at the first final state.
+     * </p>
+     */
+    default boolean isPrefixFinalState(int stateId) {
+        return isFinalState(stateId);
+    }
+
+    /**
+     * Creates a matcher to recognize words by this automaton. Matchers are not
+     * thread-safe, but any number of them can share an automaton.
+     */
+    default LevenshteinMatcher matcher() {
+        return new LevenshteinMatcher(this);
+    }
+}
@@ -18,11 +18,21 @@ import static io.itdraft.levenshteinautomaton.util.StringUtil.toCodePoints;
 
 /**
  * Represents a configuration to build the Levenshtein-automaton.
+ * <p>
+ * <b>Note:</b>
+ * </p>
+ * <p>
+ * The config is mutable and keeps the word code points array given by the caller.
+ * Every automaton takes a defensive copy of the config and the word on construction,
+ * so changing either later doesn't affect it and the automaton can be shared between
+ * threads, while the config itself isn't thread-safe.
+ * </p>
  */
 public class LevenshteinAutomatonConfig {
     private int[] wordCodePoints;
     private int degree;
     private boolean inclTransposition;
+    private CodePointFolding codePointFolding = CodePointFolding.IDENTITY;
 
     /**
      * Constructor. Transposition support is excluded.
@@ -80,6 +90,25 @@ public class LevenshteinAutomatonConfig {
         this.inclTransposition = inclTransposition;
     }
 
+    /**
+     * Constructor.
+     *
+     * @param wordCodePoints    code points of an input word the Levenshtein-automaton
+     *                          is being built for.
+     * @param degree            automaton recognizes the set of all words
+     *                          where the Levenshtein-distance between a word from
+     *                          the set and {@code word} does not exceed {@code degree}.
+     * @param inclTransposition whether include transposition as a primitive edit
+     *                          operation.
+     * @param codePointFolding  an equivalence of code points, e.g.
+     *                          {@code CodePointFolding.CASE_AND_ACCENT_INSENSITIVE}.
+     */
+    public LevenshteinAutomatonConfig(int[] wordCodePoints, int degree, boolean inclTransposition,
+                                      CodePointFolding codePointFolding) {
+        this(wordCodePoints, degree, inclTransposition);
+        this.codePointFolding = codePointFolding;
+    }
+
     /**
      * The input word the Levenshtein-automaton is for.
      */
@@ -87,6 +116,13 @@ public class LevenshteinAutomatonConfig {
         return wordCodePoints;
     }
 
+    /**
+     * The length of the input word in code points.
+     */
+    public int getWordLength() {
+        return wordCodePoints.length;
+    }
+
     /**
      * Automaton recognizes the set of all words
      * where the Levenshtein-distance between a word from the set
@@ -103,6 +139,23 @@ public class LevenshteinAutomatonConfig {
         return inclTransposition;
     }
 
+    /**
+     * An equivalence of code points, code points of a class are the same letter
+     * for the automaton. It's {@code CodePointFolding.IDENTITY} by default.
+     */
+    public CodePointFolding getCodePointFolding() {
+        return codePointFolding;
+    }
+
+    /**
+     * Returns a copy of this config with its own word code points, automata keep such
+     * a copy, so changing this config or the word array later doesn't affect them.
+     */
+    LevenshteinAutomatonConfig copy() {
+        return new LevenshteinAutomatonConfig(wordCodePoints.clone(), degree, inclTransposition,
+                codePointFolding);
+    }
+
     public void setWord(int[] wordCodePoints) {
         this.wordCodePoints = wordCodePoints;
     }
@@ -114,4 +167,8 @@ public class LevenshteinAutomatonConfig {
     public void setInclTransposition(boolean inclTransposition) {
         this.inclTransposition = inclTransposition;
     }
+
+    public void setCodePointFolding(CodePointFolding codePointFolding) {
+        this.codePointFolding = codePointFolding;
+    }
 }
@@ -0,0 +1,122 @@
+package io.itdraft.levenshteinautomaton;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * A cursor to recognize words by a {@code LevenshteinAutomaton} code point by code point.
+ * A matcher keeps only the current state, the automaton is shared, so a thread creates
+ * a matcher once and reuses it for every word without locks or allocation.
+ * <p>
+ * <b>Note:</b>
+ * </p>
+ * <p>
+ * A matcher is not thread-safe, every thread should have its own one.
+ * </p>
+ *
+ * @see LevenshteinAutomaton#matcher()
+ */
+public final class LevenshteinMatcher {
+
+    private final LevenshteinAutomaton automaton;
+    private int stateId;
+
+    LevenshteinMatcher(LevenshteinAutomaton automaton) {
+        this.automaton = automaton;
+        this.stateId = automaton.getInitialStateId();
+    }
+
+    /**
+     * Resets this matcher to the initial state.
+     *
+     * @return this matcher.
+     */
+    public LevenshteinMatcher reset() {
+        stateId = automaton.getInitialStateId();
+        return this;
+    }
+
+    /**
+     * Transits to the next state.
+     *
+     * @return {@code false} if the automaton is in the failure state.
+     */
+    public boolean advance(int codePoint) {
+        if (automaton.isFailureState(stateId)) return false;
+
+        stateId = automaton.getNextStateId(stateId, codePoint);
+        return !automaton.isFailureState(stateId);
+    }
+
+    /**
+     * Transits by every code point of {@code chars}, stops as soon as
+     * the automaton reaches the failure state.
+     *
+     * @return {@code false} if the automaton is in the failure state.
+     */
+    public boolean advance(CharSequence chars) {
+        for (int i = 0, length = chars.length(); i < length; ) {
+            int codePoint = Character.codePointAt(chars, i);
+
+            if (!advance(codePoint)) return false;
+
+            i += Character.charCount(codePoint);
+        }
+
+        return !automaton.isFailureState(stateId);
+    }
+
+    /**
+     * Returns the current state id.
+     */
+    public int getStateId() {
+        return stateId;
+    }
+
+    public boolean isFailure() {
+        return automaton.isFailureState(stateId);
+    }
+
+    public boolean isFinal() {
+        return automaton.isFinalState(stateId);
+    }
+
+    /**
+     * Returns the Levenshtein-distance between the word the automaton is built for
+     * and the code points passed since the last reset.
+     *
+     * @return the Levenshtein-distance if the current state is final or {@code -1} otherwise.
+     */
+    public int distance() {
+        return automaton.isFailureState(stateId) ? -1 : automaton.getDistance(stateId);
+    }
+
+    /**
+     * Resets this matcher and returns the Levenshtein-distance to {@code word}.
+     *
+     * @return the Levenshtein-distance if {@code word} is accepted or {@code -1} otherwise.
+     */
+    public int distance(CharSequence word) {
+        reset();
+        advance(word);
+        return distance();
+    }
+
+    /**
+     * Resets this matcher and tests if {@code word} is accepted.
+     */
+    public boolean matches(CharSequence word) {
+        return distance(word) >= 0;
+    }
+}
@@ -0,0 +1,151 @@
+package io.itdraft.levenshteinautomaton;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import io.itdraft.levenshteinautomaton.description.parametric.ParametricDescriptionFactory;
+import io.itdraft.levenshteinautomaton.description.parametric.ParametricDescriptionNotFoundException;
+import io.itdraft.levenshteinautomaton.description.parametric.coding.EncodedParametricDescriptionFactory;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import static io.itdraft.levenshteinautomaton.util.StringUtil.toCodePoints;
+
+/**
+ * Levenshtein-automata of the same degree built for a set of patterns, e.g. a watch-list,
+ * to recognize a candidate by all of them in a single pass.
+ * <p>
+ * Automata are sorted by the length of their patterns. Every edit operation changes
+ * the length by one at most, so only patterns of length from {@code L - n} to
+ * {@code L + n} can accept a candidate of length {@code L}, and they are a contiguous
+ * range of automata. {@code MultiPatternMatcher} traverses that range in lockstep.
+ * </p>
+ * <p>
+ * <b>Note:</b>
+ * </p>
+ * <p>
+ * The automaton is immutable and thread-safe, every thread recognizes candidates
+ * by its own {@code MultiPatternMatcher}.
+ * </p>
+ */
+public final class MultiPatternAutomaton {
+
+    /**
+     * Automata sorted by the length of their patterns.
+     */
+    final ParametricLevenshteinAutomaton[] automata;
+    /**
+     * Indices of patterns of {@code automata} in the order the patterns are given.
+     */
+    final int[] patterns;
+    /**
+     * Automata of patterns of length {@code l} are from {@code firstByLength[l]}
+     * up to (but not including) {@code firstByLength[l + 1]}.
+     */
+    private final int[] firstByLength;
+    private final int n;
+
+    private MultiPatternAutomaton(ParametricLevenshteinAutomaton[] automata, int[] patterns,
+                                  int[] firstByLength, int degree) {
+        this.automata = automata;
+        this.patterns = patterns;
+        this.firstByLength = firstByLength;
+        this.n = degree;
+    }
+
+    public static MultiPatternAutomaton create(String[] patterns, int degree, boolean inclTransposition)
+            throws ParametricDescriptionNotFoundException {
+        return create(patterns, degree, inclTransposition, new EncodedParametricDescriptionFactory());
+    }
+
+    /**
+     * Factory method to create an instance of {@code MultiPatternAutomaton}.
+     *
+     * @param patterns words to recognize candidates by.
+     * @throws ParametricDescriptionNotFoundException if parametric description for specified
+     *                                                {@code degree} and {@code inclTransposition}
+     *                                                is not found.
+     */
+    public static MultiPatternAutomaton create(
+            String[] patterns, int degree, boolean inclTransposition,
+            ParametricDescriptionFactory parametricDescriptionFactory)
+            throws ParametricDescriptionNotFoundException {
+        final int[][] codePoints = new int[patterns.length][];
+        final Integer[] order = new Integer[patterns.length];
+        int maxLength = 0;
+
+        for (int i = 0; i < patterns.length; i++) {
+            codePoints[i] = toCodePoints(patterns[i]);
+            order[i] = i;
+            maxLength = Math.max(maxLength, codePoints[i].length);
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> codePoints[i].length));
+
+        final ParametricLevenshteinAutomaton[] automata = new ParametricLevenshteinAutomaton[patterns.length];
+        final int[] indices = new int[patterns.length];
+        final int[] firstByLength = new int[maxLength + 2];
+
+        for (int k = 0; k < order.length; k++) {
+            int i = order[k];
+            automata[k] = ParametricLevenshteinAutomaton.create(
+                    new LevenshteinAutomatonConfig(codePoints[i], degree, inclTransposition),
+                    parametricDescriptionFactory);
+            indices[k] = i;
+            firstByLength[codePoints[i].length + 1] = k + 1;
+        }
+        // a length no pattern has starts where the previous length ends
+        for (int l = 1; l < firstByLength.length; l++) {
+            firstByLength[l] = Math.max(firstByLength[l], firstByLength[l - 1]);
+        }
+
+        return new MultiPatternAutomaton(automata, indices, firstByLength, degree);
+    }
+
+    /**
+     * Returns the number of patterns.
+     */
+    public int size() {
+        return automata.length;
+    }
+
+    /**
+     * Returns the degree of automata.
+     */
+    public int getDegree() {
+        return n;
+    }
+
+    /**
+     * Returns the index of the first automaton that can accept a candidate of {@code length}.
+     */
+    int fromAutomaton(int length) {
+        return firstByLength[Math.min(Math.max(length - n, 0), firstByLength.length - 1)];
+    }
+
+    /**
+     * Returns the index after the last automaton that can accept a candidate of {@code length}.
+     */
+    int untilAutomaton(int length) {
+        return firstByLength[Math.min(length + n + 1, firstByLength.length - 1)];
+    }
+
+    /**
+     * Creates a matcher to recognize candidates by this automaton. Matchers are not
+     * thread-safe, but any number of them can share an automaton.
+     */
+    public MultiPatternMatcher matcher() {
+        return new MultiPatternMatcher(this);
+    }
+}
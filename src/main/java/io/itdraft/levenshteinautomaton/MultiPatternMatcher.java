@@ -0,0 +1,138 @@
+package io.itdraft.levenshteinautomaton;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.BitSet;
+
+/**
+ * A cursor to recognize candidates by every automaton of a {@code MultiPatternAutomaton}
+ * in a single pass. Automata that can accept a candidate of its length are advanced
+ * in lockstep code point by code point, their states are kept in a plain {@code int[]}
+ * and an automaton is dropped from the active set as soon as it reaches the failure state,
+ * so the pass ends as soon as no automaton is left.
+ * <p>
+ * <b>Note:</b>
+ * </p>
+ * <p>
+ * A matcher is not thread-safe, every thread should have its own one.
+ * </p>
+ *
+ * @see MultiPatternAutomaton#matcher()
+ */
+public final class MultiPatternMatcher {
+
+    private final MultiPatternAutomaton automaton;
+    /**
+     * Indices of active automata and their states.
+     */
+    private final int[] active;
+    private final int[] stateIds;
+
+    MultiPatternMatcher(MultiPatternAutomaton automaton) {
+        this.automaton = automaton;
+        this.active = new int[automaton.size()];
+        this.stateIds = new int[automaton.size()];
+    }
+
+    /**
+     * Passes every pattern that accepts {@code candidate} to {@code handler}.
+     * Patterns are passed in the ascending order of their lengths.
+     */
+    public void match(CharSequence candidate, PatternMatchHandler handler) {
+        final ParametricLevenshteinAutomaton[] automata = automaton.automata;
+        int count = activate(Character.codePointCount(candidate, 0, candidate.length()));
+
+        for (int i = 0, length = candidate.length(); i < length && count > 0; ) {
+            int codePoint = Character.codePointAt(candidate, i);
+            count = advance(automata, count, codePoint);
+            i += Character.charCount(codePoint);
+        }
+
+        report(automata, count, handler);
+    }
+
+    /**
+     * Passes every pattern that accepts a candidate given as code points to {@code handler}.
+     * Patterns are passed in the ascending order of their lengths.
+     *
+     * @param codePoints code points of the candidate.
+     * @param from       the index of the first code point of the candidate.
+     * @param until      the index after the last code point of the candidate.
+     */
+    public void match(int[] codePoints, int from, int until, PatternMatchHandler handler) {
+        final ParametricLevenshteinAutomaton[] automata = automaton.automata;
+        int count = activate(until - from);
+
+        for (int i = from; i < until && count > 0; i++) {
+            count = advance(automata, count, codePoints[i]);
+        }
+
+        report(automata, count, handler);
+    }
+
+    /**
+     * Returns indices of patterns that accept {@code candidate}.
+     */
+    public BitSet match(CharSequence candidate) {
+        BitSet result = new BitSet();
+        match(candidate, (pattern, distance) -> result.set(pattern));
+        return result;
+    }
+
+    /**
+     * Activates automata that can accept a candidate of {@code length} code points.
+     *
+     * @return the number of active automata.
+     */
+    private int activate(int length) {
+        final int from = automaton.fromAutomaton(length);
+        final int count = automaton.untilAutomaton(length) - from;
+        final ParametricLevenshteinAutomaton[] automata = automaton.automata;
+
+        for (int k = 0; k < count; k++) {
+            active[k] = from + k;
+            stateIds[k] = automata[from + k].getInitialStateId();
+        }
+        return count;
+    }
+
+    /**
+     * Transits active automata by {@code codePoint} and drops failed ones.
+     *
+     * @return the number of active automata.
+     */
+    private int advance(ParametricLevenshteinAutomaton[] automata, int count, int codePoint) {
+        int live = 0;
+
+        for (int k = 0; k < count; k++) {
+            ParametricLevenshteinAutomaton a = automata[active[k]];
+            int stateId = a.getNextStateId(stateIds[k], codePoint);
+
+            if (!a.isFailureState(stateId)) {
+                active[live] = active[k];
+                stateIds[live] = stateId;
+                live++;
+            }
+        }
+        return live;
+    }
+
+    private void report(ParametricLevenshteinAutomaton[] automata, int count, PatternMatchHandler handler) {
+        for (int k = 0; k < count; k++) {
+            int distance = automata[active[k]].getDistance(stateIds[k]);
+            if (distance >= 0) handler.apply(automaton.patterns[active[k]], distance);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package io.itdraft.levenshteinautomaton;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Receives approximate occurrences of a word in a text as soon as they are found.
+ *
+ * @see OccurrenceMatcher
+ */
+@FunctionalInterface
+public interface OccurrenceHandler {
+
+    /**
+     * @param offset   the offset of the occurrence from the start of the text.
+     * @param length   the length of the occurrence.
+     * @param distance the Levenshtein-distance between the word and the occurrence.
+     */
+    void apply(long offset, int length, int distance);
+}
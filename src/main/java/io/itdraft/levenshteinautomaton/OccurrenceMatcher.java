@@ -0,0 +1,294 @@
+package io.itdraft.levenshteinautomaton;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import io.itdraft.levenshteinautomaton.util.Utf8Util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+
+import static io.itdraft.levenshteinautomaton.util.Utf8Util.REPLACEMENT_CHARACTER;
+
+/**
+ * Finds every non-empty substring of a text within the degree of the word a
+ * {@code ParametricLevenshteinAutomaton} is built for. The text is fed in chunks
+ * of any size, a chunk can end in the middle of a code point.
+ * <p>
+ * An occurrence can start at any code point of the text, so the matcher keeps a traverse
+ * per start. A traverse is dropped as soon as it reaches the failure state or reads
+ * {@code w + n} code points, since a longer substring is never within the degree.
+ * So the matcher keeps at most {@code w + n + 1} traverses in arrays allocated once
+ * and its memory doesn't depend on the length of the text.
+ * </p>
+ * <p>
+ * <b>Note:</b>
+ * </p>
+ * <p>
+ * Offsets and lengths of occurrences are in chars when the text is fed as chars and
+ * in bytes when it's fed as UTF-8 bytes, so the same text shouldn't be fed both ways.
+ * Malformed UTF-8 is read as {@code U+FFFD} and an unpaired surrogate as itself.
+ * A matcher is not thread-safe.
+ * </p>
+ * <p>Example:</p>
+ * <pre>{@code
+ * OccurrenceMatcher matcher = OccurrenceMatcher.create(automaton,
+ *         (offset, length, distance) -> System.out.println(offset + ":" + length));
+ * try (FileChannel channel = FileChannel.open(path)) {
+ *     ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+ *     while (channel.read(buffer) >= 0) {
+ *         buffer.flip();
+ *         matcher.feed(buffer);
+ *         buffer.clear();
+ *     }
+ * }
+ * matcher.finish();
+ * }</pre>
+ */
+public final class OccurrenceMatcher {
+
+    private static final int READ_BUFFER_SIZE = 4096;
+
+    private static final int NO_CHAR = -1;
+
+    private final LevenshteinAutomaton automaton;
+    private final OccurrenceHandler handler;
+    private final int initialStateId;
+    /**
+     * The max number of code points in an occurrence, {@code w + n}.
+     */
+    private final int maxLength;
+
+    // traverses are ordered by their starts
+    private final int[] stateIds;
+    private final long[] starts;
+    private final int[] lengths;
+    private int count;
+
+    private long position;
+
+    private int pendingHighSurrogate = NO_CHAR;
+    private int pendingCodePoint;
+    private int pendingBytesCount;
+    private int pendingContinuationsCount;
+
+    private char[] readBuffer;
+
+    private OccurrenceMatcher(LevenshteinAutomaton automaton, OccurrenceHandler handler, int maxLength) {
+        this.automaton = automaton;
+        this.handler = handler;
+        this.initialStateId = automaton.getInitialStateId();
+        this.maxLength = maxLength;
+        this.stateIds = new int[maxLength + 1];
+        this.starts = new long[maxLength + 1];
+        this.lengths = new int[maxLength + 1];
+    }
+
+    /**
+     * Factory method to create an instance of {@code OccurrenceMatcher}.
+     *
+     * @param automaton an automaton built for the word to find.
+     * @param handler   a handler to receive occurrences.
+     */
+    public static OccurrenceMatcher create(ParametricLevenshteinAutomaton automaton,
+                                           OccurrenceHandler handler) {
+        return new OccurrenceMatcher(automaton, handler,
+                automaton.getWordLength() + automaton.getDegree());
+    }
+
+    /**
+     * Returns the number of chars or bytes fed since the matcher is created or reset.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Resets this matcher to read a new text.
+     *
+     * @return this matcher.
+     */
+    public OccurrenceMatcher reset() {
+        count = 0;
+        position = 0;
+        pendingHighSurrogate = NO_CHAR;
+        pendingContinuationsCount = 0;
+        return this;
+    }
+
+    /**
+     * Feeds chars of a text.
+     *
+     * @return this matcher.
+     */
+    public OccurrenceMatcher feed(CharSequence chars) {
+        for (int i = 0, length = chars.length(); i < length; i++) {
+            feedChar(chars.charAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * Feeds the remaining chars of {@code buffer}, the position of the buffer
+     * is set to its limit.
+     *
+     * @return this matcher.
+     */
+    public OccurrenceMatcher feed(CharBuffer buffer) {
+        final int limit = buffer.limit();
+
+        for (int i = buffer.position(); i < limit; i++) {
+            feedChar(buffer.get(i));
+        }
+        buffer.position(limit);
+        return this;
+    }
+
+    /**
+     * Feeds the remaining UTF-8 bytes of {@code buffer}, the position of the buffer
+     * is set to its limit. Bytes are decoded in place, so a direct or a memory-mapped
+     * buffer is never copied to the heap.
+     *
+     * @return this matcher.
+     */
+    public OccurrenceMatcher feed(ByteBuffer buffer) {
+        final int limit = buffer.limit();
+
+        for (int i = buffer.position(); i < limit; i++) {
+            feedByte(buffer.get(i) & 0xFF);
+        }
+        buffer.position(limit);
+        return this;
+    }
+
+    /**
+     * Feeds every char of {@code reader} till the end of the stream. Chars are read
+     * by a buffer allocated once per matcher. The reader isn't closed.
+     *
+     * @return this matcher.
+     */
+    public OccurrenceMatcher feed(Reader reader) throws IOException {
+        if (readBuffer == null) readBuffer = new char[READ_BUFFER_SIZE];
+
+        for (int read; (read = reader.read(readBuffer)) >= 0; ) {
+            for (int i = 0; i < read; i++) {
+                feedChar(readBuffer[i]);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Reads a code point left incomplete at the end of the text.
+     *
+     * @return this matcher.
+     */
+    public OccurrenceMatcher finish() {
+        if (pendingHighSurrogate != NO_CHAR) {
+            int highSurrogate = pendingHighSurrogate;
+            pendingHighSurrogate = NO_CHAR;
+            advance(highSurrogate, 1);
+        }
+
+        if (pendingContinuationsCount > 0) {
+            pendingContinuationsCount = 0;
+            advance(REPLACEMENT_CHARACTER, pendingBytesCount);
+        }
+        return this;
+    }
+
+    private void feedChar(char c) {
+        if (pendingHighSurrogate != NO_CHAR) {
+            char highSurrogate = (char) pendingHighSurrogate;
+            pendingHighSurrogate = NO_CHAR;
+
+            if (Character.isLowSurrogate(c)) {
+                advance(Character.toCodePoint(highSurrogate, c), 2);
+                return;
+            }
+            advance(highSurrogate, 1);
+        }
+
+        if (Character.isHighSurrogate(c)) pendingHighSurrogate = c;
+        else advance(c, 1);
+    }
+
+    private void feedByte(int b) {
+        if (pendingContinuationsCount > 0) {
+            if (Utf8Util.isContinuation(b)) {
+                pendingCodePoint = pendingCodePoint << 6 | b & 0x3F;
+                pendingBytesCount++;
+
+                if (--pendingContinuationsCount == 0) {
+                    advance(Utf8Util.isValid(pendingCodePoint, pendingBytesCount) ?
+                            pendingCodePoint : REPLACEMENT_CHARACTER, pendingBytesCount);
+                }
+                return;
+            }
+
+            // the sequence is truncated, the byte starts a new one
+            pendingContinuationsCount = 0;
+            advance(REPLACEMENT_CHARACTER, pendingBytesCount);
+        }
+
+        if (b < 0x80) {
+            advance(b, 1);
+            return;
+        }
+
+        final int continuationsCount = Utf8Util.continuationsCount(b);
+        if (continuationsCount == 0) {
+            advance(REPLACEMENT_CHARACTER, 1);
+            return;
+        }
+
+        pendingCodePoint = b & (0x3F >> continuationsCount);
+        pendingBytesCount = 1;
+        pendingContinuationsCount = continuationsCount;
+    }
+
+    /**
+     * Starts a traverse at the current position and transits every traverse
+     * by {@code codePoint} which takes {@code size} chars or bytes.
+     */
+    private void advance(int codePoint, int size) {
+        stateIds[count] = initialStateId;
+        starts[count] = position;
+        lengths[count] = 0;
+        count++;
+
+        position += size;
+
+        int live = 0;
+        for (int k = 0; k < count; k++) {
+            if (lengths[k] == maxLength) continue;
+
+            int stateId = automaton.getNextStateId(stateIds[k], codePoint);
+            if (automaton.isFailureState(stateId)) continue;
+
+            long start = starts[k];
+            stateIds[live] = stateId;
+            starts[live] = start;
+            lengths[live] = lengths[k] + 1;
+            live++;
+
+            if (automaton.isFinalState(stateId)) {
+                handler.apply(start, (int) (position - start), automaton.getDistance(stateId));
+            }
+        }
+        count = live;
+    }
+}
@@ -17,9 +17,18 @@ package io.itdraft.levenshteinautomaton;
 import io.itdraft.levenshteinautomaton.description.parametric.ParametricDescription;
 import io.itdraft.levenshteinautomaton.description.parametric.ParametricDescriptionFactory;
 import io.itdraft.levenshteinautomaton.description.parametric.ParametricDescriptionNotFoundException;
+import io.itdraft.levenshteinautomaton.description.parametric.coding.CharacteristicVectorIndex;
+import io.itdraft.levenshteinautomaton.description.parametric.coding.EncodedParametricDescription;
 import io.itdraft.levenshteinautomaton.description.parametric.coding.EncodedParametricDescriptionFactory;
+import io.itdraft.levenshteinautomaton.description.parametric.coding.FastParametricDescription;
+import io.itdraft.levenshteinautomaton.util.Utf8Util;
 
-import static io.itdraft.levenshteinautomaton.description.parametric.coding.CharacteristicVectorCodec.computeEncodedCharacteristicVector;
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+
+import static io.itdraft.levenshteinautomaton.util.StringUtil.codePointAt;
+import static io.itdraft.levenshteinautomaton.util.StringUtil.isCodePointCountWithin;
 import static io.itdraft.levenshteinautomaton.util.StringUtil.toCodePoints;
 
 /**
@@ -29,11 +38,24 @@ import static io.itdraft.levenshteinautomaton.util.StringUtil.toCodePoints;
  * <b>Note:</b>
  * </p>
  * <p>
- * Lazy because computes a characteristic vector on every transition.
+ * Lazy because computes a characteristic vector on every transition. The vector
+ * is taken from a {@code CharacteristicVectorIndex} of the word.
+ * </p>
+ * <p>
+ * The automaton is immutable and thread-safe: it copies the word of the config
+ * and keeps no traverse state, so threads share one automaton and recognize words
+ * by {@code matches}, {@code distance} or their own {@code LevenshteinMatcher}s.
  * </p>
  */
-public class ParametricLevenshteinAutomaton {
+public class ParametricLevenshteinAutomaton implements LevenshteinAutomaton {
+    /**
+     * The state id of a rejected traverse, state ids of a description aren't negative.
+     */
+    private static final int REJECTED = -1;
+
     private final int[] wordCodePoints;
+    private final CodePointFolding codePointFolding;
+    private final CharacteristicVectorIndex vectorIndex;
     private final ParametricDescription parametricDescription;
 
     /**
@@ -76,7 +98,12 @@ public class ParametricLevenshteinAutomaton {
 
     private ParametricLevenshteinAutomaton(
             LevenshteinAutomatonConfig config, ParametricDescription parametricDescription) {
-        wordCodePoints = config.getWordCodePoints();
+        codePointFolding = config.getCodePointFolding();
+        // the word is folded once, alphas are folded on transitions
+        wordCodePoints = codePointFolding == CodePointFolding.IDENTITY
+                ? config.getWordCodePoints().clone()
+                : codePointFolding.fold(config.getWordCodePoints());
+        vectorIndex = CharacteristicVectorIndex.create(wordCodePoints);
         n = config.getDegree();
         w = wordCodePoints.length;
         this.parametricDescription = parametricDescription;
@@ -91,29 +118,507 @@ public class ParametricLevenshteinAutomaton {
      * @return next automaton state.
      */
     public int getNextStateId(int curStateId, int alphaCodePoint) {
-        int minBoundary = parametricDescription.getStateMinBoundary(curStateId);
-
-        int characteristicVector = computeRelevantSubwordCharacteristicVector(
-                minBoundary, alphaCodePoint);
+        return getNextStateId(parametricDescription, curStateId, alphaCodePoint);
+    }
 
-        return parametricDescription.getNextStateId(characteristicVector, curStateId);
+    public int getInitialStateId() {
+        return parametricDescription.getInitialStateId();
     }
 
-    private int computeRelevantSubwordCharacteristicVector(int wordOffset, int codePoint) {
-        int relevantSubwordLength = relevantSubwordLength(wordOffset, n, w);
+    /**
+     * Expands this automaton into a {@code CompiledLevenshteinAutomaton}. Compilation
+     * takes time proportional to the number of reachable states multiplied by the number
+     * of distinct code points in the word, so it pays off when the automaton is used to
+     * recognize a lot of words.
+     */
+    public CompiledLevenshteinAutomaton compile() {
+        return CompiledLevenshteinAutomaton.compile(this, wordCodePoints, codePointFolding);
+    }
 
-        return computeEncodedCharacteristicVector(
-                codePoint, wordCodePoints, wordOffset, wordOffset + relevantSubwordLength);
+    /**
+     * Returns the length of the word this automaton is built for in code points.
+     */
+    public int getWordLength() {
+        return w;
     }
 
-    public int getInitialStateId() {
-        return parametricDescription.getInitialStateId();
+    /**
+     * Returns the degree of this automaton.
+     */
+    public int getDegree() {
+        return n;
     }
 
     private int relevantSubwordLength(int minBoundary, int n, int w) {
         return Math.min(2 * n + 1, w - minBoundary);
     }
 
+    /**
+     * Tests if {@code word} is accepted by this automaton. Recognition stops as soon as
+     * the automaton reaches the failure state.
+     */
+    public boolean matches(CharSequence word) {
+        return distance(word) >= 0;
+    }
+
+    /**
+     * Tests if a word is accepted by this automaton. Recognition stops as soon as
+     * the automaton reaches the failure state.
+     *
+     * @param codePoints code points of the word to recognize.
+     * @param from       the index of the first code point of the word.
+     * @param until      the index after the last code point of the word.
+     */
+    public boolean matches(int[] codePoints, int from, int until) {
+        return distance(codePoints, from, until) >= 0;
+    }
+
+    /**
+     * Tests if a range of {@code chars} is accepted by this automaton.
+     *
+     * @see #distance(CharSequence, int, int)
+     */
+    public boolean matches(CharSequence chars, int from, int until) {
+        return distance(chars, from, until) >= 0;
+    }
+
+    /**
+     * Tests if a range of {@code chars} is accepted by this automaton.
+     *
+     * @see #distance(char[], int, int)
+     */
+    public boolean matches(char[] chars, int from, int until) {
+        return distance(chars, from, until) >= 0;
+    }
+
+    /**
+     * Tests if a word encoded in UTF-8 is accepted by this automaton.
+     *
+     * @see #distance(byte[], int, int)
+     */
+    public boolean matches(byte[] utf8, int from, int until) {
+        return distance(utf8, from, until) >= 0;
+    }
+
+    /**
+     * Tests if a word encoded in UTF-8 between the position and the limit
+     * of {@code utf8} is accepted by this automaton.
+     *
+     * @see #distance(ByteBuffer)
+     */
+    public boolean matches(ByteBuffer utf8) {
+        return distance(utf8) >= 0;
+    }
+
+    /**
+     * Returns the Levenshtein-distance between the word this automaton is built for
+     * and {@code word}. Recognition stops as soon as the automaton reaches the failure state.
+     *
+     * @return the Levenshtein-distance if {@code word} is accepted or {@code -1} otherwise.
+     */
+    public int distance(CharSequence word) {
+        return distance(word, 0, word.length());
+    }
+
+    /**
+     * Returns the Levenshtein-distance between the word this automaton is built for
+     * and a range of {@code chars}. Code points are decoded on the fly, so neither
+     * a subsequence nor code points of the word are allocated.
+     *
+     * @param from  the index of the first char of the word.
+     * @param until the index after the last char of the word, a surrogate pair
+     *              isn't decoded across it.
+     * @return the Levenshtein-distance if the word is accepted or {@code -1} otherwise.
+     */
+    public int distance(CharSequence chars, int from, int until) {
+        // every edit operation changes the length by one at most
+        if (!isCodePointCountWithin(chars, from, until, w - n, w + n)) return -1;
+
+        final ParametricDescription description = parametricDescription;
+        int stateId = description.getInitialStateId();
+
+        for (int i = from; i < until && stateId != REJECTED; ) {
+            int codePoint = codePointAt(chars, i, until);
+            stateId = step(description, stateId, codePoint);
+            i += Character.charCount(codePoint);
+        }
+
+        return finalDistance(stateId);
+    }
+
+    /**
+     * Returns the Levenshtein-distance between the word this automaton is built for
+     * and a range of {@code chars}.
+     *
+     * @see #distance(CharSequence, int, int)
+     */
+    public int distance(char[] chars, int from, int until) {
+        if (!isCodePointCountWithin(chars, from, until, w - n, w + n)) return -1;
+
+        final ParametricDescription description = parametricDescription;
+        int stateId = description.getInitialStateId();
+
+        for (int i = from; i < until && stateId != REJECTED; ) {
+            int codePoint = Character.codePointAt(chars, i, until);
+            stateId = step(description, stateId, codePoint);
+            i += Character.charCount(codePoint);
+        }
+
+        return finalDistance(stateId);
+    }
+
+    /**
+     * Returns the Levenshtein-distance between the word this automaton is built for
+     * and a word encoded in UTF-8, e.g. a slice of a file or a network buffer.
+     * Code points are decoded on the fly, malformed bytes are read as {@code U+FFFD}.
+     *
+     * @param utf8  bytes of the word.
+     * @param from  the index of the first byte of the word.
+     * @param until the index after the last byte of the word.
+     * @return the Levenshtein-distance if the word is accepted or {@code -1} otherwise.
+     * @see Utf8Util#decode(byte[], int, int)
+     */
+    public int distance(byte[] utf8, int from, int until) {
+        final ParametricDescription description = parametricDescription;
+        int stateId = description.getInitialStateId();
+
+        for (int i = from; i < until && stateId != REJECTED; ) {
+            int decoded = Utf8Util.decode(utf8, i, until);
+            stateId = step(description, stateId, Utf8Util.codePoint(decoded));
+            i += Utf8Util.length(decoded);
+        }
+
+        return finalDistance(stateId);
+    }
+
+    /**
+     * Returns the Levenshtein-distance between the word this automaton is built for
+     * and a word encoded in UTF-8 between the position and the limit of {@code utf8}.
+     * The position of {@code utf8} isn't changed, so the buffer may be a slice of
+     * a memory-mapped file shared between threads.
+     *
+     * @return the Levenshtein-distance if the word is accepted or {@code -1} otherwise.
+     * @see #distance(byte[], int, int)
+     */
+    public int distance(ByteBuffer utf8) {
+        final ParametricDescription description = parametricDescription;
+        int stateId = description.getInitialStateId();
+
+        for (int i = utf8.position(), until = utf8.limit(); i < until && stateId != REJECTED; ) {
+            int decoded = Utf8Util.decode(utf8, i, until);
+            stateId = step(description, stateId, Utf8Util.codePoint(decoded));
+            i += Utf8Util.length(decoded);
+        }
+
+        return finalDistance(stateId);
+    }
+
+    /**
+     * Returns the Levenshtein-distance between the word this automaton is built for
+     * and a word given as code points. Recognition stops as soon as the automaton
+     * reaches the failure state.
+     *
+     * @param codePoints code points of the word to recognize.
+     * @param from       the index of the first code point of the word.
+     * @param until      the index after the last code point of the word.
+     * @return the Levenshtein-distance if the word is accepted or {@code -1} otherwise.
+     */
+    public int distance(int[] codePoints, int from, int until) {
+        // every edit operation changes the length by one at most
+        if (Math.abs(until - from - w) > n) return -1;
+
+        final ParametricDescription description = parametricDescription;
+        int stateId = description.getInitialStateId();
+
+        for (int i = from; i < until && stateId != REJECTED; i++) {
+            stateId = step(description, stateId, codePoints[i]);
+        }
+
+        return finalDistance(stateId);
+    }
+
+    /**
+     * Tests if some prefix of {@code word} is within the degree of the word this automaton
+     * is built for, like autocomplete does. Recognition stops as soon as the automaton
+     * reaches a final or the failure state.
+     *
+     * @see #isPrefixFinalState(int)
+     */
+    public boolean matchesPrefix(CharSequence word) {
+        final ParametricDescription description = parametricDescription;
+        int stateId = description.getInitialStateId();
+
+        for (int i = 0, length = word.length(); !description.isFinalState(stateId, w); ) {
+            if (i == length) return false;
+
+            int codePoint = Character.codePointAt(word, i);
+            stateId = step(description, stateId, codePoint);
+
+            if (stateId == REJECTED) return false;
+
+            i += Character.charCount(codePoint);
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the least Levenshtein-distance between the word this automaton is built for
+     * and a prefix of {@code word}, so autocomplete suggestions can be ranked.
+     * Recognition stops as soon as the automaton reaches the failure state
+     * or a prefix of zero distance.
+     *
+     * @return the least Levenshtein-distance if a prefix of {@code word} is accepted
+     * or {@code -1} otherwise.
+     */
+    public int prefixDistance(CharSequence word) {
+        final ParametricDescription description = parametricDescription;
+        int stateId = description.getInitialStateId();
+        int result = description.getDistance(stateId, w);
+
+        for (int i = 0, length = word.length(); i < length && result != 0; ) {
+            int codePoint = Character.codePointAt(word, i);
+            stateId = step(description, stateId, codePoint);
+
+            if (stateId == REJECTED) break;
+
+            int distance = description.getDistance(stateId, w);
+            if (distance >= 0 && (result < 0 || distance < result)) result = distance;
+
+            i += Character.charCount(codePoint);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the next state of {@code curStateId} by {@code codePoint} or {@code REJECTED}
+     * if it's the failure state, so a traverse of any input stops on {@code REJECTED}.
+     */
+    private int step(ParametricDescription description, int curStateId, int codePoint) {
+        final int stateId = getNextStateId(description, curStateId, codePoint);
+        return description.isFailureState(stateId) ? REJECTED : stateId;
+    }
+
+    /**
+     * Returns the distance of the state a traverse ends in or {@code -1}
+     * if the traverse is rejected.
+     */
+    private int finalDistance(int stateId) {
+        return stateId == REJECTED ? -1 : parametricDescription.getDistance(stateId, w);
+    }
+
+    private int getNextStateId(ParametricDescription description, int curStateId, int codePoint) {
+        final int minBoundary = description.getStateMinBoundary(curStateId);
+        return description.getNextStateId(characteristicVector(minBoundary, codePoint), curStateId);
+    }
+
+    private int characteristicVector(int minBoundary, int codePoint) {
+        return vectorIndex.getEncodedCharacteristicVector(codePointFolding.fold(codePoint),
+                minBoundary, minBoundary + relevantSubwordLength(minBoundary, n, w));
+    }
+
+    /**
+     * Returns the Levenshtein-distance to a candidate of a batch or {@code -1} if the
+     * candidate is rejected. The description is cast to its class before the loop over
+     * code points, so transitions of the shipped descriptions aren't dispatched through
+     * the interface and are inlined.
+     */
+    int batchDistance(int[] codePoints, int from, int until) {
+        if (Math.abs(until - from - w) > n) return -1;
+
+        final ParametricDescription description = parametricDescription;
+        if (description instanceof FastParametricDescription) {
+            return batchDistance((FastParametricDescription) description, codePoints, from, until);
+        }
+        if (description instanceof EncodedParametricDescription) {
+            return batchDistance((EncodedParametricDescription) description, codePoints, from, until);
+        }
+
+        return distance(codePoints, from, until);
+    }
+
+    private int batchDistance(FastParametricDescription description,
+                              int[] codePoints, int from, int until) {
+        int stateId = description.getInitialStateId();
+
+        for (int i = from; i < until; i++) {
+            final int minBoundary = description.getStateMinBoundary(stateId);
+            stateId = description.getNextStateId(characteristicVector(minBoundary, codePoints[i]), stateId);
+
+            if (description.isFailureState(stateId)) return -1;
+        }
+
+        return description.getDistance(stateId, w);
+    }
+
+    private int batchDistance(EncodedParametricDescription description,
+                              int[] codePoints, int from, int until) {
+        int stateId = description.getInitialStateId();
+
+        for (int i = from; i < until; i++) {
+            final int minBoundary = description.getStateMinBoundary(stateId);
+            stateId = description.getNextStateId(characteristicVector(minBoundary, codePoints[i]), stateId);
+
+            if (description.isFailureState(stateId)) return -1;
+        }
+
+        return description.getDistance(stateId, w);
+    }
+
+    /**
+     * Recognizes a batch of words.
+     *
+     * @return a bit set where the {@code i}-th bit is set if {@code words[i]} is accepted.
+     */
+    public BitSet matchAll(CharSequence[] words) {
+        return matchAll(new CandidateBatch.CharSequences(words));
+    }
+
+    /**
+     * Recognizes a batch of words given as code points.
+     *
+     * @return a bit set where the {@code i}-th bit is set if {@code words[i]} is accepted.
+     */
+    public BitSet matchAll(int[][] words) {
+        return matchAll(new CandidateBatch.CodePointArrays(words));
+    }
+
+    /**
+     * Recognizes a batch of words packed into a single code points buffer.
+     *
+     * @param codePoints code points of all the words.
+     * @param offsets    the {@code i}-th word occupies {@code codePoints} from
+     *                   {@code offsets[i]} up to (but not including) {@code offsets[i + 1]}.
+     * @return a bit set where the {@code i}-th bit is set if the {@code i}-th word is accepted.
+     */
+    public BitSet matchAll(int[] codePoints, int[] offsets) {
+        return matchAll(packedCodePoints(codePoints, offsets));
+    }
+
+    /**
+     * Recognizes a batch of words splitting it between threads of {@code pool}.
+     *
+     * @return a bit set where the {@code i}-th bit is set if {@code words[i]} is accepted.
+     */
+    public BitSet matchAll(CharSequence[] words, ForkJoinPool pool) {
+        return matchAll(new CandidateBatch.CharSequences(words), pool);
+    }
+
+    /**
+     * Recognizes a batch of words given as code points splitting it between
+     * threads of {@code pool}.
+     *
+     * @return a bit set where the {@code i}-th bit is set if {@code words[i]} is accepted.
+     */
+    public BitSet matchAll(int[][] words, ForkJoinPool pool) {
+        return matchAll(new CandidateBatch.CodePointArrays(words), pool);
+    }
+
+    /**
+     * Recognizes a batch of words packed into a single code points buffer splitting it
+     * between threads of {@code pool}.
+     *
+     * @see #matchAll(int[], int[])
+     */
+    public BitSet matchAll(int[] codePoints, int[] offsets, ForkJoinPool pool) {
+        return matchAll(packedCodePoints(codePoints, offsets), pool);
+    }
+
+    /**
+     * Computes distances to a batch of words.
+     *
+     * @return an array where the {@code i}-th element is the Levenshtein-distance
+     * to {@code words[i]} or {@code -1} if the word is rejected.
+     */
+    public int[] distanceAll(CharSequence[] words) {
+        return distanceAll(new CandidateBatch.CharSequences(words));
+    }
+
+    /**
+     * Computes distances to a batch of words given as code points.
+     *
+     * @return an array where the {@code i}-th element is the Levenshtein-distance
+     * to {@code words[i]} or {@code -1} if the word is rejected.
+     */
+    public int[] distanceAll(int[][] words) {
+        return distanceAll(new CandidateBatch.CodePointArrays(words));
+    }
+
+    /**
+     * Computes distances to a batch of words packed into a single code points buffer.
+     *
+     * @param codePoints code points of all the words.
+     * @param offsets    the {@code i}-th word occupies {@code codePoints} from
+     *                   {@code offsets[i]} up to (but not including) {@code offsets[i + 1]}.
+     * @return an array where the {@code i}-th element is the Levenshtein-distance
+     * to the {@code i}-th word or {@code -1} if the word is rejected.
+     */
+    public int[] distanceAll(int[] codePoints, int[] offsets) {
+        return distanceAll(packedCodePoints(codePoints, offsets));
+    }
+
+    /**
+     * Computes distances to a batch of words splitting it between threads of {@code pool}.
+     *
+     * @see #distanceAll(CharSequence[])
+     */
+    public int[] distanceAll(CharSequence[] words, ForkJoinPool pool) {
+        return distanceAll(new CandidateBatch.CharSequences(words), pool);
+    }
+
+    /**
+     * Computes distances to a batch of words given as code points splitting it between
+     * threads of {@code pool}.
+     *
+     * @see #distanceAll(int[][])
+     */
+    public int[] distanceAll(int[][] words, ForkJoinPool pool) {
+        return distanceAll(new CandidateBatch.CodePointArrays(words), pool);
+    }
+
+    /**
+     * Computes distances to a batch of words packed into a single code points buffer
+     * splitting it between threads of {@code pool}.
+     *
+     * @see #distanceAll(int[], int[])
+     */
+    public int[] distanceAll(int[] codePoints, int[] offsets, ForkJoinPool pool) {
+        return distanceAll(packedCodePoints(codePoints, offsets), pool);
+    }
+
+    private static CandidateBatch packedCodePoints(int[] codePoints, int[] offsets) {
+        if (offsets.length == 0) {
+            throw new IllegalArgumentException("offsets must contain at least one element");
+        }
+
+        return new CandidateBatch.PackedCodePoints(codePoints, offsets);
+    }
+
+    private BitSet matchAll(CandidateBatch batch) {
+        long[] result = new long[(batch.size() + 63) >> 6];
+        batch.matchRange(this, 0, batch.size(), result);
+        return BitSet.valueOf(result);
+    }
+
+    private BitSet matchAll(CandidateBatch batch, ForkJoinPool pool) {
+        long[] result = new long[(batch.size() + 63) >> 6];
+        pool.invoke(batch.newMatchTask(this, result));
+        return BitSet.valueOf(result);
+    }
+
+    private int[] distanceAll(CandidateBatch batch) {
+        int[] result = new int[batch.size()];
+        batch.distanceRange(this, 0, batch.size(), result);
+        return result;
+    }
+
+    private int[] distanceAll(CandidateBatch batch, ForkJoinPool pool) {
+        int[] result = new int[batch.size()];
+        pool.invoke(batch.newDistanceTask(this, result));
+        return result;
+    }
+
     /**
      * Tests if `state` is a failure state.
      */
@@ -128,6 +633,41 @@ public class ParametricLevenshteinAutomaton {
         return parametricDescription.isFinalState(stateId, w);
     }
 
+    /**
+     * Returns the min number of errors spent up to `state`, so the distance
+     * to any word recognized through `state` is not less than that.
+     *
+     * @see ParametricDescription#getMinErrors(int)
+     */
+    public int getMinErrors(int stateId) {
+        return parametricDescription.getMinErrors(stateId);
+    }
+
+    /**
+     * Returns the max number of code points the automaton can read from `state`
+     * before it reaches the failure state.
+     *
+     * @see ParametricDescription#getMaxRemainingLength(int, int)
+     */
+    public int getMaxRemainingLength(int stateId) {
+        return parametricDescription.getMaxRemainingLength(stateId, w);
+    }
+
+    @Override
+    public boolean canAdvance(int stateId) {
+        return parametricDescription.getMaxRemainingLength(stateId, w) > 0;
+    }
+
+    /**
+     * Returns the Levenshtein-distance between the word this automaton is built for
+     * and the word recognized up to `state`.
+     *
+     * @return the Levenshtein-distance if `state` is a final state or {@code -1} otherwise.
+     */
+    public int getDistance(int stateId) {
+        return parametricDescription.getDistance(stateId, w);
+    }
+
     public static void main(String[] args) throws ParametricDescriptionNotFoundException {
         int[] misspelled = toCodePoints("xx");
         LevenshteinAutomatonConfig config = new LevenshteinAutomatonConfig("", 2, true);
@@ -0,0 +1,30 @@
+package io.itdraft.levenshteinautomaton;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Receives patterns of a {@code MultiPatternAutomaton} that accept a candidate.
+ *
+ * @see MultiPatternMatcher
+ */
+@FunctionalInterface
+public interface PatternMatchHandler {
+
+    /**
+     * @param pattern  the index of the pattern in the order the patterns are given.
+     * @param distance the Levenshtein-distance between the pattern and the candidate.
+     */
+    void apply(int pattern, int distance);
+}
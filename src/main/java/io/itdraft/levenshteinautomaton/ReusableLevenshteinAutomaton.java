@@ -0,0 +1,440 @@
+package io.itdraft.levenshteinautomaton;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import io.itdraft.levenshteinautomaton.description.parametric.ParametricDescription;
+import io.itdraft.levenshteinautomaton.description.parametric.ParametricDescriptionFactory;
+import io.itdraft.levenshteinautomaton.description.parametric.ParametricDescriptionNotFoundException;
+import io.itdraft.levenshteinautomaton.description.parametric.coding.EncodedParametricDescriptionFactory;
+import io.itdraft.levenshteinautomaton.util.Utf8Util;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static io.itdraft.levenshteinautomaton.description.parametric.coding.CharacteristicVectorCodec.computeEncodedCharacteristicVector;
+import static io.itdraft.levenshteinautomaton.util.StringUtil.codePointAt;
+import static io.itdraft.levenshteinautomaton.util.StringUtil.isCodePointCountWithin;
+
+/**
+ * The Levenshtein-automaton based on the parametric description which is rebuilt
+ * for another word in place. {@link #reset(CharSequence)} decodes the word into
+ * a code points buffer the automaton keeps, so a query needs neither a config
+ * nor a new automaton.
+ * <p>
+ * <b>Note:</b>
+ * </p>
+ * <p>
+ * Unlike {@code ParametricLevenshteinAutomaton}, the automaton is mutable and not
+ * thread-safe, e.g. every thread of a server resets its own automaton per query.
+ * </p>
+ */
+public class ReusableLevenshteinAutomaton implements LevenshteinAutomaton {
+
+    /**
+     * The state id of a rejected traverse, state ids of a description aren't negative.
+     */
+    private static final int REJECTED = -1;
+
+    private final ParametricDescription parametricDescription;
+
+    /**
+     * The degree of the automaton
+     */
+    private final int n;
+
+    private CodePointFolding codePointFolding = CodePointFolding.IDENTITY;
+
+    private int[] wordCodePoints = new int[16];
+
+    /**
+     * The length of the word.
+     */
+    private int w;
+
+    private ReusableLevenshteinAutomaton(int degree, ParametricDescription parametricDescription) {
+        this.n = degree;
+        this.parametricDescription = parametricDescription;
+    }
+
+    /**
+     * Factory method to create an instance of {@code ReusableLevenshteinAutomaton}
+     * built for the empty word.
+     *
+     * @throws ParametricDescriptionNotFoundException if parametric description for specified
+     *                                                {@code degree} and {@code inclTransposition}
+     *                                                is not found.
+     */
+    public static ReusableLevenshteinAutomaton create(int degree, boolean inclTransposition)
+            throws ParametricDescriptionNotFoundException {
+        return create(degree, inclTransposition, new EncodedParametricDescriptionFactory());
+    }
+
+    /**
+     * Factory method to create an instance of {@code ReusableLevenshteinAutomaton}
+     * built for the empty word.
+     *
+     * @throws ParametricDescriptionNotFoundException if parametric description for specified
+     *                                                {@code degree} and {@code inclTransposition}
+     *                                                is not found.
+     */
+    public static ReusableLevenshteinAutomaton create(
+            int degree, boolean inclTransposition,
+            ParametricDescriptionFactory parametricDescriptionFactory)
+            throws ParametricDescriptionNotFoundException {
+        ParametricDescription parametricDescription =
+                parametricDescriptionFactory.getParametricDescription(degree, inclTransposition);
+
+        if (parametricDescription == null) {
+            ParametricDescriptionNotFoundException.throwFor(degree, inclTransposition);
+        }
+
+        return new ReusableLevenshteinAutomaton(degree, parametricDescription);
+    }
+
+    /**
+     * Rebuilds this automaton for {@code word}.
+     *
+     * @return this automaton.
+     */
+    public ReusableLevenshteinAutomaton reset(CharSequence word) {
+        return reset(word, 0, word.length());
+    }
+
+    /**
+     * Rebuilds this automaton for a range of {@code chars}.
+     *
+     * @param from  the index of the first char of the word.
+     * @param until the index after the last char of the word.
+     * @return this automaton.
+     */
+    public ReusableLevenshteinAutomaton reset(CharSequence chars, int from, int until) {
+        ensureCapacity(until - from);
+        w = 0;
+
+        for (int i = from; i < until; ) {
+            int codePoint = codePointAt(chars, i, until);
+            wordCodePoints[w++] = codePointFolding.fold(codePoint);
+            i += Character.charCount(codePoint);
+        }
+
+        return this;
+    }
+
+    /**
+     * Rebuilds this automaton for a range of {@code chars}.
+     *
+     * @see #reset(CharSequence, int, int)
+     */
+    public ReusableLevenshteinAutomaton reset(char[] chars, int from, int until) {
+        ensureCapacity(until - from);
+        w = 0;
+
+        for (int i = from; i < until; ) {
+            int codePoint = Character.codePointAt(chars, i, until);
+            wordCodePoints[w++] = codePointFolding.fold(codePoint);
+            i += Character.charCount(codePoint);
+        }
+
+        return this;
+    }
+
+    /**
+     * Rebuilds this automaton for a word encoded in UTF-8.
+     *
+     * @param utf8  bytes of the word.
+     * @param from  the index of the first byte of the word.
+     * @param until the index after the last byte of the word.
+     * @return this automaton.
+     * @see Utf8Util#decode(byte[], int, int)
+     */
+    public ReusableLevenshteinAutomaton reset(byte[] utf8, int from, int until) {
+        // a code point takes one byte at least
+        ensureCapacity(until - from);
+        w = 0;
+
+        for (int i = from; i < until; ) {
+            int decoded = Utf8Util.decode(utf8, i, until);
+            wordCodePoints[w++] = codePointFolding.fold(Utf8Util.codePoint(decoded));
+            i += Utf8Util.length(decoded);
+        }
+
+        return this;
+    }
+
+    /**
+     * Rebuilds this automaton for a word encoded in UTF-8 between the position
+     * and the limit of {@code utf8}. The position of {@code utf8} isn't changed.
+     *
+     * @return this automaton.
+     */
+    public ReusableLevenshteinAutomaton reset(ByteBuffer utf8) {
+        final int until = utf8.limit();
+        ensureCapacity(until - utf8.position());
+        w = 0;
+
+        for (int i = utf8.position(); i < until; ) {
+            int decoded = Utf8Util.decode(utf8, i, until);
+            wordCodePoints[w++] = codePointFolding.fold(Utf8Util.codePoint(decoded));
+            i += Utf8Util.length(decoded);
+        }
+
+        return this;
+    }
+
+    /**
+     * Rebuilds this automaton for a word given as code points.
+     *
+     * @param codePoints code points of the word.
+     * @param from       the index of the first code point of the word.
+     * @param until      the index after the last code point of the word.
+     * @return this automaton.
+     */
+    public ReusableLevenshteinAutomaton reset(int[] codePoints, int from, int until) {
+        ensureCapacity(until - from);
+        w = until - from;
+        for (int i = 0; i < w; i++) {
+            wordCodePoints[i] = codePointFolding.fold(codePoints[from + i]);
+        }
+
+        return this;
+    }
+
+    /**
+     * Sets an equivalence of code points and rebuilds this automaton for the empty word.
+     * The folding stays for the next words.
+     *
+     * @return this automaton.
+     */
+    public ReusableLevenshteinAutomaton setCodePointFolding(CodePointFolding codePointFolding) {
+        this.codePointFolding = codePointFolding;
+        w = 0;
+
+        return this;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (wordCodePoints.length < capacity) {
+            wordCodePoints = Arrays.copyOf(wordCodePoints, Math.max(capacity, wordCodePoints.length * 2));
+        }
+    }
+
+    /**
+     * Returns the length of the word this automaton is built for in code points.
+     */
+    public int getWordLength() {
+        return w;
+    }
+
+    public int getInitialStateId() {
+        return parametricDescription.getInitialStateId();
+    }
+
+    public int getNextStateId(int curStateId, int alphaCodePoint) {
+        final ParametricDescription description = parametricDescription;
+        final int minBoundary = description.getStateMinBoundary(curStateId);
+        final int alpha = codePointFolding.fold(alphaCodePoint);
+        // the vector never exceeds the word, so the rest of the buffer isn't read
+        final int characteristicVector = computeEncodedCharacteristicVector(alpha,
+                wordCodePoints, minBoundary, minBoundary + Math.min(2 * n + 1, w - minBoundary));
+
+        return description.getNextStateId(characteristicVector, curStateId);
+    }
+
+    /**
+     * Tests if {@code word} is accepted by this automaton.
+     *
+     * @see ParametricLevenshteinAutomaton#matches(CharSequence)
+     */
+    public boolean matches(CharSequence word) {
+        return distance(word) >= 0;
+    }
+
+    /**
+     * Tests if a range of {@code chars} is accepted by this automaton.
+     *
+     * @see #distance(CharSequence, int, int)
+     */
+    public boolean matches(CharSequence chars, int from, int until) {
+        return distance(chars, from, until) >= 0;
+    }
+
+    /**
+     * Tests if a range of {@code chars} is accepted by this automaton.
+     *
+     * @see #distance(char[], int, int)
+     */
+    public boolean matches(char[] chars, int from, int until) {
+        return distance(chars, from, until) >= 0;
+    }
+
+    /**
+     * Tests if a word encoded in UTF-8 is accepted by this automaton.
+     *
+     * @see #distance(byte[], int, int)
+     */
+    public boolean matches(byte[] utf8, int from, int until) {
+        return distance(utf8, from, until) >= 0;
+    }
+
+    /**
+     * Tests if a word encoded in UTF-8 between the position and the limit
+     * of {@code utf8} is accepted by this automaton.
+     *
+     * @see #distance(ByteBuffer)
+     */
+    public boolean matches(ByteBuffer utf8) {
+        return distance(utf8) >= 0;
+    }
+
+    /**
+     * Returns the Levenshtein-distance between the word this automaton is built for
+     * and {@code word}.
+     *
+     * @see ParametricLevenshteinAutomaton#distance(CharSequence)
+     */
+    public int distance(CharSequence word) {
+        return distance(word, 0, word.length());
+    }
+
+    /**
+     * Returns the Levenshtein-distance between the word this automaton is built for
+     * and a range of {@code chars}.
+     *
+     * @see ParametricLevenshteinAutomaton#distance(CharSequence, int, int)
+     */
+    public int distance(CharSequence chars, int from, int until) {
+        // every edit operation changes the length by one at most
+        if (!isCodePointCountWithin(chars, from, until, w - n, w + n)) return -1;
+
+        int stateId = parametricDescription.getInitialStateId();
+
+        for (int i = from; i < until && stateId != REJECTED; ) {
+            int codePoint = codePointAt(chars, i, until);
+            stateId = step(stateId, codePoint);
+            i += Character.charCount(codePoint);
+        }
+
+        return finalDistance(stateId);
+    }
+
+    /**
+     * Returns the Levenshtein-distance between the word this automaton is built for
+     * and a range of {@code chars}.
+     *
+     * @see ParametricLevenshteinAutomaton#distance(char[], int, int)
+     */
+    public int distance(char[] chars, int from, int until) {
+        if (!isCodePointCountWithin(chars, from, until, w - n, w + n)) return -1;
+
+        int stateId = parametricDescription.getInitialStateId();
+
+        for (int i = from; i < until && stateId != REJECTED; ) {
+            int codePoint = Character.codePointAt(chars, i, until);
+            stateId = step(stateId, codePoint);
+            i += Character.charCount(codePoint);
+        }
+
+        return finalDistance(stateId);
+    }
+
+    /**
+     * Returns the Levenshtein-distance between the word this automaton is built for
+     * and a word encoded in UTF-8.
+     *
+     * @see ParametricLevenshteinAutomaton#distance(byte[], int, int)
+     */
+    public int distance(byte[] utf8, int from, int until) {
+        int stateId = parametricDescription.getInitialStateId();
+
+        for (int i = from; i < until && stateId != REJECTED; ) {
+            int decoded = Utf8Util.decode(utf8, i, until);
+            stateId = step(stateId, Utf8Util.codePoint(decoded));
+            i += Utf8Util.length(decoded);
+        }
+
+        return finalDistance(stateId);
+    }
+
+    /**
+     * Returns the Levenshtein-distance between the word this automaton is built for
+     * and a word encoded in UTF-8 between the position and the limit of {@code utf8}.
+     *
+     * @see ParametricLevenshteinAutomaton#distance(ByteBuffer)
+     */
+    public int distance(ByteBuffer utf8) {
+        int stateId = parametricDescription.getInitialStateId();
+
+        for (int i = utf8.position(), until = utf8.limit(); i < until && stateId != REJECTED; ) {
+            int decoded = Utf8Util.decode(utf8, i, until);
+            stateId = step(stateId, Utf8Util.codePoint(decoded));
+            i += Utf8Util.length(decoded);
+        }
+
+        return finalDistance(stateId);
+    }
+
+    /**
+     * Returns the Levenshtein-distance between the word this automaton is built for
+     * and a word given as code points.
+     *
+     * @see ParametricLevenshteinAutomaton#distance(int[], int, int)
+     */
+    public int distance(int[] codePoints, int from, int until) {
+        // every edit operation changes the length by one at most
+        if (Math.abs(until - from - w) > n) return -1;
+
+        int stateId = parametricDescription.getInitialStateId();
+
+        for (int i = from; i < until && stateId != REJECTED; i++) {
+            stateId = step(stateId, codePoints[i]);
+        }
+
+        return finalDistance(stateId);
+    }
+
+    /**
+     * Returns the next state of {@code curStateId} by {@code codePoint} or {@code REJECTED}
+     * if it's the failure state, so a traverse of any input stops on {@code REJECTED}.
+     */
+    private int step(int curStateId, int codePoint) {
+        final int stateId = getNextStateId(curStateId, codePoint);
+        return parametricDescription.isFailureState(stateId) ? REJECTED : stateId;
+    }
+
+    /**
+     * Returns the distance of the state a traverse ends in or {@code -1}
+     * if the traverse is rejected.
+     */
+    private int finalDistance(int stateId) {
+        return stateId == REJECTED ? -1 : parametricDescription.getDistance(stateId, w);
+    }
+
+    public boolean isFailureState(int stateId) {
+        return parametricDescription.isFailureState(stateId);
+    }
+
+    public boolean isFinalState(int stateId) {
+        return parametricDescription.isFinalState(stateId, w);
+    }
+
+    public int getDistance(int stateId) {
+        return parametricDescription.getDistance(stateId, w);
+    }
+
+    @Override
+    public boolean canAdvance(int stateId) {
+        return parametricDescription.getMaxRemainingLength(stateId, w) > 0;
+    }
+}
@@ -0,0 +1,99 @@
+package io.itdraft.levenshteinautomaton;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.text.Normalizer;
+
+/**
+ * A {@code CodePointFolding} which looks code points up in tables computed once:
+ * one from {@code U+0000} up to the end of the Cyrillic Supplement block and one for
+ * the Latin Extended Additional block. Other code points are classes of their own.
+ */
+final class TableCodePointFolding implements CodePointFolding {
+
+    private static final int TABLE_SIZE = 0x0530;
+
+    private static final int EXTENDED_FROM = 0x1E00;
+
+    private static final int EXTENDED_UNTIL = 0x1F00;
+
+    private static final int CYRILLIC_CAPITAL_SHORT_I = 0x0419;
+
+    private static final int CYRILLIC_SMALL_SHORT_I = 0x0439;
+
+    private final char[] table;
+    private final char[] extendedTable;
+
+    private TableCodePointFolding(char[] table, char[] extendedTable) {
+        this.table = table;
+        this.extendedTable = extendedTable;
+    }
+
+    static TableCodePointFolding create(boolean stripAccents) {
+        final char[] table = new char[TABLE_SIZE];
+        for (int codePoint = 0; codePoint < TABLE_SIZE; codePoint++) {
+            table[codePoint] = (char) computeFolded(codePoint, stripAccents);
+        }
+
+        final char[] extendedTable = new char[EXTENDED_UNTIL - EXTENDED_FROM];
+        for (int codePoint = EXTENDED_FROM; codePoint < EXTENDED_UNTIL; codePoint++) {
+            extendedTable[codePoint - EXTENDED_FROM] = (char) computeFolded(codePoint, stripAccents);
+        }
+
+        return new TableCodePointFolding(table, extendedTable);
+    }
+
+    public int fold(int codePoint) {
+        if (codePoint >= 0 && codePoint < TABLE_SIZE) return table[codePoint];
+        if (codePoint >= EXTENDED_FROM && codePoint < EXTENDED_UNTIL) {
+            return extendedTable[codePoint - EXTENDED_FROM];
+        }
+        return codePoint;
+    }
+
+    private static int computeFolded(int codePoint, boolean stripAccents) {
+        int folded = codePoint;
+
+        if (stripAccents && codePoint != CYRILLIC_CAPITAL_SHORT_I && codePoint != CYRILLIC_SMALL_SHORT_I) {
+            folded = stripMarks(codePoint);
+        }
+
+        folded = Character.toLowerCase(folded);
+        // a table maps into the tables only, so the folding is idempotent
+        return isInTables(folded) ? folded : codePoint;
+    }
+
+    /**
+     * Returns the base letter of the canonical decomposition of {@code codePoint}
+     * if the rest of the decomposition are non-spacing marks or {@code codePoint} otherwise.
+     */
+    private static int stripMarks(int codePoint) {
+        final String decomposed = Normalizer.normalize(
+                new String(Character.toChars(codePoint)), Normalizer.Form.NFD);
+        final int base = decomposed.codePointAt(0);
+
+        for (int i = Character.charCount(base); i < decomposed.length(); ) {
+            int mark = decomposed.codePointAt(i);
+            if (Character.getType(mark) != Character.NON_SPACING_MARK) return codePoint;
+            i += Character.charCount(mark);
+        }
+
+        return base;
+    }
+
+    private static boolean isInTables(int codePoint) {
+        return codePoint < TABLE_SIZE || codePoint >= EXTENDED_FROM && codePoint < EXTENDED_UNTIL;
+    }
+}
@@ -0,0 +1,77 @@
+package io.itdraft.levenshteinautomaton;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static io.itdraft.levenshteinautomaton.util.StringUtil.toCodePoints;
+
+/**
+ * Represents a configuration to build the weighted Levenshtein-automaton, where edit
+ * operations cost {@link EditCosts} and the degree is the max total cost.
+ * <p>
+ * <b>Note:</b>
+ * </p>
+ * <p>
+ * The config is mutable like {@code LevenshteinAutomatonConfig}, automata copy it
+ * on construction.
+ * </p>
+ */
+public class WeightedLevenshteinAutomatonConfig extends LevenshteinAutomatonConfig {
+    private EditCosts editCosts;
+
+    /**
+     * Constructor.
+     *
+     * @param word              an input word the Levenshtein-automaton is for.
+     * @param degree            automaton recognizes the set of all words
+     *                          where the weighted Levenshtein-distance between a word
+     *                          from the set and {@code word} does not exceed {@code degree}.
+     * @param inclTransposition whether include transposition as a primitive edit
+     *                          operation.
+     * @param editCosts         costs of the primitive edit operations.
+     */
+    public WeightedLevenshteinAutomatonConfig(String word, int degree, boolean inclTransposition,
+                                              EditCosts editCosts) {
+        this(toCodePoints(word), degree, inclTransposition, editCosts);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param wordCodePoints    code points of an input word the Levenshtein-automaton
+     *                          is being built for.
+     * @param degree            automaton recognizes the set of all words
+     *                          where the weighted Levenshtein-distance between a word
+     *                          from the set and {@code word} does not exceed {@code degree}.
+     * @param inclTransposition whether include transposition as a primitive edit
+     *                          operation.
+     * @param editCosts         costs of the primitive edit operations.
+     */
+    public WeightedLevenshteinAutomatonConfig(int[] wordCodePoints, int degree, boolean inclTransposition,
+                                              EditCosts editCosts) {
+        super(wordCodePoints, degree, inclTransposition);
+        this.editCosts = editCosts;
+    }
+
+    /**
+     * Costs of the primitive edit operations.
+     */
+    public EditCosts getEditCosts() {
+        return editCosts;
+    }
+
+    public void setEditCosts(EditCosts editCosts) {
+        this.editCosts = editCosts;
+    }
+}
@@ -13,6 +13,16 @@ public interface ParametricDescription {
      */
     boolean isFinalState(int stateId, int w);
 
+    /**
+     * Returns the Levenshtein-distance between the word the automaton is built for
+     * and the word recognized up to a final state.
+     *
+     * @param stateId an id of a Levenshtein-automaton parametric state.
+     * @param w       the word length
+     * @return the Levenshtein-distance if the state is a final state or {@code -1} otherwise.
+     */
+    int getDistance(int stateId, int w);
+
     /**
      * Tests if a state is a failure state.
      *
@@ -29,6 +39,42 @@ public interface ParametricDescription {
      */
     int getStateMinBoundary(int stateId);
 
+    /**
+     * Returns the min number of errors of positions of a state, i.e. the least
+     * Levenshtein-distance any word recognized through the state can have.
+     * Errors of a position never decrease, so {@code degree - minErrors} is
+     * the remaining budget of the state.
+     * <p>
+     * The default implementation knows nothing about states and returns {@code 0}.
+     * </p>
+     *
+     * @param stateId an id of a Levenshtein-automaton parametric state.
+     * @return the min number of errors or a number greater than the degree
+     * if the state is a failure state.
+     */
+    default int getMinErrors(int stateId) {
+        return isFailureState(stateId) ? Integer.MAX_VALUE : 0;
+    }
+
+    /**
+     * Returns the max number of code points the automaton can read from a state
+     * before it reaches the failure state. Position {@code i^#e} reads {@code w - i}
+     * code points at most by matches and {@code n - e} by other edit operations,
+     * so the result is the max of {@code w - i + n - e} over positions of the state.
+     * If the result is {@code 0}, the state fails on any next code point.
+     * <p>
+     * The default implementation knows nothing about states and returns
+     * {@code Integer.MAX_VALUE}.
+     * </p>
+     *
+     * @param stateId an id of a Levenshtein-automaton parametric state.
+     * @param w       the word length
+     * @return the max number of code points or {@code 0} if the state is a failure state.
+     */
+    default int getMaxRemainingLength(int stateId, int w) {
+        return isFailureState(stateId) ? 0 : Integer.MAX_VALUE;
+    }
+
     /**
      * Get next parametric state id from the parametric description table.
      * <p>
@@ -3,6 +3,11 @@ package io.itdraft.levenshteinautomaton.description.parametric;
 /**
  * Represents a factory to get the parametric description
  * of the Levenshtein-automaton
+ * <p>
+ * Factories of the {@code coding} package give compact descriptions. Wrapping a factory
+ * into {@code FastParametricDescriptionFactory} gives descriptions with faster
+ * transitions which may take more memory.
+ * </p>
  */
 public interface ParametricDescriptionFactory {
 
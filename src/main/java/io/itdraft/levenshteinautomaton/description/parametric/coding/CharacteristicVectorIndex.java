@@ -0,0 +1,110 @@
+package io.itdraft.levenshteinautomaton.description.parametric.coding;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static io.itdraft.levenshteinautomaton.description.parametric.coding.CharacteristicVectorCodec.EMPTY;
+import static io.itdraft.levenshteinautomaton.description.parametric.coding.CharacteristicVectorCodec.MAX_ALLOWED_VECTOR_SIZE;
+import static io.itdraft.levenshteinautomaton.util.IntArrayUtil.findInHash;
+import static io.itdraft.levenshteinautomaton.util.IntArrayUtil.getUniqueElements;
+
+/**
+ * Precomputed positions of every distinct code point of a word, so a characteristic vector
+ * is computed by a shift and a mask instead of comparing code points one by one.
+ * <p>
+ * Positions of a code point are kept as a bitmask where the {@code k}-th code point of
+ * the word of length {@code w} is the bit {@code w - 1 - k}, so a range of the word is
+ * a range of bits in the order of {@link CharacteristicVectorCodec}. Code points
+ * are looked up in an array for ASCII and in an open-addressing hash otherwise.
+ * </p>
+ */
+public final class CharacteristicVectorIndex {
+
+    private static final int ASCII_SIZE = 128;
+
+    private static final int NOT_FOUND = -1;
+
+    private final int w;
+    private final int[] alphabetHash;
+    private final int[] asciiRows;
+    /**
+     * The number of longs per a bitmask, a bitmask has an extra long at the end,
+     * so a range of bits can always be read from two adjacent longs.
+     */
+    private final int rowLength;
+    private final long[] bitmasks;
+
+    private CharacteristicVectorIndex(int w, int[] alphabetHash, int[] asciiRows,
+                                      int rowLength, long[] bitmasks) {
+        this.w = w;
+        this.alphabetHash = alphabetHash;
+        this.asciiRows = asciiRows;
+        this.rowLength = rowLength;
+        this.bitmasks = bitmasks;
+    }
+
+    /**
+     * Factory method to create an instance of {@code CharacteristicVectorIndex}.
+     *
+     * @param wordCodePoints code points of the word to index.
+     */
+    public static CharacteristicVectorIndex create(int[] wordCodePoints) {
+        final int w = wordCodePoints.length;
+        final int[] alphabetHash = getUniqueElements(wordCodePoints, w);
+        final int rowLength = (w >>> 6) + 2;
+        final long[] bitmasks = new long[alphabetHash.length * rowLength];
+
+        for (int k = 0; k < w; k++) {
+            int row = findInHash(alphabetHash, wordCodePoints[k], alphabetHash.length);
+            int bit = w - 1 - k;
+            bitmasks[row * rowLength + (bit >>> 6)] |= 1L << bit;
+        }
+
+        final int[] asciiRows = new int[ASCII_SIZE];
+        for (int codePoint = 0; codePoint < ASCII_SIZE; codePoint++) {
+            asciiRows[codePoint] = findInHash(alphabetHash, codePoint, alphabetHash.length);
+        }
+
+        return new CharacteristicVectorIndex(w, alphabetHash, asciiRows, rowLength, bitmasks);
+    }
+
+    /**
+     * Creates the encoded characteristic vector of an alpha with respect to the indexed word.
+     *
+     * @see CharacteristicVectorCodec#computeEncodedCharacteristicVector(int, int[], int, int)
+     */
+    public int getEncodedCharacteristicVector(int alphaCodePoint, int from, int until) {
+        assert until - from <= MAX_ALLOWED_VECTOR_SIZE :
+                "Specified range for characteristic vector creation exceeds maximal allowed value.";
+
+        final int start = Math.max(from, 0);
+        final int size = Math.min(until, w) - start;
+
+        if (size <= 0) return EMPTY;
+
+        final int row = alphaCodePoint >= 0 && alphaCodePoint < ASCII_SIZE ?
+                asciiRows[alphaCodePoint] : findInHash(alphabetHash, alphaCodePoint, alphabetHash.length);
+
+        if (row == NOT_FOUND) return EMPTY << size;
+
+        // bits of the range are from lowBit up to (but not including) lowBit + size
+        final int lowBit = w - start - size;
+        final int index = row * rowLength + (lowBit >>> 6);
+        final int shift = lowBit & 63;
+        long bits = bitmasks[index] >>> shift;
+        if (shift + size > 64) bits |= bitmasks[index + 1] << (64 - shift);
+
+        return EMPTY << size | (int) bits & ((1 << size) - 1);
+    }
+}
@@ -0,0 +1,92 @@
+package io.itdraft.levenshteinautomaton.description.parametric.coding;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import io.itdraft.levenshteinautomaton.description.parametric.ParametricDescriptionFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static io.itdraft.levenshteinautomaton.description.parametric.coding.EncodedParametricDescriptionFactory.getResourceName;
+
+/**
+ * A factory to get encoded parametric descriptions from files of a directory.
+ * Files are named the same way as the resources of {@code EncodedParametricDescriptionFactory}
+ * (e.g. {@code degree-3-transposition.lapd}) and can be created by the
+ * {@code ParametricDescriptionEncoder} app with the {@code -o} option.
+ * <p>
+ * <b>Note:</b>
+ * </p>
+ * <p>
+ * A file is memory-mapped when its description is requested for the first time.
+ * The transitions table stays off the heap and the page cache is shared
+ * by all JVMs on the host which map the same file.
+ * </p>
+ */
+public class DirectoryParametricDescriptionFactory implements ParametricDescriptionFactory {
+
+    private final Path directory;
+
+    /**
+     * Mapped descriptions by {@code 2 * degree + (inclTransposition ? 1 : 0)}.
+     */
+    private final ConcurrentMap<Integer, EncodedParametricDescription> mapped =
+            new ConcurrentHashMap<>();
+
+    /**
+     * @param directory a directory to look for description files in.
+     */
+    public DirectoryParametricDescriptionFactory(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the encoded parametric description of the Levenshtein-automaton
+     * for the specified parameters or {@code null} if the directory doesn't
+     * contain a file for them.
+     *
+     * @throws UncheckedIOException if the file can't be mapped or contains
+     *                              a description for other parameters.
+     */
+    public EncodedParametricDescription getParametricDescription(int degree, boolean inclTransposition) {
+        if (degree <= 0) return null;
+
+        return mapped.computeIfAbsent(2 * degree + (inclTransposition ? 1 : 0),
+                key -> map(degree, inclTransposition));
+    }
+
+    private EncodedParametricDescription map(int degree, boolean inclTransposition) {
+        Path file = directory.resolve(getResourceName(degree, inclTransposition));
+        if (!Files.isRegularFile(file)) return null;
+
+        try {
+            EncodedParametricDescription description = EncodedParametricDescriptionFormat.map(file);
+
+            if (description.getDegree() != degree ||
+                    description.doesInclTransposition() != inclTransposition) {
+                throw new IOException("Unexpected parametric description in " + file);
+            }
+
+            return description;
+
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map the parametric description " + file, e);
+        }
+    }
+}
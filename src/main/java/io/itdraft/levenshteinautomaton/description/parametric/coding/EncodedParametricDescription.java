@@ -15,8 +15,9 @@ package io.itdraft.levenshteinautomaton.description.parametric.coding;
  */
 
 import io.itdraft.levenshteinautomaton.description.parametric.ParametricDescription;
-import io.itdraft.levenshteinautomaton.util.UIntPackedArray;
+import io.itdraft.levenshteinautomaton.util.UIntArray;
 
+import java.util.Arrays;
 import java.util.NoSuchElementException;
 
 /**
@@ -29,9 +30,35 @@ public class EncodedParametricDescription implements ParametricDescription {
     private final int degree;
     private final boolean inclTransposition;
     private final int parametricStatesCount;
-    private final UIntPackedArray encodedTransitionsTable;
-    private final UIntPackedArray encodedBoundaryOffsets;
+    private final UIntArray encodedTransitionsTable;
+    private final UIntArray encodedBoundaryOffsets;
     private final int[] degreeMinusStateLengthAddendums;
+    private final int[] minErrors;
+    private final int[] maxRemainingLengthAddendums;
+
+    /**
+     * Constructor of a description without per state metadata, e.g. one written
+     * by an older encoder. {@link #getMinErrors(int)} and {@link #getMaxRemainingLength(int, int)}
+     * of such a description give the loosest bounds, which are safe, but prune nothing.
+     *
+     * @see #EncodedParametricDescription(int, boolean, UIntArray, UIntArray, int[], int[], int[])
+     */
+    public EncodedParametricDescription(int degree,
+                                        boolean inclTransposition,
+                                        UIntArray encodedTransitionsTable,
+                                        UIntArray encodedBoundaryOffsets,
+                                        int[] degreeMinusStateLengthAddendums) {
+        this(degree, inclTransposition, encodedTransitionsTable, encodedBoundaryOffsets,
+                degreeMinusStateLengthAddendums,
+                new int[degreeMinusStateLengthAddendums.length],
+                filled(degreeMinusStateLengthAddendums.length, degree));
+    }
+
+    private static int[] filled(int length, int value) {
+        int[] result = new int[length];
+        Arrays.fill(result, value);
+        return result;
+    }
 
     /**
      * Constructor. Use the {@code ParametricDescriptionEncoder} app to create
@@ -63,17 +90,25 @@ public class EncodedParametricDescription implements ParametricDescription {
      *                                        but the {@code f - stateLength} addendum (where {@code f}
      *                                        is the degree of the max boundary position fo the state) is static for
      *                                        each state.
+     * @param minErrors                       the min number of errors of positions of each state.
+     * @param maxRemainingLengthAddendums     the max of {@code n - e - (i - minBoundary)} over
+     *                                        positions {@code i^#e} of each state, so a state reads
+     *                                        {@code w - minBoundary + addendum} code points at most.
      */
     public EncodedParametricDescription(int degree,
                                         boolean inclTransposition,
-                                        UIntPackedArray encodedTransitionsTable,
-                                        UIntPackedArray encodedBoundaryOffsets,
-                                        int[] degreeMinusStateLengthAddendums) {
+                                        UIntArray encodedTransitionsTable,
+                                        UIntArray encodedBoundaryOffsets,
+                                        int[] degreeMinusStateLengthAddendums,
+                                        int[] minErrors,
+                                        int[] maxRemainingLengthAddendums) {
         this.degree = degree;
         this.inclTransposition = inclTransposition;
         this.encodedTransitionsTable = encodedTransitionsTable;
         this.encodedBoundaryOffsets = encodedBoundaryOffsets;
         this.degreeMinusStateLengthAddendums = degreeMinusStateLengthAddendums;
+        this.minErrors = minErrors;
+        this.maxRemainingLengthAddendums = maxRemainingLengthAddendums;
         this.parametricStatesCount = degreeMinusStateLengthAddendums.length;
     }
 
@@ -99,6 +134,26 @@ public class EncodedParametricDescription implements ParametricDescription {
         return inclTransposition;
     }
 
+    UIntArray getEncodedTransitionsTable() {
+        return encodedTransitionsTable;
+    }
+
+    UIntArray getEncodedBoundaryOffsets() {
+        return encodedBoundaryOffsets;
+    }
+
+    int[] getDegreeMinusStateLengthAddendums() {
+        return degreeMinusStateLengthAddendums;
+    }
+
+    int[] getMinErrors() {
+        return minErrors;
+    }
+
+    int[] getMaxRemainingLengthAddendums() {
+        return maxRemainingLengthAddendums;
+    }
+
     /**
      * Decodes the next stateId from the encoded parametric
      * description and returns it encoded as an integer value.
@@ -134,6 +189,39 @@ public class EncodedParametricDescription implements ParametricDescription {
         return minBoundary >= w - n + degreeMinusStateLengthAddendums[stateRealId];
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * <b>Note:</b>
+     * </p>
+     * <p>
+     * The distance is {@code min(e + w - i)} over positions {@code i^#e} of the state.
+     * Positions of a state don't subsume each other, so the minimum is reached at the max
+     * boundary position {@code j^#f}, and {@code f + w - j} is
+     * {@code w - minBoundary + degreeMinusStateLengthAddendum}.
+     * </p>
+     */
+    public int getDistance(int stateId, int w) {
+        if (isFailureState(stateId)) return -1;
+
+        int distance = w - decodeMinBoundary(stateId) +
+                degreeMinusStateLengthAddendums[decodeStateRealId(stateId)];
+
+        return distance <= degree ? distance : -1;
+    }
+
+    public int getMinErrors(int stateId) {
+        if (isFailureState(stateId)) return degree + 1;
+
+        return minErrors[decodeStateRealId(stateId)];
+    }
+
+    public int getMaxRemainingLength(int stateId, int w) {
+        if (isFailureState(stateId)) return 0;
+
+        return w - decodeMinBoundary(stateId) + maxRemainingLengthAddendums[decodeStateRealId(stateId)];
+    }
+
     public boolean isFailureState(int stateId) {
         return decodeStateRealId(stateId) == parametricStatesCount;
     }
@@ -177,12 +265,18 @@ public class EncodedParametricDescription implements ParametricDescription {
                 .append(", \n\t");
 
         appendIntArray(sb, degreeMinusStateLengthAddendums)
+                .append(", \n\t");
+
+        appendIntArray(sb, minErrors)
+                .append(", \n\t");
+
+        appendIntArray(sb, maxRemainingLengthAddendums)
                 .append(")");
 
         return sb.toString();
     }
 
-    private StringBuilder appendUIntPackedArray(StringBuilder sb, UIntPackedArray arr) {
+    private StringBuilder appendUIntPackedArray(StringBuilder sb, UIntArray arr) {
         sb.append("new UIntPackedArray(")
                 .append(arr.getBitsPerValue()).append(", ")
                 .append("new long[]{");
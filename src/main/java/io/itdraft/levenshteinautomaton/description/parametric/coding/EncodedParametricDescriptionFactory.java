@@ -17,13 +17,22 @@ package io.itdraft.levenshteinautomaton.description.parametric.coding;
 import io.itdraft.levenshteinautomaton.description.parametric.ParametricDescriptionFactory;
 import io.itdraft.levenshteinautomaton.util.UIntPackedArray;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * This class contains precomputed encoded parametric descriptions
  * for the Levenshtein-automaton of the first and second degrees,
  * including and excluding transposition as a primitive edit operation.
+ * <p>
+ * Descriptions of the third and fourth degrees are shipped as resources in the
+ * {@code EncodedParametricDescriptionFormat} binary format. A resource is loaded
+ * when the description is requested for the first time.
+ * </p>
  */
 public class EncodedParametricDescriptionFactory implements ParametricDescriptionFactory {
 
@@ -31,11 +40,15 @@ public class EncodedParametricDescriptionFactory implements ParametricDescriptio
             new EncodedParametricDescription(1, false,
                     new UIntPackedArray(3, new long[]{0xbb6d56922db55b69L, 0x6ab6d45220924526L, 0x848249051ae93593L, 0x11a20a444L}),
                     new UIntPackedArray(2, new long[]{0x5554a00001500000L, 0x55557a0283c00015L, 0x155555L}),
-                    new int[]{0, 1, 0, -1, -1}),
+                    new int[]{0, 1, 0, -1, -1},
+                    new int[]{0, 1, 1, 1, 1},
+                    new int[]{1, 0, 0, 0, 0}),
             new EncodedParametricDescription(1, true,
                     new UIntPackedArray(3, new long[]{0x6cb6c48db6cb6db1L, 0x8a488251231273dbL, 0x473c49cc93b2db6cL, 0x829222d84825120aL, 0x2c88L}),
                     new UIntPackedArray(2, new long[]{0x52a0000015000000L, 0xa02a0fc000055555L, 0x555555555555eL}),
-                    new int[]{0, 1, 0, -1, -1, -1}),
+                    new int[]{0, 1, 0, -1, -1, -1},
+                    new int[]{0, 1, 1, 1, 1, 1},
+                    new int[]{1, 0, 0, 0, 0, 0}),
             new EncodedParametricDescription(2, false,
                     new UIntPackedArray(5, new long[]{
                             0xef7bdef7bdef79c1L, 0xdef7bdef7bdef7bdL, 0xbdef7bcf78bdef7bL, 0x7bdef7bdef7bdef7L, 0xf0420f7bdef7bdefL,
@@ -87,7 +100,9 @@ public class EncodedParametricDescriptionFactory implements ParametricDescriptio
                             0x9249249249249249L, 0x4924924924924924L, 0x2492492492492492L, 0x9249249249249249L, 0x4924924924924924L,
                             0x2492492492492492L, 0x9249249249249249L, 0x4924924924924924L, 0x2492492492492492L, 0x9249249249249249L,
                             0x4924924924924924L, 0x2492492492492492L, 0x9249249249249249L, 0x924924924L}),
-                    new int[]{0, 1, 0, -1, -1, 0, -1, -1, 0, -2, -2, -2, -1, -1, 2, 1, 0, -1, -1, -2, -2, -2, -1, -2, -2, -2, -2, -2, -1, -2}),
+                    new int[]{0, 1, 0, -1, -1, 0, -1, -1, 0, -2, -2, -2, -1, -1, 2, 1, 0, -1, -1, -2, -2, -2, -1, -2, -2, -2, -2, -2, -1, -2},
+                    new int[]{0, 1, 1, 1, 1, 2, 2, 1, 1, 2, 2, 1, 1, 1, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 1, 1, 1, 1},
+                    new int[]{2, 1, 1, 1, 1, 0, 0, 0, 1, 0, 0, 0, 1, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1, 0}),
             new EncodedParametricDescription(2, true,
                     new UIntPackedArray(6, new long[]{
                             0xaaaaaaaaaaaaa381L, 0xaaaaaaaaaaaaaaaaL, 0xaaaaaaaaaaaaaaaaL, 0x2aaaaaaaaaaaaaaaL, 0xaaaaaaaaaaaa8f3cL,
@@ -166,19 +181,47 @@ public class EncodedParametricDescriptionFactory implements ParametricDescriptio
                             0x2492492492492492L, 0x9249249249249249L, 0x4924924924924924L, 0x2492492492492492L, 0x9249249249249249L,
                             0x4924924924924924L, 0x2492492492492492L, 0x9249249249249249L, 0x4924924924924924L, 0x2492492492492492L,
                             0x9249249249249249L, 0x4924924924924924L, 0x2492492492492492L, 0x9249249249249249L, 0x0L}),
-                    new int[]{0, 1, 0, -1, -1, 0, -1, -1, 0, -2, -2, -2, -1, -1, 2, 1, 0, -1, -1, -2, -2, -2, -1, -1, -2, -2, -2, 0, -2, -2, -1, -2, -2, -2, -1, -2, -1, -1, -2, -2, -2, -2})
+                    new int[]{0, 1, 0, -1, -1, 0, -1, -1, 0, -2, -2, -2, -1, -1, 2, 1, 0, -1, -1, -2, -2, -2, -1, -1, -2, -2, -2, 0, -2, -2, -1, -2, -2, -2, -1, -2, -1, -1, -2, -2, -2, -2},
+                    new int[]{0, 1, 1, 1, 1, 2, 2, 1, 1, 2, 2, 1, 1, 1, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 1, 1, 1, 2, 1, 1, 1, 2, 1, 2},
+                    new int[]{2, 1, 1, 1, 1, 0, 0, 0, 1, 0, 0, 0, 1, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1, 0, 1, 1, 0, 0, 0, 0})
     };
-    protected static final Map<Integer, EncodedParametricDescription> EXCL_TRANSPOSITION_BY_DEGREE = new HashMap<>();
-    protected static final Map<Integer, EncodedParametricDescription> INCL_TRANSPOSITION_BY_DEGREE = new HashMap<>();
+    /**
+     * The max degree of the descriptions shipped as resources.
+     */
+    public static final int MAX_RESOURCE_DEGREE = 4;
+
+    private static final String RESOURCE_NAME_FORMAT = "degree-%d%s.lapd";
+
+    /**
+     * Descriptions by {@code 2 * degree + (inclTransposition ? 1 : 0)}. A description
+     * of a resource is set when the resource is loaded.
+     */
+    private static final AtomicReferenceArray<EncodedParametricDescription> DESCRIPTIONS =
+            new AtomicReferenceArray<>(2 * MAX_RESOURCE_DEGREE + 2);
+
+    /**
+     * Descriptions excluding transposition by degree.
+     *
+     * @deprecated descriptions are looked up in an array indexed by the degree now.
+     * The map is kept for subclasses, it contains the compiled in descriptions and the ones
+     * loaded from resources so far, and it isn't consulted by {@code getParametricDescription}.
+     */
+    @Deprecated
+    protected static final Map<Integer, EncodedParametricDescription> EXCL_TRANSPOSITION_BY_DEGREE =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Descriptions including transposition by degree.
+     *
+     * @deprecated see {@link #EXCL_TRANSPOSITION_BY_DEGREE}.
+     */
+    @Deprecated
+    protected static final Map<Integer, EncodedParametricDescription> INCL_TRANSPOSITION_BY_DEGREE =
+            new ConcurrentHashMap<>();
 
     static {
         for (EncodedParametricDescription description : ENCODED_PARAMETRIC_DESCRIPTIONS) {
-            if (description.doesInclTransposition()) {
-                INCL_TRANSPOSITION_BY_DEGREE.put(description.getDegree(), description);
-
-            } else {
-                EXCL_TRANSPOSITION_BY_DEGREE.put(description.getDegree(), description);
-            }
+            register(description);
         }
     }
 
@@ -187,22 +230,67 @@ public class EncodedParametricDescriptionFactory implements ParametricDescriptio
      * for the specified parameters.
      *
      * @param degree            a degree of the Levenshtein-automaton.
-     *                          {@code DefaultEncodedParametricDescriptionFactory}
-     *                          returns description if {@code degree} is equal to {@code 1}
-     *                          or {@code 2} only.
+     *                          {@code EncodedParametricDescriptionFactory}
+     *                          returns description if {@code degree} is between {@code 1}
+     *                          and {@code MAX_RESOURCE_DEGREE} only.
      * @param inclTransposition specifies whether parametric description is for the
      *                          Levenshtein-automaton which support transposition
      *                          as a primitive edit operation.
+     * @throws UncheckedIOException if the resource of the description can't be read.
      */
     public EncodedParametricDescription getParametricDescription(int degree, boolean inclTransposition) {
-        return inclTransposition ? getInclTransposition(degree) : getExclTransposition(degree);
+        if (degree <= 0 || degree > MAX_RESOURCE_DEGREE) return null;
+
+        EncodedParametricDescription description =
+                DESCRIPTIONS.get(indexOf(degree, inclTransposition));
+
+        return description != null ? description : load(degree, inclTransposition);
     }
 
-    private EncodedParametricDescription getExclTransposition(int automatonDegree) {
-        return EXCL_TRANSPOSITION_BY_DEGREE.get(automatonDegree);
+    private static int indexOf(int degree, boolean inclTransposition) {
+        return 2 * degree + (inclTransposition ? 1 : 0);
     }
 
-    private EncodedParametricDescription getInclTransposition(int automatonDegree) {
-        return INCL_TRANSPOSITION_BY_DEGREE.get(automatonDegree);
+    private static synchronized EncodedParametricDescription load(int degree, boolean inclTransposition) {
+        int index = indexOf(degree, inclTransposition);
+        EncodedParametricDescription description = DESCRIPTIONS.get(index);
+
+        if (description == null) {
+            description = loadResource(degree, inclTransposition);
+            if (description != null) register(description);
+        }
+
+        return description;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static void register(EncodedParametricDescription description) {
+        if (description.doesInclTransposition()) {
+            INCL_TRANSPOSITION_BY_DEGREE.put(description.getDegree(), description);
+        } else {
+            EXCL_TRANSPOSITION_BY_DEGREE.put(description.getDegree(), description);
+        }
+
+        DESCRIPTIONS.set(indexOf(description.getDegree(), description.doesInclTransposition()),
+                description);
+    }
+
+    private static EncodedParametricDescription loadResource(int degree, boolean inclTransposition) {
+        String name = getResourceName(degree, inclTransposition);
+
+        try (InputStream in = EncodedParametricDescriptionFactory.class.getResourceAsStream(name)) {
+            return in == null ? null : EncodedParametricDescriptionFormat.read(in);
+
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the parametric description " + name, e);
+        }
+    }
+
+    /**
+     * Returns the name of a resource (relative to this class) which contains
+     * the encoded parametric description for the specified parameters.
+     */
+    public static String getResourceName(int degree, boolean inclTransposition) {
+        return String.format(RESOURCE_NAME_FORMAT, degree, inclTransposition ? "-transposition" : "");
     }
 }
@@ -0,0 +1,273 @@
+package io.itdraft.levenshteinautomaton.description.parametric.coding;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import io.itdraft.levenshteinautomaton.util.MappedUIntPackedArray;
+import io.itdraft.levenshteinautomaton.util.UIntArray;
+import io.itdraft.levenshteinautomaton.util.UIntPackedArray;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This util class writes and reads {@code EncodedParametricDescription} in the binary format.
+ * <p>
+ * <b>Note:</b>
+ * </p>
+ * <p>
+ * All values are big-endian. The format consists of the header
+ * ({@code MAGIC}, {@code VERSION}, the degree, whether transposition is included and
+ * the parametric states count), the degree minus state length addendums, the min errors
+ * and the max remaining length addendums (an {@code int} per state each) and two packed
+ * arrays: the transitions table and the boundary offsets. Version 1 doesn't have
+ * the min errors and the max remaining length addendums, it's still read.
+ * A packed array is its bits per value, the number of longs and the longs themselves
+ * starting at an offset which is a multiple of 8.
+ * </p>
+ * <p>
+ * The alignment lets {@link #map(Path)} view the packed arrays of a memory-mapped
+ * file as {@code LongBuffer}s, so they are never copied onto the heap.
+ * </p>
+ */
+public final class EncodedParametricDescriptionFormat {
+
+    /**
+     * "LAPD" in ASCII.
+     */
+    public static final int MAGIC = 0x4C415044;
+
+    public static final int VERSION = 2;
+
+    /**
+     * The version without per state metadata but the addendums.
+     */
+    private static final int VERSION_1 = 1;
+
+    /**
+     * Writes {@code description} to {@code out} in the binary format.
+     */
+    public static void write(EncodedParametricDescription description, OutputStream out)
+            throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        int[] addendums = description.getDegreeMinusStateLengthAddendums();
+        int[] minErrors = description.getMinErrors();
+        int[] maxRemainingLengthAddendums = description.getMaxRemainingLengthAddendums();
+
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(description.getDegree());
+        data.writeInt(description.doesInclTransposition() ? 1 : 0);
+        data.writeInt(addendums.length);
+        for (int addendum : addendums) data.writeInt(addendum);
+        for (int errors : minErrors) data.writeInt(errors);
+        for (int addendum : maxRemainingLengthAddendums) data.writeInt(addendum);
+
+        writePacked(data, description.getEncodedTransitionsTable());
+        writePacked(data, description.getEncodedBoundaryOffsets());
+        data.flush();
+    }
+
+    private static void writePacked(DataOutputStream data, UIntArray arr) throws IOException {
+        data.writeInt(arr.getBitsPerValue());
+        data.writeInt(arr.getPackedLength());
+        while (data.size() % Long.BYTES != 0) data.writeByte(0);
+
+        IOException[] error = {null};
+        arr.foreach((value, isFinal) -> {
+            try {
+                if (error[0] == null) data.writeLong(value);
+            } catch (IOException e) {
+                error[0] = e;
+            }
+        });
+
+        if (error[0] != null) throw error[0];
+    }
+
+    /**
+     * Reads {@code EncodedParametricDescription} written in the binary format from {@code in}.
+     *
+     * @throws IOException if reading fails or {@code in} isn't in the binary format
+     *                     of the supported version.
+     */
+    public static EncodedParametricDescription read(InputStream in) throws IOException {
+        CountingDataInput data = new CountingDataInput(in);
+        int version = checkHeader(data.readInt(), data.readInt());
+
+        int degree = data.readInt();
+        boolean inclTransposition = data.readInt() != 0;
+        int[] addendums = new int[data.readInt()];
+        for (int i = 0; i < addendums.length; i++) addendums[i] = data.readInt();
+
+        int[] minErrors = null;
+        int[] maxRemainingLengthAddendums = null;
+        if (version != VERSION_1) {
+            minErrors = new int[addendums.length];
+            for (int i = 0; i < minErrors.length; i++) minErrors[i] = data.readInt();
+            maxRemainingLengthAddendums = new int[addendums.length];
+            for (int i = 0; i < maxRemainingLengthAddendums.length; i++) {
+                maxRemainingLengthAddendums[i] = data.readInt();
+            }
+        }
+
+        UIntPackedArray transitionsTable = readPacked(data);
+        UIntPackedArray boundaryOffsets = readPacked(data);
+
+        return create(degree, inclTransposition, transitionsTable, boundaryOffsets,
+                addendums, minErrors, maxRemainingLengthAddendums);
+    }
+
+    /**
+     * Maps {@code file} written in the binary format into memory. The packed arrays of the
+     * returned description are read straight from the mapped file.
+     *
+     * @throws IOException if mapping fails or {@code file} isn't in the binary format
+     *                     of the supported version.
+     */
+    public static EncodedParametricDescription map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads {@code EncodedParametricDescription} written in the binary format from
+     * {@code buffer} starting at its position. The packed arrays of the returned description
+     * are views of {@code buffer}.
+     *
+     * @throws IOException if {@code buffer} isn't in the binary format of the supported version.
+     */
+    public static EncodedParametricDescription read(ByteBuffer buffer) throws IOException {
+        ByteBuffer data = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+
+        try {
+            int version = checkHeader(data.getInt(), data.getInt());
+
+            int degree = data.getInt();
+            boolean inclTransposition = data.getInt() != 0;
+            int[] addendums = new int[data.getInt()];
+            for (int i = 0; i < addendums.length; i++) addendums[i] = data.getInt();
+
+            int[] minErrors = null;
+            int[] maxRemainingLengthAddendums = null;
+            if (version != VERSION_1) {
+                minErrors = new int[addendums.length];
+                for (int i = 0; i < minErrors.length; i++) minErrors[i] = data.getInt();
+                maxRemainingLengthAddendums = new int[addendums.length];
+                for (int i = 0; i < maxRemainingLengthAddendums.length; i++) {
+                    maxRemainingLengthAddendums[i] = data.getInt();
+                }
+            }
+
+            UIntArray transitionsTable = mapPacked(data, buffer.position());
+            UIntArray boundaryOffsets = mapPacked(data, buffer.position());
+
+            return create(degree, inclTransposition, transitionsTable, boundaryOffsets,
+                    addendums, minErrors, maxRemainingLengthAddendums);
+
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Truncated encoded parametric description", e);
+        }
+    }
+
+    private static EncodedParametricDescription create(
+            int degree, boolean inclTransposition,
+            UIntArray transitionsTable, UIntArray boundaryOffsets,
+            int[] addendums, int[] minErrors, int[] maxRemainingLengthAddendums) {
+        if (minErrors == null) {
+            return new EncodedParametricDescription(degree, inclTransposition,
+                    transitionsTable, boundaryOffsets, addendums);
+        }
+
+        return new EncodedParametricDescription(degree, inclTransposition,
+                transitionsTable, boundaryOffsets, addendums, minErrors, maxRemainingLengthAddendums);
+    }
+
+    private static UIntArray mapPacked(ByteBuffer data, int start) {
+        int bitsPerValue = data.getInt();
+        int longsCount = data.getInt();
+        int offset = data.position() - start;
+        data.position(data.position() + (Long.BYTES - offset % Long.BYTES) % Long.BYTES);
+
+        ByteBuffer bytes = data.slice();
+        bytes.limit(longsCount * Long.BYTES);
+        LongBuffer packed = bytes.order(ByteOrder.BIG_ENDIAN).asLongBuffer();
+        data.position(data.position() + longsCount * Long.BYTES);
+
+        return new MappedUIntPackedArray(bitsPerValue, packed);
+    }
+
+    private static int checkHeader(int magic, int version) throws IOException {
+        if (magic != MAGIC) {
+            throw new IOException("Not an encoded parametric description");
+        }
+
+        if (version != VERSION && version != VERSION_1) {
+            throw new IOException("Unsupported encoded parametric description version: " + version);
+        }
+
+        return version;
+    }
+
+    private static UIntPackedArray readPacked(CountingDataInput data) throws IOException {
+        int bitsPerValue = data.readInt();
+        long[] packed = new long[data.readInt()];
+        data.alignTo(Long.BYTES);
+        for (int i = 0; i < packed.length; i++) packed[i] = data.readLong();
+
+        return new UIntPackedArray(bitsPerValue, packed);
+    }
+
+    private static class CountingDataInput {
+        private final DataInputStream in;
+        private long position;
+
+        CountingDataInput(InputStream in) {
+            this.in = new DataInputStream(new BufferedInputStream(in));
+        }
+
+        int readInt() throws IOException {
+            position += Integer.BYTES;
+            return in.readInt();
+        }
+
+        long readLong() throws IOException {
+            position += Long.BYTES;
+            return in.readLong();
+        }
+
+        void alignTo(int alignment) throws IOException {
+            while (position % alignment != 0) {
+                in.readByte();
+                position++;
+            }
+        }
+    }
+
+    private EncodedParametricDescriptionFormat() {
+    }
+}
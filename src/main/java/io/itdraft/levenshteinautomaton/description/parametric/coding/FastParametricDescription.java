@@ -0,0 +1,198 @@
+package io.itdraft.levenshteinautomaton.description.parametric.coding;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import io.itdraft.levenshteinautomaton.description.parametric.ParametricDescription;
+import io.itdraft.levenshteinautomaton.util.UIntArray;
+
+import java.util.NoSuchElementException;
+
+/**
+ * The parametric description of the Levenshtein-automaton unpacked from
+ * an {@code EncodedParametricDescription} for faster transitions.
+ * <p>
+ * A transition is a single entry of a table laid out row-major by state, so
+ * transitions from a state are adjacent. The entry is the difference between the ids
+ * of the next and the current states without the current state real id, i.e.
+ * {@code boundaryOffset * (statesCount + 1) + nextStateRealId}, so a transition
+ * takes one load and no bit unpacking. Entries are {@code char}s if they fit in 16 bits
+ * and {@code int}s otherwise, e.g. the fourth degree table with transposition
+ * takes about as much memory as the packed one.
+ * </p>
+ * <p>
+ * <b>Note:</b>
+ * </p>
+ * <p>
+ * State ids are the same as the ids of the {@code EncodedParametricDescription}
+ * the description is created from.
+ * </p>
+ */
+public final class FastParametricDescription implements ParametricDescription {
+
+    private final int degree;
+    private final boolean inclTransposition;
+    private final int parametricStatesCount;
+    /**
+     * The number of characteristic vectors, i.e. the length of a row.
+     */
+    private final int vectorsCount;
+    private final char[] charTransitions;
+    private final int[] intTransitions;
+    private final int[] degreeMinusStateLengthAddendums;
+    private final int[] minErrors;
+    private final int[] maxRemainingLengthAddendums;
+
+    private FastParametricDescription(int degree, boolean inclTransposition, int vectorsCount,
+                                      char[] charTransitions, int[] intTransitions,
+                                      int[] degreeMinusStateLengthAddendums,
+                                      int[] minErrors, int[] maxRemainingLengthAddendums) {
+        this.degree = degree;
+        this.inclTransposition = inclTransposition;
+        this.parametricStatesCount = degreeMinusStateLengthAddendums.length;
+        this.vectorsCount = vectorsCount;
+        this.charTransitions = charTransitions;
+        this.intTransitions = intTransitions;
+        this.degreeMinusStateLengthAddendums = degreeMinusStateLengthAddendums;
+        this.minErrors = minErrors;
+        this.maxRemainingLengthAddendums = maxRemainingLengthAddendums;
+    }
+
+    /**
+     * Factory method to create an instance of {@code FastParametricDescription}.
+     *
+     * @param description an encoded description to unpack.
+     */
+    public static FastParametricDescription create(EncodedParametricDescription description) {
+        final UIntArray transitionsTable = description.getEncodedTransitionsTable();
+        final UIntArray boundaryOffsets = description.getEncodedBoundaryOffsets();
+        final int[] addendums = description.getDegreeMinusStateLengthAddendums();
+        final int statesCount = addendums.length;
+        final int vectorsCount = (1 << (2 * description.getDegree() + 2)) - 1;
+        final int[] transitions = new int[statesCount * vectorsCount];
+        int maxTransition = 0;
+
+        for (int realId = 0; realId < statesCount; realId++) {
+            for (int vector = 1; vector <= vectorsCount; vector++) {
+                int index = (vector - 1) * statesCount + realId;
+                int transition = boundaryOffsets.get(index) * (statesCount + 1) +
+                        transitionsTable.get(index);
+
+                transitions[realId * vectorsCount + vector - 1] = transition;
+                maxTransition = Math.max(maxTransition, transition);
+            }
+        }
+
+        char[] charTransitions = null;
+        if (maxTransition <= Character.MAX_VALUE) {
+            charTransitions = new char[transitions.length];
+            for (int i = 0; i < transitions.length; i++) charTransitions[i] = (char) transitions[i];
+        }
+
+        return new FastParametricDescription(description.getDegree(),
+                description.doesInclTransposition(), vectorsCount, charTransitions,
+                charTransitions == null ? transitions : null, addendums,
+                description.getMinErrors(), description.getMaxRemainingLengthAddendums());
+    }
+
+    /**
+     * @see EncodedParametricDescription#getDegree()
+     */
+    public int getDegree() {
+        return degree;
+    }
+
+    /**
+     * @see EncodedParametricDescription#doesInclTransposition()
+     */
+    public boolean doesInclTransposition() {
+        return inclTransposition;
+    }
+
+    public int getNextStateId(int characteristicVector, int curStateId) {
+        final int stateRealId = decodeStateRealId(curStateId);
+
+        if (stateRealId == parametricStatesCount) return curStateId;
+
+        final int index = stateRealId * vectorsCount + characteristicVector - 1;
+        final int transition = charTransitions != null ?
+                charTransitions[index] : intTransitions[index];
+
+        return curStateId - stateRealId + transition;
+    }
+
+    public int getInitialStateId() {
+        return EncodedParametricDescription.INITIAL_STATE_ID;
+    }
+
+    public boolean isFinalState(int stateId, int w) {
+        if (isFailureState(stateId)) return false;
+
+        return decodeMinBoundary(stateId) >=
+                w - degree + degreeMinusStateLengthAddendums[decodeStateRealId(stateId)];
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see EncodedParametricDescription#getDistance(int, int)
+     */
+    public int getDistance(int stateId, int w) {
+        if (isFailureState(stateId)) return -1;
+
+        int distance = w - decodeMinBoundary(stateId) +
+                degreeMinusStateLengthAddendums[decodeStateRealId(stateId)];
+
+        return distance <= degree ? distance : -1;
+    }
+
+    /**
+     * @see EncodedParametricDescription#getMinErrors(int)
+     */
+    public int getMinErrors(int stateId) {
+        if (isFailureState(stateId)) return degree + 1;
+
+        return minErrors[decodeStateRealId(stateId)];
+    }
+
+    /**
+     * @see EncodedParametricDescription#getMaxRemainingLength(int, int)
+     */
+    public int getMaxRemainingLength(int stateId, int w) {
+        if (isFailureState(stateId)) return 0;
+
+        return w - decodeMinBoundary(stateId) + maxRemainingLengthAddendums[decodeStateRealId(stateId)];
+    }
+
+    public boolean isFailureState(int stateId) {
+        return decodeStateRealId(stateId) == parametricStatesCount;
+    }
+
+    public int getStateMinBoundary(int stateId) {
+        if (isFailureState(stateId)) {
+            throw new NoSuchElementException(
+                    "Failure encodedState doesn't have the minimal boundary");
+        }
+
+        return decodeMinBoundary(stateId);
+    }
+
+    private int decodeMinBoundary(int stateId) {
+        return stateId / (parametricStatesCount + 1);
+    }
+
+    private int decodeStateRealId(int stateId) {
+        return stateId % (parametricStatesCount + 1);
+    }
+}
@@ -0,0 +1,71 @@
+package io.itdraft.levenshteinautomaton.description.parametric.coding;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import io.itdraft.levenshteinautomaton.description.parametric.ParametricDescription;
+import io.itdraft.levenshteinautomaton.description.parametric.ParametricDescriptionFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A factory to get {@code FastParametricDescription}s unpacked from the compact
+ * descriptions of another factory. A description is unpacked when it's requested
+ * for the first time.
+ * <p>
+ * Example:
+ * </p>
+ * <pre>{@code
+ * ParametricDescriptionFactory compact = new EncodedParametricDescriptionFactory();
+ * ParametricDescriptionFactory fast = new FastParametricDescriptionFactory(compact);
+ *
+ * ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(config, fast);
+ * }</pre>
+ */
+public class FastParametricDescriptionFactory implements ParametricDescriptionFactory {
+
+    private final ParametricDescriptionFactory compactFactory;
+
+    /**
+     * Unpacked descriptions by {@code 2 * degree + (inclTransposition ? 1 : 0)}.
+     */
+    private final ConcurrentMap<Integer, ParametricDescription> unpacked =
+            new ConcurrentHashMap<>();
+
+    /**
+     * @param compactFactory a factory to get descriptions to unpack from.
+     */
+    public FastParametricDescriptionFactory(ParametricDescriptionFactory compactFactory) {
+        this.compactFactory = compactFactory;
+    }
+
+    /**
+     * Returns the parametric description of the Levenshtein-automaton for the specified
+     * parameters or {@code null} if the compact factory doesn't have it. A description
+     * which isn't an {@code EncodedParametricDescription} is returned as is.
+     */
+    public ParametricDescription getParametricDescription(int degree, boolean inclTransposition) {
+        if (degree <= 0) return null;
+
+        return unpacked.computeIfAbsent(2 * degree + (inclTransposition ? 1 : 0),
+                key -> unpack(compactFactory.getParametricDescription(degree, inclTransposition)));
+    }
+
+    private static ParametricDescription unpack(ParametricDescription description) {
+        return description instanceof EncodedParametricDescription ?
+                FastParametricDescription.create((EncodedParametricDescription) description) :
+                description;
+    }
+}
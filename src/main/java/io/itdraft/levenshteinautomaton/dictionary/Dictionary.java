@@ -0,0 +1,73 @@
+package io.itdraft.levenshteinautomaton.dictionary;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Represents a dictionary index in the form of a deterministic automaton
+ * over code points (a trie or a DAWG). Nodes and arcs are addressed by
+ * integer handles, so an implementation is free to keep them in arrays or
+ * in any other compact form.
+ * <p>
+ * <b>Note:</b>
+ * </p>
+ * <p>
+ * Arcs of a node are traversed as a list: {@link #getFirstArc(int)} and then
+ * {@link #getNextArc(int)} until {@link #NO_ARC} is returned.
+ * </p>
+ */
+public interface Dictionary {
+
+    /**
+     * The handle returned when a node doesn't have any (more) arcs.
+     */
+    int NO_ARC = -1;
+
+    /**
+     * Returns the root node of the dictionary.
+     */
+    int getRootNode();
+
+    /**
+     * Tests if a word of the dictionary ends in {@code node}.
+     */
+    boolean isFinalNode(int node);
+
+    /**
+     * Returns the first outgoing arc of {@code node} or {@link #NO_ARC}
+     * if {@code node} is a leaf.
+     */
+    int getFirstArc(int node);
+
+    /**
+     * Returns the outgoing arc that follows {@code arc} or {@link #NO_ARC}
+     * if {@code arc} is the last arc of its node.
+     */
+    int getNextArc(int arc);
+
+    /**
+     * Returns the code point {@code arc} is labeled with.
+     */
+    int getArcLabel(int arc);
+
+    /**
+     * Returns the node {@code arc} leads to.
+     */
+    int getArcTarget(int arc);
+
+    /**
+     * Returns the number of code points in the longest word of the dictionary.
+     */
+    int getMaxWordLength();
+}
@@ -0,0 +1,316 @@
+package io.itdraft.levenshteinautomaton.dictionary;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import io.itdraft.levenshteinautomaton.LevenshteinAutomaton;
+import io.itdraft.levenshteinautomaton.LevenshteinAutomatonConfig;
+import io.itdraft.levenshteinautomaton.ParametricLevenshteinAutomaton;
+import io.itdraft.levenshteinautomaton.description.parametric.ParametricDescriptionFactory;
+import io.itdraft.levenshteinautomaton.description.parametric.ParametricDescriptionNotFoundException;
+import io.itdraft.levenshteinautomaton.description.parametric.coding.EncodedParametricDescriptionFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.ToDoubleFunction;
+
+import static io.itdraft.levenshteinautomaton.util.StringUtil.toCodePoints;
+
+/**
+ * This util class searches a dictionary for words accepted by the
+ * Levenshtein-automaton. The dictionary and the automaton are traversed
+ * together, so a branch of the dictionary is abandoned as soon as the automaton
+ * reaches the failure state.
+ */
+public final class DictionarySearch {
+
+    /**
+     * Passes every word of {@code dictionary} accepted by {@code automaton}
+     * to {@code handler}. Words are passed in the order of the dictionary traversal.
+     *
+     * @param dictionary a dictionary to search.
+     * @param automaton  a Levenshtein-automaton built for a query word.
+     * @param handler    a handler to receive accepted words.
+     */
+    public static void search(Dictionary dictionary,
+                              LevenshteinAutomaton automaton,
+                              MatchHandler handler) {
+        final int maxDepth = dictionary.getMaxWordLength();
+        final int[] word = new int[maxDepth];
+        final int[] arcs = new int[maxDepth + 1];
+        final int[] states = new int[maxDepth + 1];
+        int depth = 0;
+
+        int node = dictionary.getRootNode();
+        states[0] = automaton.getInitialStateId();
+        if (dictionary.isFinalNode(node) && automaton.isFinalState(states[0])) {
+            handler.apply("", states[0]);
+        }
+        arcs[0] = dictionary.getFirstArc(node);
+
+        while (depth >= 0) {
+            int arc = arcs[depth];
+
+            if (arc == Dictionary.NO_ARC) {
+                depth--;
+                continue;
+            }
+
+            arcs[depth] = dictionary.getNextArc(arc);
+
+            int codePoint = dictionary.getArcLabel(arc);
+            int stateId = automaton.getNextStateId(states[depth], codePoint);
+
+            if (automaton.isFailureState(stateId)) continue;
+
+            node = dictionary.getArcTarget(arc);
+            word[depth] = codePoint;
+
+            if (dictionary.isFinalNode(node) && automaton.isFinalState(stateId)) {
+                handler.apply(new String(word, 0, depth + 1), stateId);
+            }
+
+            // every arc below the node would lead to the failure state
+            if (!automaton.canAdvance(stateId)) continue;
+
+            depth++;
+            states[depth] = stateId;
+            arcs[depth] = dictionary.getFirstArc(node);
+        }
+    }
+
+    /**
+     * Returns every word of {@code dictionary} accepted by {@code automaton}.
+     */
+    public static List<String> search(Dictionary dictionary,
+                                      LevenshteinAutomaton automaton) {
+        List<String> result = new ArrayList<>();
+        search(dictionary, automaton, (word, finalState) -> result.add(word));
+        return result;
+    }
+
+    /**
+     * Searches {@code dictionary} in the prefix mode, like autocomplete does: a word is
+     * accepted if the word {@code automaton} is built for is within the degree of some
+     * prefix of the word. As soon as the automaton reaches a final state at a node, the whole
+     * subtree of the node is accepted and passed to {@code handler} without being traversed.
+     * Subtrees are passed in the order of the dictionary traversal and don't overlap.
+     *
+     * @param dictionary a dictionary to search.
+     * @param automaton  a Levenshtein-automaton built for a partial input.
+     * @param handler    a handler to receive subtrees of accepted words.
+     * @see LevenshteinAutomaton#isPrefixFinalState(int)
+     */
+    public static void searchPrefix(Dictionary dictionary,
+                                    LevenshteinAutomaton automaton,
+                                    PrefixMatchHandler handler) {
+        final int maxDepth = dictionary.getMaxWordLength();
+        final int[] word = new int[maxDepth];
+        final int[] arcs = new int[maxDepth + 1];
+        final int[] states = new int[maxDepth + 1];
+        int depth = 0;
+
+        int node = dictionary.getRootNode();
+        states[0] = automaton.getInitialStateId();
+        if (automaton.isPrefixFinalState(states[0])) {
+            handler.apply("", node, states[0]);
+            return;
+        }
+        arcs[0] = dictionary.getFirstArc(node);
+
+        while (depth >= 0) {
+            int arc = arcs[depth];
+
+            if (arc == Dictionary.NO_ARC) {
+                depth--;
+                continue;
+            }
+
+            arcs[depth] = dictionary.getNextArc(arc);
+
+            int codePoint = dictionary.getArcLabel(arc);
+            int stateId = automaton.getNextStateId(states[depth], codePoint);
+
+            if (automaton.isFailureState(stateId)) continue;
+
+            node = dictionary.getArcTarget(arc);
+            word[depth] = codePoint;
+
+            if (automaton.isPrefixFinalState(stateId)) {
+                handler.apply(new String(word, 0, depth + 1), node, stateId);
+                continue;
+            }
+
+            if (!automaton.canAdvance(stateId)) continue;
+
+            depth++;
+            states[depth] = stateId;
+            arcs[depth] = dictionary.getFirstArc(node);
+        }
+    }
+
+    /**
+     * Returns every word of {@code dictionary} accepted by {@code automaton}
+     * in the prefix mode.
+     *
+     * @see #searchPrefix(Dictionary, LevenshteinAutomaton, PrefixMatchHandler)
+     */
+    public static List<String> searchPrefix(Dictionary dictionary,
+                                            LevenshteinAutomaton automaton) {
+        List<String> result = new ArrayList<>();
+        searchPrefix(dictionary, automaton,
+                (prefix, node, finalState) -> collectWords(dictionary, prefix, node, result));
+        return result;
+    }
+
+    /**
+     * Adds every word of the subtree of {@code node} to {@code result},
+     * words of the subtree start with {@code prefix}.
+     */
+    public static void collectWords(Dictionary dictionary, String prefix, int node,
+                                    List<String> result) {
+        final int[] arcs = new int[dictionary.getMaxWordLength() + 1];
+        final StringBuilder word = new StringBuilder(prefix);
+        final int[] lengths = new int[arcs.length + 1];
+        int depth = 0;
+
+        if (dictionary.isFinalNode(node)) result.add(prefix);
+        arcs[0] = dictionary.getFirstArc(node);
+        lengths[0] = word.length();
+
+        while (depth >= 0) {
+            int arc = arcs[depth];
+
+            if (arc == Dictionary.NO_ARC) {
+                depth--;
+                continue;
+            }
+
+            arcs[depth] = dictionary.getNextArc(arc);
+            word.setLength(lengths[depth]);
+            word.appendCodePoint(dictionary.getArcLabel(arc));
+
+            node = dictionary.getArcTarget(arc);
+            depth++;
+            arcs[depth] = dictionary.getFirstArc(node);
+            lengths[depth] = word.length();
+
+            if (dictionary.isFinalNode(node)) result.add(word.toString());
+        }
+    }
+
+    /**
+     * Returns at most {@code k} words of {@code dictionary} nearest to {@code query}
+     * ordered by {@link Suggestion#BEST_FIRST}.
+     *
+     * @see #searchTopK(Dictionary, String, int, boolean, int, ToDoubleFunction, ParametricDescriptionFactory)
+     */
+    public static List<Suggestion> searchTopK(Dictionary dictionary,
+                                              String query,
+                                              int maxDegree,
+                                              boolean inclTransposition,
+                                              int k,
+                                              ToDoubleFunction<String> weights)
+            throws ParametricDescriptionNotFoundException {
+        return searchTopK(dictionary, query, maxDegree, inclTransposition, k, weights,
+                new EncodedParametricDescriptionFactory());
+    }
+
+    /**
+     * Returns at most {@code k} words of {@code dictionary} nearest to {@code query}
+     * ordered by {@link Suggestion#BEST_FIRST}.
+     * <p>
+     * The degree is escalated: the query is looked up as is and then the dictionary
+     * is searched by automata of degree 1, 2 and so on up to {@code maxDegree}. The search
+     * stops after the first degree at which {@code k} words are found, so words of a greater
+     * distance are never enumerated. Words of the last degree searched compete for
+     * the remaining places by their weights.
+     * </p>
+     *
+     * @param dictionary        a dictionary to search.
+     * @param query             a word to find the nearest words to.
+     * @param maxDegree         the max Levenshtein-distance of a suggestion.
+     * @param inclTransposition whether transposition is a single edit.
+     * @param k                 the max number of suggestions.
+     * @param weights           weights of words to break ties, e.g. frequencies.
+     * @param factory           a factory of parametric descriptions up to {@code maxDegree}.
+     * @throws ParametricDescriptionNotFoundException if a description of a degree that
+     *                                                has to be searched is not found.
+     */
+    public static List<Suggestion> searchTopK(Dictionary dictionary,
+                                              String query,
+                                              int maxDegree,
+                                              boolean inclTransposition,
+                                              int k,
+                                              ToDoubleFunction<String> weights,
+                                              ParametricDescriptionFactory factory)
+            throws ParametricDescriptionNotFoundException {
+        if (k <= 0) throw new IllegalArgumentException("k = " + k + " isn't positive.");
+
+        // the worst suggestion is at the head, so it's the one to be replaced
+        final PriorityQueue<Suggestion> best = new PriorityQueue<>(k, Suggestion.BEST_FIRST.reversed());
+        final int[] queryCodePoints = toCodePoints(query);
+
+        if (contains(dictionary, queryCodePoints)) {
+            offer(best, k, new Suggestion(query, 0, weights.applyAsDouble(query)));
+        }
+
+        for (int degree = 1; degree <= maxDegree && best.size() < k; degree++) {
+            final int distance = degree;
+            final ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(
+                    new LevenshteinAutomatonConfig(queryCodePoints, degree, inclTransposition), factory);
+
+            // nearer words have been offered at lower degrees
+            search(dictionary, automaton, (word, finalState) -> {
+                if (automaton.getDistance(finalState) == distance) {
+                    offer(best, k, new Suggestion(word, distance, weights.applyAsDouble(word)));
+                }
+            });
+        }
+
+        List<Suggestion> result = new ArrayList<>(best);
+        result.sort(Suggestion.BEST_FIRST);
+        return result;
+    }
+
+    private static void offer(PriorityQueue<Suggestion> best, int k, Suggestion suggestion) {
+        if (best.size() < k) {
+            best.add(suggestion);
+
+        } else if (Suggestion.BEST_FIRST.compare(suggestion, best.peek()) < 0) {
+            best.poll();
+            best.add(suggestion);
+        }
+    }
+
+    private static boolean contains(Dictionary dictionary, int[] codePoints) {
+        int node = dictionary.getRootNode();
+
+        for (int codePoint : codePoints) {
+            int arc = dictionary.getFirstArc(node);
+            while (arc != Dictionary.NO_ARC && dictionary.getArcLabel(arc) != codePoint) {
+                arc = dictionary.getNextArc(arc);
+            }
+
+            if (arc == Dictionary.NO_ARC) return false;
+            node = dictionary.getArcTarget(arc);
+        }
+
+        return dictionary.isFinalNode(node);
+    }
+
+    private DictionarySearch() {
+    }
+}
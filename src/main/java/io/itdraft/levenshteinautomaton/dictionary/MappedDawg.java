@@ -0,0 +1,352 @@
+package io.itdraft.levenshteinautomaton.dictionary;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import io.itdraft.levenshteinautomaton.util.Utf8Util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An immutable minimized DAWG read straight from a memory-mapped file written by
+ * {@code MappedDawgBuilder}. Nodes and arcs are byte offsets into the file and arc labels
+ * are decoded from UTF-8 on the fly, so opening the dictionary takes constant time and
+ * the heap doesn't depend on the number of words.
+ * <p>
+ * <b>Note:</b>
+ * </p>
+ * <p>
+ * All values are big-endian. The format consists of the header ({@code MAGIC},
+ * {@code VERSION}, flags, the words count, the max word length, the root node, the length
+ * of the payloads and the length of the nodes), the payloads, the payload offsets
+ * (an {@code int} per word and the end offset) and the nodes. A node is a flags byte
+ * and the number of words in its subtree followed by its arcs in the ascending order
+ * of labels. An arc is a flags byte, the label in UTF-8 and the target node.
+ * </p>
+ * <p>
+ * Words are numbered by their order in the dictionary, so the number of a word is
+ * counted on the way down from the root and a payload is looked up by the number.
+ * Every section is limited to 2 GB and mapped by its own buffer, so the file isn't.
+ * </p>
+ * <p>
+ * The dictionary is thread-safe: the mapped buffers are read by absolute gets only.
+ * </p>
+ */
+public class MappedDawg implements Dictionary {
+
+    /**
+     * "LDWG" in ASCII.
+     */
+    public static final int MAGIC = 0x4C445747;
+
+    public static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 8 * Integer.BYTES;
+
+    static final int HAS_PAYLOADS = 1;
+
+    static final int FINAL_NODE = 1;
+
+    static final int HAS_ARCS = 2;
+
+    static final int LAST_ARC = 1;
+
+    /**
+     * The flags byte and the words count.
+     */
+    static final int NODE_HEADER_SIZE = 1 + Integer.BYTES;
+
+    private final ByteBuffer nodes;
+    private final ByteBuffer payloadOffsets;
+    private final ByteBuffer payloads;
+    private final int wordsCount;
+    private final int maxWordLength;
+    private final int rootNode;
+
+    private MappedDawg(ByteBuffer nodes, ByteBuffer payloadOffsets, ByteBuffer payloads,
+                       int wordsCount, int maxWordLength, int rootNode) {
+        this.nodes = nodes;
+        this.payloadOffsets = payloadOffsets;
+        this.payloads = payloads;
+        this.wordsCount = wordsCount;
+        this.maxWordLength = maxWordLength;
+        this.rootNode = rootNode;
+    }
+
+    /**
+     * Maps {@code file} written by {@code MappedDawgBuilder} into memory. Every section
+     * is mapped by its own buffer, so the file may exceed 2 GB.
+     *
+     * @throws IOException if mapping fails or {@code file} isn't a DAWG
+     *                     of the supported version.
+     */
+    public static MappedDawg map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer data = ByteBuffer.allocate(HEADER_SIZE);
+            while (data.hasRemaining()) {
+                if (channel.read(data, data.position()) < 0) break;
+            }
+            data.flip();
+
+            Header header = Header.read(data);
+            if (HEADER_SIZE + header.sectionsLength() > channel.size()) throw new IOException("Truncated DAWG");
+
+            // mappings stay valid after the channel is closed
+            long position = HEADER_SIZE;
+            ByteBuffer payloads = null;
+            ByteBuffer payloadOffsets = null;
+            if (header.hasPayloads()) {
+                payloads = section(channel, position, header.payloadsLength);
+                position += header.payloadsLength;
+                payloadOffsets = section(channel, position, header.payloadOffsetsLength());
+                position += header.payloadOffsetsLength();
+            }
+            ByteBuffer nodes = section(channel, position, header.nodesLength);
+
+            return create(header, nodes, payloadOffsets, payloads);
+        }
+    }
+
+    /**
+     * Reads a DAWG written by {@code MappedDawgBuilder} from {@code buffer} starting at its
+     * position. The returned dictionary is a view of {@code buffer}.
+     *
+     * @throws IOException if {@code buffer} isn't a DAWG of the supported version.
+     */
+    public static MappedDawg read(ByteBuffer buffer) throws IOException {
+        ByteBuffer data = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        Header header = Header.read(data);
+        if (header.sectionsLength() > data.remaining()) throw new IOException("Truncated DAWG");
+
+        ByteBuffer payloads = null;
+        ByteBuffer payloadOffsets = null;
+        if (header.hasPayloads()) {
+            payloads = section(data, header.payloadsLength);
+            payloadOffsets = section(data, (int) header.payloadOffsetsLength());
+        }
+        ByteBuffer nodes = section(data, header.nodesLength);
+
+        return create(header, nodes, payloadOffsets, payloads);
+    }
+
+    private static MappedDawg create(Header header, ByteBuffer nodes,
+                                     ByteBuffer payloadOffsets, ByteBuffer payloads) throws IOException {
+        if (header.rootNode < 0 || header.rootNode + NODE_HEADER_SIZE > header.nodesLength) {
+            throw new IOException("Corrupted DAWG: the root node is out of bounds");
+        }
+
+        return new MappedDawg(nodes, payloadOffsets, payloads,
+                header.wordsCount, header.maxWordLength, header.rootNode);
+    }
+
+    private static ByteBuffer section(ByteBuffer data, int length) {
+        ByteBuffer result = data.slice();
+        result.limit(length);
+        data.position(data.position() + length);
+
+        return result.order(ByteOrder.BIG_ENDIAN);
+    }
+
+    private static ByteBuffer section(FileChannel channel, long position, long length) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, length).order(ByteOrder.BIG_ENDIAN);
+    }
+
+    public int getRootNode() {
+        return rootNode;
+    }
+
+    public boolean isFinalNode(int node) {
+        return (nodes.get(node) & FINAL_NODE) != 0;
+    }
+
+    public int getFirstArc(int node) {
+        return (nodes.get(node) & HAS_ARCS) != 0 ? node + NODE_HEADER_SIZE : NO_ARC;
+    }
+
+    public int getNextArc(int arc) {
+        if ((nodes.get(arc) & LAST_ARC) != 0) return NO_ARC;
+
+        return arc + 1 + labelLength(nodes.get(arc + 1)) + Integer.BYTES;
+    }
+
+    public int getArcLabel(int arc) {
+        // a label is followed by the target, so it's never cut by the end of the buffer
+        return Utf8Util.codePoint(Utf8Util.decode(nodes, arc + 1, arc + 5));
+    }
+
+    public int getArcTarget(int arc) {
+        return nodes.getInt(arc + 1 + labelLength(nodes.get(arc + 1)));
+    }
+
+    public int getMaxWordLength() {
+        return maxWordLength;
+    }
+
+    /**
+     * Returns the number of words in this {@code MappedDawg}.
+     */
+    public int getWordsCount() {
+        return wordsCount;
+    }
+
+    /**
+     * Returns the number of words in the subtree of {@code node}, including
+     * the word which ends in {@code node}.
+     */
+    public int getWordsCount(int node) {
+        return nodes.getInt(node + 1);
+    }
+
+    /**
+     * Tests if words of this {@code MappedDawg} have payloads.
+     */
+    public boolean hasPayloads() {
+        return payloads != null;
+    }
+
+    /**
+     * Tests if {@code word} is in this {@code MappedDawg}.
+     */
+    public boolean contains(CharSequence word) {
+        return getOrdinal(word) >= 0;
+    }
+
+    /**
+     * Returns the number of words of this {@code MappedDawg} which precede {@code word}
+     * in the code point order or {@code -1} if {@code word} isn't in the dictionary.
+     * The number is the index of the word in the sorted terms it's built from.
+     */
+    public int getOrdinal(CharSequence word) {
+        int node = rootNode;
+        int ordinal = 0;
+
+        for (int i = 0, length = word.length(); i < length; ) {
+            int codePoint = Character.codePointAt(word, i);
+            if (isFinalNode(node)) ordinal++;
+
+            // words through the preceding arcs precede the word
+            int arc = getFirstArc(node);
+            while (arc != NO_ARC && getArcLabel(arc) < codePoint) {
+                ordinal += getWordsCount(getArcTarget(arc));
+                arc = getNextArc(arc);
+            }
+
+            if (arc == NO_ARC || getArcLabel(arc) != codePoint) return -1;
+
+            node = getArcTarget(arc);
+            i += Character.charCount(codePoint);
+        }
+
+        return isFinalNode(node) ? ordinal : -1;
+    }
+
+    /**
+     * Returns a read-only view of the payload of the word numbered {@code ordinal}.
+     *
+     * @throws IllegalStateException     if the dictionary is built without payloads.
+     * @throws IndexOutOfBoundsException if {@code ordinal} isn't a number of a word.
+     * @see #getOrdinal(CharSequence)
+     */
+    public ByteBuffer getPayload(int ordinal) {
+        if (payloads == null) throw new IllegalStateException("The DAWG is built without payloads");
+        if (ordinal < 0 || ordinal >= wordsCount) {
+            throw new IndexOutOfBoundsException("ordinal = " + ordinal);
+        }
+
+        ByteBuffer result = payloads.asReadOnlyBuffer();
+        result.limit(payloadOffsets.getInt((ordinal + 1) * Integer.BYTES));
+        result.position(payloadOffsets.getInt(ordinal * Integer.BYTES));
+
+        return result.slice();
+    }
+
+    /**
+     * Returns a read-only view of the payload of {@code word} or {@code null}
+     * if {@code word} isn't in the dictionary.
+     *
+     * @throws IllegalStateException if the dictionary is built without payloads.
+     */
+    public ByteBuffer getPayload(CharSequence word) {
+        int ordinal = getOrdinal(word);
+
+        return ordinal >= 0 ? getPayload(ordinal) : null;
+    }
+
+    /**
+     * The header of a DAWG, the lengths of the sections are validated,
+     * so a section fits in a single buffer.
+     */
+    private static final class Header {
+        final int flags;
+        final int wordsCount;
+        final int maxWordLength;
+        final int rootNode;
+        final int payloadsLength;
+        final int nodesLength;
+
+        private Header(int flags, int wordsCount, int maxWordLength, int rootNode,
+                       int payloadsLength, int nodesLength) {
+            this.flags = flags;
+            this.wordsCount = wordsCount;
+            this.maxWordLength = maxWordLength;
+            this.rootNode = rootNode;
+            this.payloadsLength = payloadsLength;
+            this.nodesLength = nodesLength;
+        }
+
+        static Header read(ByteBuffer data) throws IOException {
+            if (data.remaining() < HEADER_SIZE) throw new IOException("Truncated DAWG");
+            if (data.getInt() != MAGIC) throw new IOException("Not a DAWG");
+
+            int version = data.getInt();
+            if (version != VERSION) throw new IOException("Unsupported DAWG version: " + version);
+
+            Header header = new Header(data.getInt(), data.getInt(), data.getInt(), data.getInt(),
+                    data.getInt(), data.getInt());
+            if (header.wordsCount < 0 || header.payloadsLength < 0 || header.nodesLength < 0 ||
+                    header.payloadOffsetsLength() > Integer.MAX_VALUE) {
+                throw new IOException("Corrupted DAWG: a length is out of bounds");
+            }
+
+            return header;
+        }
+
+        boolean hasPayloads() {
+            return (flags & HAS_PAYLOADS) != 0;
+        }
+
+        long payloadOffsetsLength() {
+            return (wordsCount + 1L) * Integer.BYTES;
+        }
+
+        long sectionsLength() {
+            return (hasPayloads() ? payloadsLength + payloadOffsetsLength() : 0) + nodesLength;
+        }
+    }
+
+    /**
+     * Returns the number of bytes a label takes by its first byte.
+     */
+    static int labelLength(byte lead) {
+        if ((lead & 0x80) == 0) return 1;
+        if ((lead & 0xE0) == 0xC0) return 2;
+        if ((lead & 0xF0) == 0xE0) return 3;
+        return 4;
+    }
+}
@@ -0,0 +1,468 @@
+package io.itdraft.levenshteinautomaton.dictionary;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static io.itdraft.levenshteinautomaton.dictionary.MappedDawg.FINAL_NODE;
+import static io.itdraft.levenshteinautomaton.dictionary.MappedDawg.HAS_ARCS;
+import static io.itdraft.levenshteinautomaton.dictionary.MappedDawg.HAS_PAYLOADS;
+import static io.itdraft.levenshteinautomaton.dictionary.MappedDawg.HEADER_SIZE;
+import static io.itdraft.levenshteinautomaton.dictionary.MappedDawg.LAST_ARC;
+import static io.itdraft.levenshteinautomaton.dictionary.MappedDawg.MAGIC;
+import static io.itdraft.levenshteinautomaton.dictionary.MappedDawg.NODE_HEADER_SIZE;
+import static io.itdraft.levenshteinautomaton.dictionary.MappedDawg.VERSION;
+import static io.itdraft.levenshteinautomaton.dictionary.MappedDawg.labelLength;
+
+/**
+ * Builds a {@code MappedDawg} file from terms streamed in the ascending code point order
+ * (which is the order of their UTF-8 bytes). The DAWG is minimized on the fly: only
+ * the path of the last term is mutable, the rest of the nodes are written once and
+ * a node equal to a written one is replaced by the written one.
+ * <p>
+ * <b>Note:</b>
+ * </p>
+ * <p>
+ * The builder keeps the written nodes and a hash table of them on the heap until
+ * {@link #finish()}, which is the size of the minimized DAWG rather than of the terms.
+ * The nodes are a single array, so they are limited to {@code MAX_NODES_LENGTH} bytes
+ * (about 2 GB) and need that much heap; the builder fails with
+ * {@code IllegalStateException} as soon as the nodes would exceed the limit.
+ * Payloads are streamed to the file as terms are added, they and their offsets are
+ * limited to 2 GB each, while the file may exceed 2 GB.
+ * </p>
+ * <p>Example:</p>
+ * <pre>{@code
+ * try (MappedDawgBuilder builder = MappedDawgBuilder.create(file, true)) {
+ *     for (Term term : sortedTerms) builder.add(term.text, term.payload);
+ *     builder.finish();
+ * }
+ * DictionarySearch.search(MappedDawg.map(file), automaton, handler);
+ * }</pre>
+ */
+public class MappedDawgBuilder implements Closeable {
+
+    /**
+     * The max length of the nodes in bytes, which is the max length of an array.
+     */
+    public static final int MAX_NODES_LENGTH = Integer.MAX_VALUE - 8;
+
+    private final Path file;
+    private final Path offsetsFile;
+    private final DataOutputStream payloadsOut;
+    private final DataOutputStream offsetsOut;
+    private final boolean storePayloads;
+
+    private byte[] nodes = new byte[1024];
+    private int nodesLength;
+
+    /**
+     * Written nodes by the hash of their bytes, an element is a node plus {@code 1}.
+     */
+    private int[] registry = new int[1024];
+    private int registeredCount;
+
+    private byte[] scratch = new byte[64];
+
+    /**
+     * The path of the last term, {@code path[depth]} is the node after {@code depth} code points.
+     */
+    private PendingNode[] path = {new PendingNode()};
+    private int[] lastTerm = new int[16];
+    private int lastTermLength;
+    private int[] term = new int[16];
+
+    private int wordsCount;
+    private int maxWordLength;
+    private long payloadsLength;
+    private boolean finished;
+
+    private MappedDawgBuilder(Path file, Path offsetsFile, DataOutputStream payloadsOut,
+                              DataOutputStream offsetsOut, boolean storePayloads) {
+        this.file = file;
+        this.offsetsFile = offsetsFile;
+        this.payloadsOut = payloadsOut;
+        this.offsetsOut = offsetsOut;
+        this.storePayloads = storePayloads;
+    }
+
+    /**
+     * Factory method to create an instance of {@code MappedDawgBuilder}.
+     *
+     * @param file          a file to write the DAWG to, it's replaced if it exists.
+     * @param storePayloads whether a term has a payload.
+     */
+    public static MappedDawgBuilder create(Path file, boolean storePayloads) throws IOException {
+        DataOutputStream payloadsOut = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)));
+        // the header is written by finish()
+        payloadsOut.write(new byte[HEADER_SIZE]);
+
+        Path offsetsFile = null;
+        DataOutputStream offsetsOut = null;
+        if (storePayloads) {
+            offsetsFile = Files.createTempFile(file.toAbsolutePath().getParent(),
+                    file.getFileName().toString(), ".offsets");
+            offsetsOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(offsetsFile)));
+            offsetsOut.writeInt(0);
+        }
+
+        return new MappedDawgBuilder(file, offsetsFile, payloadsOut, offsetsOut, storePayloads);
+    }
+
+    /**
+     * Adds {@code term} with an empty payload if the builder stores payloads.
+     *
+     * @throws IllegalArgumentException if {@code term} doesn't follow the last term
+     *                                  in the code point order or contains
+     *                                  an unpaired surrogate.
+     */
+    public MappedDawgBuilder add(CharSequence term) throws IOException {
+        addTerm(term);
+        if (storePayloads) writePayload(new byte[0]);
+
+        return this;
+    }
+
+    /**
+     * Adds {@code term} with {@code payload}.
+     *
+     * @throws IllegalArgumentException if {@code term} doesn't follow the last term
+     *                                  in the code point order or contains
+     *                                  an unpaired surrogate.
+     * @throws IllegalStateException    if the builder doesn't store payloads.
+     */
+    public MappedDawgBuilder add(CharSequence term, byte[] payload) throws IOException {
+        if (!storePayloads) throw new IllegalStateException("The builder doesn't store payloads");
+
+        addTerm(term);
+        writePayload(payload);
+
+        return this;
+    }
+
+    private void addTerm(CharSequence chars) {
+        if (finished) throw new IllegalStateException("The builder is finished");
+        // the offsets of the payloads of the words and the end offset
+        if (storePayloads && (wordsCount + 2L) * Integer.BYTES > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Payload offsets exceed 2 GB");
+        }
+
+        int length = decode(chars);
+        int prefixLength = commonPrefixLength(length);
+
+        if (wordsCount > 0 && (prefixLength == length ||
+                prefixLength < lastTermLength && term[prefixLength] < lastTerm[prefixLength])) {
+            throw new IllegalArgumentException("Terms aren't sorted or contain duplicates: " + chars);
+        }
+
+        // the suffix of the last term is never changed any more
+        for (int depth = lastTermLength; depth > prefixLength; depth--) {
+            freezeInto(path[depth - 1], path[depth]);
+        }
+
+        ensurePathCapacity(length);
+        for (int depth = prefixLength; depth < length; depth++) {
+            path[depth].addArc(term[depth]);
+            path[depth + 1].clear();
+        }
+        path[length].isFinal = true;
+
+        int[] t = lastTerm;
+        lastTerm = term;
+        term = t;
+        lastTermLength = length;
+        wordsCount++;
+        maxWordLength = Math.max(maxWordLength, length);
+    }
+
+    private int decode(CharSequence chars) {
+        if (term.length < chars.length()) term = new int[Math.max(chars.length(), term.length * 2)];
+
+        int length = 0;
+        for (int i = 0; i < chars.length(); ) {
+            int codePoint = Character.codePointAt(chars, i);
+            // an unpaired surrogate has no UTF-8 encoding, a label would be read as U+FFFD
+            if (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE) {
+                throw new IllegalArgumentException("An unpaired surrogate at " + i + ": " + chars);
+            }
+            term[length++] = codePoint;
+            i += Character.charCount(codePoint);
+        }
+
+        return length;
+    }
+
+    private int commonPrefixLength(int length) {
+        int until = Math.min(length, lastTermLength);
+        int i = 0;
+        while (i < until && term[i] == lastTerm[i]) i++;
+
+        return i;
+    }
+
+    private void ensurePathCapacity(int length) {
+        if (path.length <= length) {
+            int from = path.length;
+            path = Arrays.copyOf(path, Math.max(length + 1, path.length * 2));
+            for (int i = from; i < path.length; i++) path[i] = new PendingNode();
+        }
+    }
+
+    private void writePayload(byte[] payload) throws IOException {
+        payloadsOut.write(payload);
+        payloadsLength += payload.length;
+        if (payloadsLength > Integer.MAX_VALUE) throw new IllegalStateException("Payloads exceed 2 GB");
+
+        offsetsOut.writeInt((int) payloadsLength);
+    }
+
+    /**
+     * Writes the DAWG and closes the builder.
+     */
+    public void finish() throws IOException {
+        if (finished) throw new IllegalStateException("The builder is finished");
+
+        for (int depth = lastTermLength; depth > 0; depth--) {
+            freezeInto(path[depth - 1], path[depth]);
+        }
+        int rootNode = freeze(path[0]);
+        finished = true;
+
+        if (storePayloads) {
+            offsetsOut.close();
+            Files.copy(offsetsFile, payloadsOut);
+        }
+        payloadsOut.write(nodes, 0, nodesLength);
+        payloadsOut.close();
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(storePayloads ? HAS_PAYLOADS : 0)
+                .putInt(wordsCount).putInt(maxWordLength).putInt(rootNode)
+                .putInt((int) payloadsLength).putInt(nodesLength);
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) channel.write(header, header.position());
+        }
+
+        close();
+    }
+
+    /**
+     * Releases the files of the builder. The DAWG file is incomplete unless
+     * {@link #finish()} has been called.
+     */
+    public void close() throws IOException {
+        try {
+            payloadsOut.close();
+            if (offsetsOut != null) offsetsOut.close();
+        } finally {
+            if (offsetsFile != null) Files.deleteIfExists(offsetsFile);
+        }
+    }
+
+    private void freezeInto(PendingNode parent, PendingNode child) {
+        int count = child.wordsCount();
+        parent.setLastTarget(freeze(child), count);
+    }
+
+    /**
+     * Writes {@code node} unless an equal node is written and returns the written node.
+     */
+    private int freeze(PendingNode node) {
+        int length = serialize(node);
+        int hash = hash(scratch, length);
+        int mask = registry.length - 1;
+
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            int registered = registry[i] - 1;
+
+            if (registered < 0) {
+                int written = append(length);
+                registry[i] = written + 1;
+                if (++registeredCount * 2 > registry.length) rehash();
+                return written;
+            }
+
+            if (equalsScratch(registered, length)) return registered;
+        }
+    }
+
+    private int serialize(PendingNode node) {
+        int length = NODE_HEADER_SIZE + node.arcsCount * (2 + 4 + Integer.BYTES);
+        if (scratch.length < length) scratch = new byte[Math.max(length, scratch.length * 2)];
+
+        scratch[0] = (byte) ((node.isFinal ? FINAL_NODE : 0) | (node.arcsCount > 0 ? HAS_ARCS : 0));
+        int i = putInt(scratch, 1, node.wordsCount());
+
+        for (int k = 0; k < node.arcsCount; k++) {
+            scratch[i++] = (byte) (k == node.arcsCount - 1 ? LAST_ARC : 0);
+            i = putUtf8(scratch, i, node.labels[k]);
+            i = putInt(scratch, i, node.targets[k]);
+        }
+
+        return i;
+    }
+
+    /**
+     * Tests if the bytes of {@code node} are the node in the scratch buffer.
+     * Nodes are prefix-free, so a different node mismatches within its own bytes.
+     */
+    private boolean equalsScratch(int node, int length) {
+        if (node + length > nodesLength) return false;
+
+        for (int i = 0; i < length; i++) {
+            if (nodes[node + i] != scratch[i]) return false;
+        }
+
+        return true;
+    }
+
+    private int append(int length) {
+        if (nodesLength + (long) length > MAX_NODES_LENGTH) {
+            throw new IllegalStateException("The nodes of the DAWG exceed " + MAX_NODES_LENGTH +
+                    " bytes, the limit of MappedDawgBuilder");
+        }
+        if (nodes.length < nodesLength + length) {
+            nodes = Arrays.copyOf(nodes, (int) Math.min(MAX_NODES_LENGTH,
+                    Math.max((long) nodesLength + length, nodes.length * 2L)));
+        }
+
+        System.arraycopy(scratch, 0, nodes, nodesLength, length);
+        nodesLength += length;
+
+        return nodesLength - length;
+    }
+
+    private void rehash() {
+        int[] old = registry;
+        registry = new int[old.length * 2];
+        int mask = registry.length - 1;
+
+        for (int registered : old) {
+            if (registered == 0) continue;
+
+            int node = registered - 1;
+            int hash = hash(nodes, node, nodeLength(node));
+            int i = hash & mask;
+            while (registry[i] != 0) i = (i + 1) & mask;
+            registry[i] = registered;
+        }
+    }
+
+    private int nodeLength(int node) {
+        if ((nodes[node] & HAS_ARCS) == 0) return NODE_HEADER_SIZE;
+
+        int arc = node + NODE_HEADER_SIZE;
+        while (true) {
+            int arcLength = 1 + labelLength(nodes[arc + 1]) + Integer.BYTES;
+            if ((nodes[arc] & LAST_ARC) != 0) return arc + arcLength - node;
+            arc += arcLength;
+        }
+    }
+
+    private static int hash(byte[] bytes, int length) {
+        return hash(bytes, 0, length);
+    }
+
+    private static int hash(byte[] bytes, int from, int length) {
+        int h = 0;
+        for (int i = from; i < from + length; i++) h = 31 * h + bytes[i];
+
+        // spreads the low bits which pick a slot
+        return h ^ (h >>> 16);
+    }
+
+    private static int putInt(byte[] bytes, int i, int value) {
+        bytes[i] = (byte) (value >>> 24);
+        bytes[i + 1] = (byte) (value >>> 16);
+        bytes[i + 2] = (byte) (value >>> 8);
+        bytes[i + 3] = (byte) value;
+
+        return i + Integer.BYTES;
+    }
+
+    private static int putUtf8(byte[] bytes, int i, int codePoint) {
+        if (codePoint < 0x80) {
+            bytes[i++] = (byte) codePoint;
+
+        } else if (codePoint < 0x800) {
+            bytes[i++] = (byte) (0xC0 | codePoint >> 6);
+            bytes[i++] = (byte) (0x80 | codePoint & 0x3F);
+
+        } else if (codePoint < 0x10000) {
+            bytes[i++] = (byte) (0xE0 | codePoint >> 12);
+            bytes[i++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+            bytes[i++] = (byte) (0x80 | codePoint & 0x3F);
+
+        } else {
+            bytes[i++] = (byte) (0xF0 | codePoint >> 18);
+            bytes[i++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+            bytes[i++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+            bytes[i++] = (byte) (0x80 | codePoint & 0x3F);
+        }
+
+        return i;
+    }
+
+    /**
+     * A node on the path of the last term. The target of its last arc is set
+     * when the arc's subtree is frozen.
+     */
+    private static class PendingNode {
+        boolean isFinal;
+        int arcsCount;
+        int[] labels = new int[4];
+        int[] targets = new int[4];
+        int[] counts = new int[4];
+
+        void clear() {
+            isFinal = false;
+            arcsCount = 0;
+        }
+
+        void addArc(int label) {
+            if (arcsCount == labels.length) {
+                labels = Arrays.copyOf(labels, arcsCount * 2);
+                targets = Arrays.copyOf(targets, arcsCount * 2);
+                counts = Arrays.copyOf(counts, arcsCount * 2);
+            }
+            labels[arcsCount++] = label;
+        }
+
+        void setLastTarget(int target, int count) {
+            targets[arcsCount - 1] = target;
+            counts[arcsCount - 1] = count;
+        }
+
+        int wordsCount() {
+            int result = isFinal ? 1 : 0;
+            for (int k = 0; k < arcsCount; k++) result += counts[k];
+
+            return result;
+        }
+    }
+}
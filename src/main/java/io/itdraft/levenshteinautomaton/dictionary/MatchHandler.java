@@ -0,0 +1,30 @@
+package io.itdraft.levenshteinautomaton.dictionary;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Receives dictionary words accepted by the Levenshtein-automaton
+ * as soon as they are found.
+ */
+@FunctionalInterface
+public interface MatchHandler {
+
+    /**
+     * @param word       a dictionary word accepted by the automaton.
+     * @param finalState the final state the automaton is in after {@code word}
+     *                   has been recognized.
+     */
+    void apply(String word, int finalState);
+}
@@ -0,0 +1,303 @@
+package io.itdraft.levenshteinautomaton.dictionary;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import io.itdraft.levenshteinautomaton.LevenshteinAutomaton;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A dictionary which is updated while it's searched. Words are kept in an immutable
+ * {@code Trie} (the base) plus a delta: a small trie of added words and a trie
+ * of deleted words of the base. Updates replace the delta by a new one, which shares
+ * all but the path of the updated word with the old one, and the delta is merged
+ * into a new base by compaction.
+ * <p>
+ * <b>Note:</b>
+ * </p>
+ * <p>
+ * A search reads a snapshot of the base and the delta by a single volatile read,
+ * so searches never block and don't see updates made during the search.
+ * Updates are serialized and take time proportional to the length of the word.
+ * </p>
+ * <p>
+ * Compaction runs on the executor given on creation as soon as the delta exceeds
+ * {@code maxDeltaSize} words, or can be run by {@link #compact()}, e.g. on a schedule.
+ * It builds the new base without blocking updates and rebases the updates made
+ * in the meantime onto it. If the executor rejects compaction, e.g. it's shut down,
+ * the update still succeeds, the rejection is counted by
+ * {@link #getRejectedCompactionsCount()} and the next update schedules compaction again.
+ * </p>
+ * <p>Example:</p>
+ * <pre>{@code
+ * MutableDictionary dictionary = MutableDictionary.create(words, 4096, executor);
+ * dictionary.insert("laptop");
+ * dictionary.delete("netbook");
+ * dictionary.search(automaton, (word, finalState) -> System.out.println(word));
+ * }</pre>
+ */
+public class MutableDictionary {
+
+    private final int maxDeltaSize;
+    private final Executor executor;
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private final AtomicLong rejectedCompactionsCount = new AtomicLong();
+    private final Object compactionLock = new Object();
+
+    private volatile Snapshot snapshot;
+
+    private MutableDictionary(Trie base, int maxDeltaSize, Executor executor) {
+        this.maxDeltaSize = maxDeltaSize;
+        this.executor = executor;
+        this.snapshot = new Snapshot(base, PersistentTrie.empty(), PersistentTrie.empty());
+    }
+
+    /**
+     * Factory method to create an instance of {@code MutableDictionary}.
+     *
+     * @param words        initial words of the dictionary, they are allowed to be unsorted
+     *                     and to contain duplicates.
+     * @param maxDeltaSize the number of added and deleted words which triggers compaction.
+     * @param executor     an executor to run compaction on.
+     */
+    public static MutableDictionary create(Iterable<? extends CharSequence> words,
+                                           int maxDeltaSize, Executor executor) {
+        if (maxDeltaSize <= 0) {
+            throw new IllegalArgumentException("maxDeltaSize = " + maxDeltaSize + " isn't positive.");
+        }
+
+        return new MutableDictionary(Trie.create(words), maxDeltaSize, executor);
+    }
+
+    /**
+     * Adds {@code word} to the dictionary.
+     *
+     * @return {@code true} if the dictionary didn't contain {@code word}.
+     */
+    public boolean insert(CharSequence word) {
+        final String w = word.toString();
+
+        synchronized (this) {
+            Snapshot s = snapshot;
+            if (s.contains(w)) return false;
+
+            if (s.deleted.contains(w)) {
+                snapshot = new Snapshot(s.base, s.added, s.deleted.without(w));
+            } else {
+                snapshot = new Snapshot(s.base, s.added.with(w), s.deleted);
+            }
+        }
+
+        scheduleCompactionIfNeeded();
+        return true;
+    }
+
+    /**
+     * Removes {@code word} from the dictionary.
+     *
+     * @return {@code true} if the dictionary contained {@code word}.
+     */
+    public boolean delete(CharSequence word) {
+        final String w = word.toString();
+
+        synchronized (this) {
+            Snapshot s = snapshot;
+            if (!s.contains(w)) return false;
+
+            if (s.added.contains(w)) {
+                snapshot = new Snapshot(s.base, s.added.without(w), s.deleted);
+            } else {
+                snapshot = new Snapshot(s.base, s.added, s.deleted.with(w));
+            }
+        }
+
+        scheduleCompactionIfNeeded();
+        return true;
+    }
+
+    /**
+     * Tests if {@code word} is in the dictionary.
+     */
+    public boolean contains(CharSequence word) {
+        return snapshot.contains(word.toString());
+    }
+
+    /**
+     * Returns the number of words in the dictionary.
+     */
+    public int size() {
+        Snapshot s = snapshot;
+        return s.base.getWordsCount() - s.deleted.getWordsCount() + s.added.getWordsCount();
+    }
+
+    /**
+     * Returns the number of added and deleted words which aren't compacted yet.
+     */
+    public int getDeltaSize() {
+        return snapshot.deltaSize();
+    }
+
+    /**
+     * Returns the number of compactions the executor has rejected.
+     */
+    public long getRejectedCompactionsCount() {
+        return rejectedCompactionsCount.get();
+    }
+
+    /**
+     * Passes every word of the dictionary accepted by {@code automaton} to {@code handler}.
+     * Words of the base are passed before the added ones.
+     *
+     * @see DictionarySearch#search(Dictionary, LevenshteinAutomaton, MatchHandler)
+     */
+    public void search(LevenshteinAutomaton automaton, MatchHandler handler) {
+        final Snapshot s = snapshot;
+        final PersistentTrie deleted = s.deleted;
+
+        if (deleted.getWordsCount() == 0) {
+            DictionarySearch.search(s.base, automaton, handler);
+        } else {
+            DictionarySearch.search(s.base, automaton, (word, finalState) -> {
+                if (!deleted.contains(word)) handler.apply(word, finalState);
+            });
+        }
+
+        DictionarySearch.search(s.added, automaton, handler);
+    }
+
+    /**
+     * Returns every word of the dictionary accepted by {@code automaton}.
+     */
+    public List<String> search(LevenshteinAutomaton automaton) {
+        List<String> result = new ArrayList<>();
+        search(automaton, (word, finalState) -> result.add(word));
+        return result;
+    }
+
+    /**
+     * Returns every word of the dictionary accepted by {@code automaton} in the prefix mode.
+     *
+     * @see DictionarySearch#searchPrefix(Dictionary, LevenshteinAutomaton)
+     */
+    public List<String> searchPrefix(LevenshteinAutomaton automaton) {
+        final Snapshot s = snapshot;
+        List<String> result = new ArrayList<>();
+
+        for (String word : DictionarySearch.searchPrefix(s.base, automaton)) {
+            if (!s.deleted.contains(word)) result.add(word);
+        }
+        result.addAll(DictionarySearch.searchPrefix(s.added, automaton));
+
+        return result;
+    }
+
+    /**
+     * Merges the delta into a new base. Searches and updates aren't blocked
+     * while the base is built.
+     */
+    public void compact() {
+        synchronized (compactionLock) {
+            final Snapshot from = snapshot;
+            if (from.deltaSize() == 0) return;
+
+            List<String> words = new ArrayList<>(from.base.getWordsCount() + from.added.getWordsCount());
+            DictionarySearch.collectWords(from.base, "", from.base.getRootNode(), words);
+            words.removeIf(from.deleted::contains);
+            collectWords(from.added, words);
+            final Trie base = Trie.create(words);
+
+            synchronized (this) {
+                snapshot = rebase(from, snapshot, base);
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the words of {@code current} over {@code base}, which contains
+     * the words of {@code from}. Words which differ are the ones updated since {@code from}
+     * and they are in the deltas of {@code from} or {@code current}.
+     */
+    private static Snapshot rebase(Snapshot from, Snapshot current, Trie base) {
+        List<String> words = new ArrayList<>(from.deltaSize() + current.deltaSize());
+        collectWords(from.added, words);
+        collectWords(from.deleted, words);
+        collectWords(current.added, words);
+        collectWords(current.deleted, words);
+
+        PersistentTrie added = PersistentTrie.empty();
+        PersistentTrie deleted = PersistentTrie.empty();
+        for (String word : new HashSet<>(words)) {
+            boolean inBase = base.contains(word);
+            boolean isCurrent = current.contains(word);
+
+            if (isCurrent && !inBase) added = added.with(word);
+            else if (!isCurrent && inBase) deleted = deleted.with(word);
+        }
+
+        return new Snapshot(base, added, deleted);
+    }
+
+    private void scheduleCompactionIfNeeded() {
+        if (snapshot.deltaSize() <= maxDeltaSize || !compactionScheduled.compareAndSet(false, true)) return;
+
+        try {
+            executor.execute(() -> {
+                try {
+                    compact();
+                } finally {
+                    compactionScheduled.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // the update is already made, so the next update retries or compact() is called
+            compactionScheduled.set(false);
+            rejectedCompactionsCount.incrementAndGet();
+        }
+    }
+
+    private static void collectWords(PersistentTrie trie, List<String> words) {
+        DictionarySearch.collectWords(trie, "", trie.getRootNode(), words);
+    }
+
+    /**
+     * An immutable state of the dictionary. Added words aren't in the base
+     * and deleted words are in the base.
+     */
+    private static final class Snapshot {
+        final Trie base;
+        final PersistentTrie added;
+        final PersistentTrie deleted;
+
+        Snapshot(Trie base, PersistentTrie added, PersistentTrie deleted) {
+            this.base = base;
+            this.added = added;
+            this.deleted = deleted;
+        }
+
+        boolean contains(String word) {
+            return added.contains(word) || !deleted.contains(word) && base.contains(word);
+        }
+
+        int deltaSize() {
+            return added.getWordsCount() + deleted.getWordsCount();
+        }
+    }
+}
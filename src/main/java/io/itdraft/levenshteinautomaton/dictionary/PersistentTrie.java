@@ -0,0 +1,364 @@
+package io.itdraft.levenshteinautomaton.dictionary;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+
+/**
+ * An immutable trie over code points updated by path copying: {@link #with(String)} and
+ * {@link #without(String)} copy only the nodes on the path of the word and share the rest
+ * with this trie, so an update takes time proportional to the length of the word.
+ * <p>
+ * <b>Note:</b>
+ * </p>
+ * <p>
+ * Versions derived from each other append their nodes to the same arrays, a version
+ * never reads the nodes appended after it's created. So a version is safely read by any
+ * thread once it's published, but versions must be derived by one thread at a time.
+ * Nodes which aren't reachable any more are dropped by copying the reachable ones
+ * to new arrays as soon as they outnumber the reachable ones.
+ * </p>
+ */
+final class PersistentTrie implements Dictionary {
+
+    /**
+     * The flag is set in a label of the last arc of a node.
+     * Code points never use the sign bit.
+     */
+    private static final int LAST_ARC = 0x80000000;
+
+    private static final int NO_NODE = -1;
+
+    private final Arena arena;
+    private final int[] firstArcs;
+    private final boolean[] finalNodes;
+    private final int[] arcLabels;
+    private final int[] arcTargets;
+    private final int root;
+    private final int nodesCount;
+    private final int wordsCount;
+    private final int maxWordLength;
+
+    private PersistentTrie(Arena arena, int root, int nodesCount, int wordsCount, int maxWordLength) {
+        this.arena = arena;
+        this.firstArcs = arena.firstArcs;
+        this.finalNodes = arena.finalNodes;
+        this.arcLabels = arena.arcLabels;
+        this.arcTargets = arena.arcTargets;
+        this.root = root;
+        this.nodesCount = nodesCount;
+        this.wordsCount = wordsCount;
+        this.maxWordLength = maxWordLength;
+    }
+
+    /**
+     * Returns an empty trie which doesn't share nodes with other tries.
+     */
+    static PersistentTrie empty() {
+        Arena arena = new Arena();
+        return new PersistentTrie(arena, arena.addNode(false, NO_ARC), 1, 0, 0);
+    }
+
+    /**
+     * Returns a trie of the words of this trie and {@code word}.
+     */
+    PersistentTrie with(String word) {
+        final int[] codePoints = word.codePoints().toArray();
+        final int length = codePoints.length;
+        final int[] path = new int[length + 1];
+
+        int depth = walk(codePoints, path);
+        if (depth == length && finalNodes[path[length]]) return this;
+
+        int node;
+        if (depth == length) {
+            node = arena.copyNode(path[length], true);
+        } else {
+            // the missing suffix is a chain of new nodes
+            node = arena.addNode(true, NO_ARC);
+            for (int d = length - 1; d > depth; d--) node = arena.addNode(false, codePoints[d], node);
+            node = arena.withArc(path[depth], codePoints[depth], node);
+        }
+
+        for (int d = depth - 1; d >= 0; d--) node = arena.withArc(path[d], codePoints[d], node);
+
+        return derive(node, nodesCount + length - depth, wordsCount + 1,
+                Math.max(maxWordLength, length));
+    }
+
+    /**
+     * Returns a trie of the words of this trie except {@code word}.
+     */
+    PersistentTrie without(String word) {
+        final int[] codePoints = word.codePoints().toArray();
+        final int length = codePoints.length;
+        final int[] path = new int[length + 1];
+
+        if (walk(codePoints, path) < length || !finalNodes[path[length]]) return this;
+
+        int removedCount = 0;
+        int node = NO_NODE;
+        for (int d = length; d >= 0; d--) {
+            if (d == length) {
+                node = arena.copyNode(path[d], false);
+            } else if (node != NO_NODE) {
+                node = arena.withArc(path[d], codePoints[d], node);
+            } else {
+                node = arena.withoutArc(path[d], codePoints[d]);
+            }
+
+            // a node without words is dropped, the root is kept
+            if (node != NO_NODE && d > 0 && !arena.finalNodes[node] && arena.firstArcs[node] == NO_ARC) {
+                node = NO_NODE;
+            }
+            if (node == NO_NODE) removedCount++;
+        }
+
+        // the upper bound of the word length is kept
+        return derive(node, nodesCount - removedCount, wordsCount - 1, maxWordLength);
+    }
+
+    /**
+     * Fills {@code path} with the nodes on the path of {@code codePoints}
+     * and returns the number of code points the path reads.
+     */
+    private int walk(int[] codePoints, int[] path) {
+        int node = root;
+        int depth = 0;
+        path[0] = node;
+
+        while (depth < codePoints.length) {
+            node = findArcTarget(node, codePoints[depth]);
+            if (node == NO_NODE) break;
+            path[++depth] = node;
+        }
+
+        return depth;
+    }
+
+    private PersistentTrie derive(int root, int nodesCount, int wordsCount, int maxWordLength) {
+        if (arena.nodesSize <= 2 * nodesCount + 64) {
+            return new PersistentTrie(arena, root, nodesCount, wordsCount, maxWordLength);
+        }
+
+        Arena fresh = new Arena();
+        return new PersistentTrie(fresh, fresh.copyReachable(arena, root), nodesCount,
+                wordsCount, maxWordLength);
+    }
+
+    public int getRootNode() {
+        return root;
+    }
+
+    public boolean isFinalNode(int node) {
+        return finalNodes[node];
+    }
+
+    public int getFirstArc(int node) {
+        return firstArcs[node];
+    }
+
+    public int getNextArc(int arc) {
+        return (arcLabels[arc] & LAST_ARC) == 0 ? arc + 1 : NO_ARC;
+    }
+
+    public int getArcLabel(int arc) {
+        return arcLabels[arc] & ~LAST_ARC;
+    }
+
+    public int getArcTarget(int arc) {
+        return arcTargets[arc];
+    }
+
+    /**
+     * Returns an upper bound of the number of code points in the longest word,
+     * it isn't lowered when the longest word is removed.
+     */
+    public int getMaxWordLength() {
+        return maxWordLength;
+    }
+
+    /**
+     * Returns the number of words in this {@code PersistentTrie}.
+     */
+    int getWordsCount() {
+        return wordsCount;
+    }
+
+    /**
+     * Tests if {@code word} is in this {@code PersistentTrie}.
+     */
+    boolean contains(CharSequence word) {
+        int node = root;
+
+        for (int i = 0, length = word.length(); i < length && node != NO_NODE; ) {
+            int codePoint = Character.codePointAt(word, i);
+            node = findArcTarget(node, codePoint);
+            i += Character.charCount(codePoint);
+        }
+
+        return node != NO_NODE && finalNodes[node];
+    }
+
+    private int findArcTarget(int node, int codePoint) {
+        for (int arc = getFirstArc(node); arc != NO_ARC; arc = getNextArc(arc)) {
+            if (getArcLabel(arc) == codePoint) return getArcTarget(arc);
+        }
+
+        return NO_NODE;
+    }
+
+    /**
+     * Append-only arrays of nodes shared by versions. The arcs of a node are contiguous
+     * in the ascending order of labels.
+     */
+    private static final class Arena {
+        int[] firstArcs = new int[16];
+        boolean[] finalNodes = new boolean[16];
+        int nodesSize;
+
+        int[] arcLabels = new int[16];
+        int[] arcTargets = new int[16];
+        int arcsSize;
+
+        int addNode(boolean isFinal, int firstArc) {
+            if (nodesSize == firstArcs.length) {
+                firstArcs = Arrays.copyOf(firstArcs, nodesSize * 2);
+                finalNodes = Arrays.copyOf(finalNodes, nodesSize * 2);
+            }
+            firstArcs[nodesSize] = firstArc;
+            finalNodes[nodesSize] = isFinal;
+
+            return nodesSize++;
+        }
+
+        /**
+         * Adds a node with a single arc.
+         */
+        int addNode(boolean isFinal, int label, int target) {
+            int arc = addArcs(1);
+            arcLabels[arc] = label | LAST_ARC;
+            arcTargets[arc] = target;
+
+            return addNode(isFinal, arc);
+        }
+
+        int addArcs(int count) {
+            if (arcsSize + count > arcLabels.length) {
+                int capacity = Math.max(arcsSize + count, arcLabels.length * 2);
+                arcLabels = Arrays.copyOf(arcLabels, capacity);
+                arcTargets = Arrays.copyOf(arcTargets, capacity);
+            }
+            arcsSize += count;
+
+            return arcsSize - count;
+        }
+
+        int arcsCount(int firstArc) {
+            if (firstArc == NO_ARC) return 0;
+
+            int arc = firstArc;
+            while ((arcLabels[arc] & LAST_ARC) == 0) arc++;
+
+            return arc - firstArc + 1;
+        }
+
+        /**
+         * Adds a copy of {@code node} which shares its arcs.
+         */
+        int copyNode(int node, boolean isFinal) {
+            return addNode(isFinal, firstArcs[node]);
+        }
+
+        /**
+         * Adds a copy of {@code node} where the arc labeled {@code label} leads to
+         * {@code target}, the arc is added if {@code node} doesn't have it.
+         */
+        int withArc(int node, int label, int target) {
+            final int from = firstArcs[node];
+            final int count = arcsCount(from);
+
+            int k = 0;
+            while (k < count && (arcLabels[from + k] & ~LAST_ARC) < label) k++;
+            boolean replaced = k < count && (arcLabels[from + k] & ~LAST_ARC) == label;
+
+            int newCount = replaced ? count : count + 1;
+            int arc = addArcs(newCount);
+            // arrays may be reallocated, so they're read after addArcs()
+            for (int i = 0, j = 0; i < newCount; i++) {
+                if (i == k) {
+                    arcLabels[arc + i] = label;
+                    arcTargets[arc + i] = target;
+                    if (replaced) j++;
+                } else {
+                    arcLabels[arc + i] = arcLabels[from + j] & ~LAST_ARC;
+                    arcTargets[arc + i] = arcTargets[from + j];
+                    j++;
+                }
+            }
+            arcLabels[arc + newCount - 1] |= LAST_ARC;
+
+            return addNode(finalNodes[node], arc);
+        }
+
+        /**
+         * Adds a copy of {@code node} without the arc labeled {@code label}.
+         */
+        int withoutArc(int node, int label) {
+            final int from = firstArcs[node];
+            final int count = arcsCount(from);
+            if (count == 1) return addNode(finalNodes[node], NO_ARC);
+
+            int arc = addArcs(count - 1);
+            for (int i = 0, j = 0; j < count; j++) {
+                if ((arcLabels[from + j] & ~LAST_ARC) == label) continue;
+
+                arcLabels[arc + i] = arcLabels[from + j] & ~LAST_ARC;
+                arcTargets[arc + i] = arcTargets[from + j];
+                i++;
+            }
+            arcLabels[arc + count - 2] |= LAST_ARC;
+
+            return addNode(finalNodes[node], arc);
+        }
+
+        /**
+         * Copies the nodes reachable from {@code root} of {@code source} in breadth-first
+         * order and returns the new root.
+         */
+        int copyReachable(Arena source, int root) {
+            int[] queue = new int[16];
+            int size = 1;
+            queue[0] = root;
+
+            for (int k = 0; k < size; k++) {
+                int node = queue[k];
+                int from = source.firstArcs[node];
+                int count = source.arcsCount(from);
+                int arc = count == 0 ? NO_ARC : addArcs(count);
+
+                for (int i = 0; i < count; i++) {
+                    if (size == queue.length) queue = Arrays.copyOf(queue, size * 2);
+                    arcLabels[arc + i] = source.arcLabels[from + i];
+                    arcTargets[arc + i] = size;
+                    queue[size++] = source.arcTargets[from + i];
+                }
+                addNode(source.finalNodes[node], arc);
+            }
+
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package io.itdraft.levenshteinautomaton.dictionary;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Comparator;
+
+/**
+ * A dictionary word found by a top-k search together with its Levenshtein-distance
+ * to the query and its weight.
+ */
+public final class Suggestion {
+
+    /**
+     * Orders suggestions from the best to the worst: by the distance, then by the weight
+     * in descending order and then by the word, so the order is total.
+     */
+    public static final Comparator<Suggestion> BEST_FIRST = Comparator
+            .comparingInt(Suggestion::getDistance)
+            .thenComparing(Comparator.comparingDouble(Suggestion::getWeight).reversed())
+            .thenComparing(Suggestion::getWord);
+
+    private final String word;
+    private final int distance;
+    private final double weight;
+
+    public Suggestion(String word, int distance, double weight) {
+        this.word = word;
+        this.distance = distance;
+        this.weight = weight;
+    }
+
+    public String getWord() {
+        return word;
+    }
+
+    /**
+     * Returns the Levenshtein-distance between the query and the word.
+     */
+    public int getDistance() {
+        return distance;
+    }
+
+    /**
+     * Returns the weight of the word, e.g. its frequency.
+     */
+    public double getWeight() {
+        return weight;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Suggestion)) return false;
+
+        Suggestion that = (Suggestion) o;
+        return distance == that.distance &&
+                Double.compare(weight, that.weight) == 0 &&
+                word.equals(that.word);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = word.hashCode();
+        result = 31 * result + distance;
+        result = 31 * result + Double.hashCode(weight);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "Suggestion(" + word + ", " + distance + ", " + weight + ")";
+    }
+}
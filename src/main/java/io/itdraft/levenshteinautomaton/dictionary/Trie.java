@@ -0,0 +1,230 @@
+package io.itdraft.levenshteinautomaton.dictionary;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable trie over code points. Nodes are numbered in breadth-first order
+ * and the arcs of every node are stored contiguously, so the whole trie is kept
+ * in a few primitive arrays.
+ */
+public class Trie implements Dictionary {
+
+    /**
+     * The flag is set in a label of the last arc of a node.
+     * Code points never use the sign bit.
+     */
+    private static final int LAST_ARC = 0x80000000;
+
+    private final int[] firstArcs;
+    private final boolean[] finalNodes;
+    private final int[] arcLabels;
+    private final int[] arcTargets;
+    private final int wordsCount;
+    private final int maxWordLength;
+
+    private Trie(int[] firstArcs, boolean[] finalNodes, int[] arcLabels, int[] arcTargets,
+                 int wordsCount, int maxWordLength) {
+        this.firstArcs = firstArcs;
+        this.finalNodes = finalNodes;
+        this.arcLabels = arcLabels;
+        this.arcTargets = arcTargets;
+        this.wordsCount = wordsCount;
+        this.maxWordLength = maxWordLength;
+    }
+
+    /**
+     * Factory method to create an instance of {@code Trie}.
+     *
+     * @param words words of the dictionary. Words are allowed to be unsorted
+     *              and to contain duplicates.
+     * @return an instance of {@code Trie} that contains every word of {@code words}.
+     */
+    public static Trie create(Iterable<? extends CharSequence> words) {
+        List<String> sorted = new ArrayList<>();
+        for (CharSequence word : words) sorted.add(word.toString());
+
+        String[] ws = sorted.toArray(new String[sorted.size()]);
+        Arrays.sort(ws);
+
+        return create(ws, dedup(ws));
+    }
+
+    private static int dedup(String[] sorted) {
+        int length = 0;
+
+        for (int i = 0; i < sorted.length; i++) {
+            if (length == 0 || !sorted[length - 1].equals(sorted[i])) {
+                sorted[length++] = sorted[i];
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * Builds the trie in breadth-first order. Every node is a range of sorted words
+     * which share a prefix of {@code offset} chars, its children are the sub-ranges
+     * which share the next code point as well.
+     */
+    private static Trie create(String[] words, int wordsCount) {
+        IntBuffer nodeRanges = new IntBuffer(); // (from, until, offset) triples
+        IntBuffer firstArcs = new IntBuffer();
+        IntBuffer arcLabels = new IntBuffer();
+        IntBuffer arcTargets = new IntBuffer();
+        BooleanBuffer finalNodes = new BooleanBuffer();
+        int maxWordLength = 0;
+
+        nodeRanges.add(0).add(wordsCount).add(0);
+
+        for (int node = 0; node * 3 < nodeRanges.size(); node++) {
+            int from = nodeRanges.get(node * 3);
+            int until = nodeRanges.get(node * 3 + 1);
+            int offset = nodeRanges.get(node * 3 + 2);
+            boolean isFinal = from < until && words[from].length() == offset;
+
+            finalNodes.add(isFinal);
+            if (isFinal) {
+                maxWordLength = Math.max(maxWordLength, words[from].codePointCount(0, offset));
+                from++;
+            }
+
+            firstArcs.add(from < until ? arcLabels.size() : NO_ARC);
+
+            while (from < until) {
+                int codePoint = words[from].codePointAt(offset);
+                int childOffset = offset + Character.charCount(codePoint);
+                int childUntil = from + 1;
+
+                while (childUntil < until && words[childUntil].codePointAt(offset) == codePoint) {
+                    childUntil++;
+                }
+
+                arcLabels.add(childUntil == until ? codePoint | LAST_ARC : codePoint);
+                arcTargets.add(nodeRanges.size() / 3);
+                nodeRanges.add(from).add(childUntil).add(childOffset);
+                from = childUntil;
+            }
+        }
+
+        return new Trie(firstArcs.toArray(), finalNodes.toArray(),
+                arcLabels.toArray(), arcTargets.toArray(), wordsCount, maxWordLength);
+    }
+
+    public int getRootNode() {
+        return 0;
+    }
+
+    public boolean isFinalNode(int node) {
+        return finalNodes[node];
+    }
+
+    public int getFirstArc(int node) {
+        return firstArcs[node];
+    }
+
+    public int getNextArc(int arc) {
+        return (arcLabels[arc] & LAST_ARC) == 0 ? arc + 1 : NO_ARC;
+    }
+
+    public int getArcLabel(int arc) {
+        return arcLabels[arc] & ~LAST_ARC;
+    }
+
+    public int getArcTarget(int arc) {
+        return arcTargets[arc];
+    }
+
+    public int getMaxWordLength() {
+        return maxWordLength;
+    }
+
+    /**
+     * Returns the number of distinct words in this {@code Trie}.
+     */
+    public int getWordsCount() {
+        return wordsCount;
+    }
+
+    /**
+     * Returns the number of nodes in this {@code Trie}.
+     */
+    public int getNodesCount() {
+        return finalNodes.length;
+    }
+
+    /**
+     * Tests if {@code word} is in this {@code Trie}.
+     */
+    public boolean contains(CharSequence word) {
+        int node = getRootNode();
+
+        for (int i = 0, length = word.length(); i < length && node >= 0; ) {
+            int codePoint = Character.codePointAt(word, i);
+            node = findArcTarget(node, codePoint);
+            i += Character.charCount(codePoint);
+        }
+
+        return node >= 0 && isFinalNode(node);
+    }
+
+    private int findArcTarget(int node, int codePoint) {
+        for (int arc = getFirstArc(node); arc != NO_ARC; arc = getNextArc(arc)) {
+            if (getArcLabel(arc) == codePoint) return getArcTarget(arc);
+        }
+
+        return -1;
+    }
+
+    private static class IntBuffer {
+        private int[] xs = new int[16];
+        private int size;
+
+        IntBuffer add(int x) {
+            if (size == xs.length) xs = Arrays.copyOf(xs, size * 2);
+            xs[size++] = x;
+            return this;
+        }
+
+        int get(int index) {
+            return xs[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(xs, size);
+        }
+    }
+
+    private static class BooleanBuffer {
+        private boolean[] xs = new boolean[16];
+        private int size;
+
+        void add(boolean x) {
+            if (size == xs.length) xs = Arrays.copyOf(xs, size * 2);
+            xs[size++] = x;
+        }
+
+        boolean[] toArray() {
+            return Arrays.copyOf(xs, size);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package io.itdraft.levenshteinautomaton.util;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.nio.LongBuffer;
+
+/**
+ * A {@code UIntArray} which reads packed values from a {@code LongBuffer}
+ * instead of a {@code long[]}. The buffer is usually a view of a memory-mapped file,
+ * so the values are never copied onto the heap.
+ */
+public final class MappedUIntPackedArray implements UIntArray {
+
+    private final int bitsPerValue;
+    private final LongBuffer packed;
+
+    /**
+     * @param bitsPerValue the number of bits every value is packed into.
+     * @param packed       packed values from index {@code 0} up to the limit of the buffer.
+     */
+    public MappedUIntPackedArray(int bitsPerValue, LongBuffer packed) {
+        this.bitsPerValue = bitsPerValue;
+        this.packed = packed;
+    }
+
+    public int getBitsPerValue() {
+        return bitsPerValue;
+    }
+
+    public int getPackedLength() {
+        return packed.limit();
+    }
+
+    public int get(int index) {
+        final long bitLoc = (long) bitsPerValue * index;
+        final int dataLoc = (int) (bitLoc >> 6);
+        final int bitStart = (int) (bitLoc & 63);
+
+        if (bitStart + bitsPerValue <= 64) {
+            return (int) ((packed.get(dataLoc) >> bitStart) & mask(bitsPerValue));
+
+        } else {
+            final int part = 64 - bitStart;
+            return (int) (((packed.get(dataLoc) >> bitStart) & mask(part)) +
+                    ((packed.get(1 + dataLoc) & mask(bitsPerValue - part)) << part));
+        }
+    }
+
+    public void foreach(IteratorFunction f) {
+        for (int i = 0, length = packed.limit(); i < length; i++) {
+            f.apply(packed.get(i), i == length - 1);
+        }
+    }
+
+    /**
+     * Returns the mask of the lowest {@code bits} bits, {@code bits} is in {@code [1, 63]}.
+     */
+    private static long mask(int bits) {
+        return (1L << bits) - 1;
+    }
+}
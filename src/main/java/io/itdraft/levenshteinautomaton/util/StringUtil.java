@@ -19,4 +19,44 @@ public class StringUtil {
         return s.codePointCount(0, s.length());
     }
 
+    public static int codePointAt(CharSequence s, int index, int limit) {
+        final char high = s.charAt(index);
+
+        if (Character.isHighSurrogate(high) && index + 1 < limit) {
+            final char low = s.charAt(index + 1);
+            if (Character.isLowSurrogate(low)) return Character.toCodePoint(high, low);
+        }
+
+        return high;
+    }
+
+    /**
+     * Tests if the number of code points in a range of {@code s} is between {@code min}
+     * and {@code max} inclusive. Code points are counted only if the number of chars
+     * doesn't decide it, a surrogate pair isn't counted across {@code until}.
+     */
+    public static boolean isCodePointCountWithin(CharSequence s, int from, int until, int min, int max) {
+        final int charsCount = until - from;
+        // a code point takes one or two chars
+        if (charsCount < min || (charsCount + 1) / 2 > max) return false;
+        if (charsCount <= max && (charsCount + 1) / 2 >= min) return true;
+
+        final int count = Character.codePointCount(s, from, until);
+        return count >= min && count <= max;
+    }
+
+    /**
+     * Tests if the number of code points in a range of {@code chars} is between {@code min}
+     * and {@code max} inclusive.
+     *
+     * @see #isCodePointCountWithin(CharSequence, int, int, int, int)
+     */
+    public static boolean isCodePointCountWithin(char[] chars, int from, int until, int min, int max) {
+        final int charsCount = until - from;
+        if (charsCount < min || (charsCount + 1) / 2 > max) return false;
+        if (charsCount <= max && (charsCount + 1) / 2 >= min) return true;
+
+        final int count = Character.codePointCount(chars, from, charsCount);
+        return count >= min && count <= max;
+    }
 }
@@ -0,0 +1,50 @@
+package io.itdraft.levenshteinautomaton.util;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * A read-only array of unsigned ints packed into longs, every value takes
+ * {@link #getBitsPerValue()} bits.
+ * <p>
+ * <b>Note:</b>
+ * </p>
+ * <p>
+ * Implementations are final, so a call site which sees a single implementation,
+ * e.g. a description read onto the heap, is monomorphic.
+ * </p>
+ *
+ * @see UIntPackedArray
+ * @see MappedUIntPackedArray
+ */
+public interface UIntArray {
+
+    int getBitsPerValue();
+
+    /**
+     * Returns the number of longs the values are packed into.
+     */
+    int getPackedLength();
+
+    int get(int index);
+
+    /**
+     * Passes the packed longs to {@code f} in order.
+     */
+    void foreach(IteratorFunction f);
+
+    @FunctionalInterface
+    interface IteratorFunction {
+        void apply(long value, boolean isFinal);
+    }
+}
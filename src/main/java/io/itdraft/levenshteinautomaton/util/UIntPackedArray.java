@@ -1,12 +1,9 @@
 package io.itdraft.levenshteinautomaton.util;
 
-import java.util.LinkedList;
-import java.util.List;
-
 /**
  *
  */
-public class UIntPackedArray {
+public final class UIntPackedArray implements UIntArray {
 
     private final static long[] MASKS = new long[]{
             0x1, 0x3, 0x7, 0xf,
@@ -38,6 +35,10 @@ public class UIntPackedArray {
         return bitsPerValue;
     }
 
+    public int getPackedLength() {
+        return packed.length;
+    }
+
     public int get(int index) {
         return unpack(packed, index, bitsPerValue);
     }
@@ -57,7 +58,8 @@ public class UIntPackedArray {
         final int bitsPerValue = Math.max(1, bitsUsed(maxX));
         int bitsLeft = Long.SIZE;
         long pendingValue = 0;
-        final List<Long> packed = new LinkedList<>();
+        final long[] packed = new long[(int) (((long) xs.length * bitsPerValue + Long.SIZE - 1) / Long.SIZE)];
+        int packedLength = 0;
 
         for (long x : xs) {
             if (x < 0) {
@@ -69,14 +71,14 @@ public class UIntPackedArray {
                 bitsLeft -= bitsPerValue;
 
                 if (bitsLeft == 0) {
-                    packed.add(pendingValue);
+                    packed[packedLength++] = pendingValue;
                     bitsLeft = Long.SIZE;
                     pendingValue = 0;
                 }
 
             } else {
                 pendingValue += (x & MASKS[bitsLeft - 1]) << (Long.SIZE - bitsLeft);
-                packed.add(pendingValue);
+                packed[packedLength++] = pendingValue;
 
                 pendingValue = x >> bitsLeft;
                 bitsLeft = Long.SIZE - (bitsPerValue - bitsLeft);
@@ -84,16 +86,10 @@ public class UIntPackedArray {
         }
 
         if (bitsLeft < Long.SIZE) {
-            packed.add(pendingValue);
+            packed[packedLength] = pendingValue;
         }
 
-        return new UIntPackedArray(bitsPerValue, toPrimitive(packed));
-    }
-
-    private static long[] toPrimitive(List<Long> xs) {
-        long[] result = new long[xs.size()];
-        for (int i = 0; i < xs.size(); i++) result[i] = xs.get(i);
-        return result;
+        return new UIntPackedArray(bitsPerValue, packed);
     }
 
     private static int unpack(long[] packed, int index, int bitsPerValue) {
@@ -128,9 +124,4 @@ public class UIntPackedArray {
         return max;
     }
 
-    @FunctionalInterface
-    public interface IteratorFunction {
-        void apply(long value, boolean isFinal);
-    }
-
 }
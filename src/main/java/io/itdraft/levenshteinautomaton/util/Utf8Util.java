@@ -0,0 +1,149 @@
+package io.itdraft.levenshteinautomaton.util;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes UTF-8 code points in place, so a word in a byte array or a memory-mapped buffer
+ * is recognized without being copied into a {@code String} or an {@code int[]}.
+ * <p>
+ * A decoded code point is returned together with the number of bytes it takes as
+ * a single {@code int}, see {@link #codePoint(int)} and {@link #length(int)}.
+ * Malformed input is decoded as {@code U+FFFD}: an invalid byte, a truncated sequence
+ * (up to the byte which isn't a continuation), an overlong sequence, a surrogate
+ * or a code point beyond {@code U+10FFFF}.
+ * </p>
+ */
+public final class Utf8Util {
+
+    public static final int REPLACEMENT_CHARACTER = 0xFFFD;
+
+    private static final int LENGTH_SHIFT = 21;
+
+    private static final int CODE_POINT_MASK = (1 << LENGTH_SHIFT) - 1;
+
+    private Utf8Util() {
+    }
+
+    /**
+     * Decodes the code point starting at {@code index}.
+     *
+     * @param until the index after the last byte the code point may take.
+     * @return the decoded code point and its length in bytes.
+     */
+    public static int decode(byte[] bytes, int index, int until) {
+        final int lead = bytes[index] & 0xFF;
+        if (lead < 0x80) return lead | 1 << LENGTH_SHIFT;
+
+        final int available = Math.min(continuationsCount(lead), until - index - 1);
+        int continuations = 0;
+        for (int k = 1; k <= available; k++) {
+            continuations = continuations << 8 | bytes[index + k] & 0xFF;
+        }
+
+        return decodeSequence(lead, continuations, available);
+    }
+
+    /**
+     * Decodes the code point starting at {@code index} by absolute gets,
+     * so the position of {@code buffer} isn't changed.
+     *
+     * @param until the index after the last byte the code point may take.
+     * @return the decoded code point and its length in bytes.
+     */
+    public static int decode(ByteBuffer buffer, int index, int until) {
+        final int lead = buffer.get(index) & 0xFF;
+        if (lead < 0x80) return lead | 1 << LENGTH_SHIFT;
+
+        final int available = Math.min(continuationsCount(lead), until - index - 1);
+        int continuations = 0;
+        for (int k = 1; k <= available; k++) {
+            continuations = continuations << 8 | buffer.get(index + k) & 0xFF;
+        }
+
+        return decodeSequence(lead, continuations, available);
+    }
+
+    /**
+     * Returns the code point of a value returned by {@code decode}.
+     */
+    public static int codePoint(int decoded) {
+        return decoded & CODE_POINT_MASK;
+    }
+
+    /**
+     * Returns the length in bytes of a value returned by {@code decode}.
+     */
+    public static int length(int decoded) {
+        return decoded >>> LENGTH_SHIFT;
+    }
+
+    /**
+     * Decodes a sequence started by a non-ASCII {@code lead} from the bytes after it,
+     * which are packed into {@code continuations} big-endian. Fewer bytes than
+     * the lead requires are {@code available} if the sequence is cut by the end
+     * of the input.
+     */
+    private static int decodeSequence(int lead, int continuations, int available) {
+        final int continuationsCount = continuationsCount(lead);
+        if (continuationsCount == 0) return replacement(1);
+
+        int codePoint = lead & (0x3F >> continuationsCount);
+        for (int k = 1; k <= continuationsCount; k++) {
+            if (k > available) return replacement(k);
+
+            int b = continuations >>> 8 * (available - k) & 0xFF;
+            if (!isContinuation(b)) return replacement(k);
+            codePoint = codePoint << 6 | b & 0x3F;
+        }
+
+        final int length = continuationsCount + 1;
+        return isValid(codePoint, length) ? codePoint | length << LENGTH_SHIFT : replacement(length);
+    }
+
+    /**
+     * Returns the number of continuation bytes after {@code lead} or {@code 0}
+     * if {@code lead} can't start a sequence.
+     */
+    public static int continuationsCount(int lead) {
+        if (lead >= 0xC2 && lead <= 0xDF) return 1;
+        if (lead >= 0xE0 && lead <= 0xEF) return 2;
+        if (lead >= 0xF0 && lead <= 0xF4) return 3;
+        return 0;
+    }
+
+    /**
+     * Tests if {@code b} is a continuation byte.
+     */
+    public static boolean isContinuation(int b) {
+        return (b & 0xC0) == 0x80;
+    }
+
+    /**
+     * Tests if {@code codePoint} decoded from a sequence of {@code length} bytes is valid,
+     * i.e. rejects overlong sequences, surrogates and code points beyond {@code U+10FFFF}.
+     */
+    public static boolean isValid(int codePoint, int length) {
+        int minCodePoint = length == 2 ? 0x80 : length == 3 ? 0x800 : 0x10000;
+
+        return codePoint >= minCodePoint && codePoint <= Character.MAX_CODE_POINT &&
+                (codePoint < Character.MIN_SURROGATE || codePoint > Character.MAX_SURROGATE);
+    }
+
+    private static int replacement(int length) {
+        return REPLACEMENT_CHARACTER | length << LENGTH_SHIFT;
+    }
+}
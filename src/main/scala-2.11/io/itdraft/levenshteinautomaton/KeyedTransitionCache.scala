@@ -0,0 +1,220 @@
+package io.itdraft.levenshteinautomaton
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.atomic.LongAdder
+
+import io.itdraft.levenshteinautomaton.description.nonparametric.PackedPositionBuffer
+
+/**
+  * A bounded cache of transitions keyed by `int[]`, the common part of the caches
+  * of `LazyLevenshteinAutomaton` and `WeightedLevenshteinAutomaton`. A subclass defines
+  * the key of a transition and the cached next state is a sorted array of packed positions.
+  *
+  * The cache is thread-safe. It's split into segments locked independently and
+  * a full segment evicts transitions by the clock algorithm.
+  *
+  * @param capacity the max number of cached transitions.
+  */
+abstract class KeyedTransitionCache(val capacity: Int) {
+  require(capacity > 0, s"Capacity $capacity isn't positive.")
+
+  private val segments = {
+    val count = Math.min(KeyedTransitionCache.MaxSegmentsCount, capacity)
+    Array.tabulate(count) { k =>
+      new KeyedTransitionCache.Segment(capacity / count + (if (k < capacity % count) 1 else 0))
+    }
+  }
+
+  private val hitsCounter = new LongAdder
+  private val missesCounter = new LongAdder
+  private val evictionsCounter = new LongAdder
+
+  /**
+    * Returns the number of transitions found in the cache.
+    */
+  def hits: Long = hitsCounter.sum()
+
+  /**
+    * Returns the number of transitions not found in the cache.
+    */
+  def misses: Long = missesCounter.sum()
+
+  /**
+    * Returns the number of transitions evicted from the cache.
+    */
+  def evictions: Long = evictionsCounter.sum()
+
+  /**
+    * Returns the number of cached transitions.
+    */
+  def size: Int = segments.map(_.size).sum
+
+  /**
+    * Loads the next state cached by `key` into `nextState` shifted to the right
+    * by `offset` letters.
+    *
+    * @param key a buffer with the key of the transition.
+    * @param keyLength the length of the key in `key`.
+    * @return `false` if the transition isn't cached.
+    */
+  protected final def lookup(key: Array[Int], keyLength: Int, offset: Int,
+                             nextState: PackedPositionBuffer): Boolean = {
+    val hash = KeyedTransitionCache.hash(key, keyLength)
+    val found = segmentFor(hash).get(hash, key, keyLength, offset, nextState)
+
+    if (found) hitsCounter.increment() else missesCounter.increment()
+    found
+  }
+
+  /**
+    * Caches `nextState` by `key`, `nextOffset` is added to the offset
+    * the next state is loaded with.
+    *
+    * @param key a buffer with the key of the transition.
+    * @param keyLength the length of the key in `key`.
+    * @param nextState the sorted positions of the next state, they aren't copied.
+    */
+  protected final def store(key: Array[Int], keyLength: Int,
+                            nextState: Array[Int], nextOffset: Int): Unit = {
+    val hash = KeyedTransitionCache.hash(key, keyLength)
+
+    if (segmentFor(hash).put(hash, key, keyLength, nextState, nextOffset)) {
+      evictionsCounter.increment()
+    }
+  }
+
+  // buckets of a segment are chosen by the low bits
+  private def segmentFor(hash: Int) = segments((hash >>> 24) % segments.length)
+
+  override def toString =
+    s"${getClass.getSimpleName}(size = $size, hits = $hits, misses = $misses, evictions = $evictions)"
+}
+
+object KeyedTransitionCache {
+
+  private val MaxSegmentsCount = 16
+
+  private val NoSlot = -1
+
+  private def hash(key: Array[Int], keyLength: Int): Int = {
+    var h = 1
+    var k = 0
+    while (k < keyLength) {
+      h = 31 * h + key(k)
+      k += 1
+    }
+    // spreads the bits as the murmur3 finalizer does, keys are small numbers
+    h = (h ^ (h >>> 16)) * 0x85ebca6b
+    h = (h ^ (h >>> 13)) * 0xc2b2ae35
+    h ^ (h >>> 16)
+  }
+
+  /**
+    * A fixed number of slots chained into buckets by hash.
+    */
+  private class Segment(capacity: Int) {
+    private val buckets = Array.fill(Integer.highestOneBit(capacity) * 2)(NoSlot)
+    private val chain = new Array[Int](capacity)
+    private val hashes = new Array[Int](capacity)
+    private val keys = new Array[Array[Int]](capacity)
+    private val nextStates = new Array[Array[Int]](capacity)
+    private val offsets = new Array[Int](capacity)
+    private val referenced = new Array[Boolean](capacity)
+    private var count = 0
+    private var hand = 0
+
+    def size: Int = synchronized(count)
+
+    def get(hash: Int, key: Array[Int], keyLength: Int, offset: Int,
+            nextState: PackedPositionBuffer): Boolean = synchronized {
+      val slot = find(hash, key, keyLength)
+
+      if (slot != NoSlot) {
+        referenced(slot) = true
+        nextState.load(nextStates(slot), offset + offsets(slot))
+      }
+      slot != NoSlot
+    }
+
+    /**
+      * Returns whether a transition is evicted. Another thread may have cached
+      * the same transition meanwhile, then the cache is left as is.
+      */
+    def put(hash: Int, key: Array[Int], keyLength: Int,
+            nextState: Array[Int], offset: Int): Boolean = synchronized {
+      if (find(hash, key, keyLength) != NoSlot) false
+      else {
+        val evicted = count == capacity
+        val slot = if (evicted) evict() else {
+          count += 1
+          count - 1
+        }
+
+        val bucket = hash & (buckets.length - 1)
+        chain(slot) = buckets(bucket)
+        buckets(bucket) = slot
+        hashes(slot) = hash
+        keys(slot) = java.util.Arrays.copyOf(key, keyLength)
+        nextStates(slot) = nextState
+        offsets(slot) = offset
+        referenced(slot) = false
+        evicted
+      }
+    }
+
+    private def find(hash: Int, key: Array[Int], keyLength: Int): Int = {
+      var slot = buckets(hash & (buckets.length - 1))
+      while (slot != NoSlot && !(hashes(slot) == hash && equal(keys(slot), key, keyLength))) {
+        slot = chain(slot)
+      }
+      slot
+    }
+
+    private def equal(cached: Array[Int], key: Array[Int], keyLength: Int): Boolean = {
+      if (cached.length != keyLength) return false
+
+      var k = 0
+      while (k < keyLength) {
+        if (cached(k) != key(k)) return false
+        k += 1
+      }
+      true
+    }
+
+    /**
+      * Sweeps the clock hand until a slot isn't referenced since the last sweep
+      * and unlinks the slot from its bucket.
+      */
+    private def evict(): Int = {
+      while (referenced(hand)) {
+        referenced(hand) = false
+        hand = (hand + 1) % capacity
+      }
+
+      val slot = hand
+      hand = (hand + 1) % capacity
+
+      val bucket = hashes(slot) & (buckets.length - 1)
+      if (buckets(bucket) == slot) buckets(bucket) = chain(slot)
+      else {
+        var prev = buckets(bucket)
+        while (chain(prev) != slot) prev = chain(prev)
+        chain(prev) = chain(slot)
+      }
+      slot
+    }
+  }
+}
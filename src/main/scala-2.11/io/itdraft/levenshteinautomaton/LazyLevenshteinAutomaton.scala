@@ -15,12 +15,18 @@ package io.itdraft.levenshteinautomaton
  */
 
 import io.itdraft.levenshteinautomaton.description._
-import io.itdraft.levenshteinautomaton.description.nonparametric.{ElementaryTransition, FailureState, NonparametricState}
+import io.itdraft.levenshteinautomaton.description.nonparametric._
 
 /**
   * A class to represent the Levenshtein-automaton.
   *
   * @note Lazy because it computes next state on every transition.
+  *       A state is a [[PositionSet]] of packed positions and a transition
+  *       fills a state buffer given by the caller, so a traverse doesn't allocate.
+  *       Buffers are not shared between threads, the automaton itself is immutable
+  *       and copies the config on construction.
+  *       With a [[TransitionCache]] the automaton computes only transitions
+  *       missing in the cache.
   * @example {{{
   * val dictionaryWord: String = ...
   * val misspelledWord: String = ...
@@ -29,29 +35,180 @@ import io.itdraft.levenshteinautomaton.description.nonparametric.{ElementaryTran
   *   misspelledWord,
   *   degree = 2,
   *   includeTransposition = true)
-  * var state = automaton.initialState
+  * var state = automaton.initialState(automaton.newState)
+  * var next = automaton.newState
   *
   * // traverse
   * var i, cp = 0
-  * while(i < dictionaryWord.length) {
+  * while(i < dictionaryWord.length && !automaton.isFailure(state)) {
   *   cp = dictionaryWord.codePointAt(i)
-  *   state = automaton.getNextStateId(state, cp)
+  *   val cur = state
+  *   state = automaton.getNextState(cur, cp, next)
+  *   next = cur
   *   i += Character.charCount(cp)
   * }
   *
-  * if(state.isFinalState) println("Misspelled word is accepted.")
+  * if(automaton.isFinal(state)) println("Misspelled word is accepted.")
   * else println("Misspelled word is rejected.")
   * }}}
   */
-class LazyLevenshteinAutomaton private(automatonConfig: LevenshteinAutomatonConfig) {
-  private implicit val _ = automatonConfig
+class LazyLevenshteinAutomaton private(automatonConfig: LevenshteinAutomatonConfig,
+                                       cache: Option[TransitionCache]) {
+  import PackedPositions._
+
+  private val codePointFolding = automatonConfig.getCodePointFolding
+  private val wordCodePoints = codePointFolding.fold(automatonConfig.getWordCodePoints)
+  private val w = automatonConfig.w
+  private val n = automatonConfig.n
+  private val inclTransposition = automatonConfig.inclTransposition
+
+  require(n <= MaxDegree, s"Degree $n exceeds $MaxDegree.")
 
   /**
-    * The initial state to start an automaton traverse.
+    * Creates an empty state buffer.
+    */
+  def newState: PositionSet = new PositionSet(n)
+
+  /**
+    * Resets `state` to the initial state to start an automaton traverse.
+    *
+    * @return `state`.
+    */
+  def initialState(state: PositionSet): PositionSet = {
+    state.clear()
+    state.reducedAdd(pack(0, 0, isT = false))
+    state
+  }
+
+  /**
+    * Transits to a next state.
+    *
+    * @param curState a current state, its positions are left as is and only its key
+    *                 buffer is written if the automaton has a cache.
+    * @param alphaCodePoint a code point of a next alpha from a word
+    *                        is being recognized.
+    * @param nextState a buffer for the next state, it must not be `curState`.
+    * @return `nextState`.
+    */
+  def getNextState(curState: PositionSet, alphaCodePoint: Int,
+                   nextState: PositionSet): PositionSet = {
+    val alpha = codePointFolding.fold(alphaCodePoint)
+
+    cache match {
+      case Some(c) if curState.size > 0 =>
+        val minBoundary = curState.minBoundary
+        fillKey(curState, minBoundary, characteristicVector(alpha, minBoundary))
+
+        if (!c.get(curState, minBoundary, nextState)) {
+          computeNextState(curState, alpha, nextState)
+          c.put(curState, minBoundary, nextState)
+        }
+        nextState
+
+      case _ => computeNextState(curState, alpha, nextState)
+    }
+  }
+
+  /**
+    * Fills the key of the transition in the key buffer of `curState`: the positions
+    * shifted to `minBoundary` in ascending order and the characteristic vector.
+    * The positions are sorted in the key, so the state the caller owns isn't reordered.
+    */
+  private def fillKey(curState: PositionSet, minBoundary: Int, vector: Long): Unit = {
+    val count = curState.size
+    curState.ensureKeyCapacity(count + 2)
+    val key = curState.key
+
+    var k = 0
+    while (k < count) {
+      key(k) = shift(curState(k), minBoundary)
+      k += 1
+    }
+    java.util.Arrays.sort(key, 0, count)
+
+    key(count) = (vector >>> 32).toInt
+    key(count + 1) = vector.toInt
+    curState.keyLength = count + 2
+  }
+
+  private def computeNextState(curState: PositionSet, alphaCodePoint: Int,
+                               nextState: PositionSet): PositionSet = {
+    nextState.clear()
+
+    var k = 0
+    while (k < curState.size) {
+      val p = curState(k)
+      transit(p, relevantJ(p, alphaCodePoint), w, n, inclTransposition, nextState)
+      k += 1
+    }
+
+    nextState
+  }
+
+  /**
+    * Returns the characteristic vector of the alpha in `2n + 2` letters of the word
+    * from `minBoundary` (or less at the end of the word) with the leading `1` bit
+    * marking its size.
     */
-  lazy val initialState = NonparametricState.initial
+  private def characteristicVector(alphaCodePoint: Int, minBoundary: Int): Long = {
+    val size = Math.min(2 * n + 2, w - minBoundary)
+    var vector = 1L
+
+    var k = 0
+    while (k < size) {
+      vector = vector << 1 | (if (wordCodePoints(minBoundary + k) == alphaCodePoint) 1 else 0)
+      k += 1
+    }
+    vector
+  }
+
+  private def relevantJ(p: Int, alphaCodePoint: Int): Int = {
+    val i = PackedPositions.i(p)
+    val length = relevantSubwordMaxLength(p, w, n)
 
-  private val elementaryTransition = ElementaryTransition()
+    var k = 0
+    while (k < length) {
+      if (wordCodePoints(i + k) == alphaCodePoint) return k + 1
+      k += 1
+    }
+    -1
+  }
+
+  /**
+    * Tests if `state` is the failure state.
+    */
+  def isFailure(state: PositionSet): Boolean = state.size == 0
+
+  /**
+    * Tests if `state` is a final state.
+    */
+  def isFinal(state: PositionSet): Boolean = getDistance(state) >= 0
+
+  /**
+    * Returns the Levenshtein-distance between the word the automaton is built for
+    * and a word recognized in `state` or `-1` if `state` is not final.
+    */
+  def getDistance(state: PositionSet): Int = {
+    var distance = -1
+    var k = 0
+    while (k < state.size) {
+      val p = state(k)
+      if (isAccepting(p, w, n)) {
+        val d = e(p) + w - i(p)
+        if (distance < 0 || d < distance) distance = d
+      }
+      k += 1
+    }
+    distance
+  }
+
+  /**
+    * The initial state to start an automaton traverse.
+    *
+    * @note Unlike `PositionSet` based methods, the `NonparametricState` based ones
+    *       allocate on every transition.
+    */
+  lazy val initialState: NonparametricState = NonparametricState.initial(automatonConfig)
 
   /**
     * Transits to a next state.
@@ -61,12 +218,21 @@ class LazyLevenshteinAutomaton private(automatonConfig: LevenshteinAutomatonConf
     *                        is being recognized.
     * @return an instance of a next `State`.
     */
-  def getNextState(curState: NonparametricState, alphaCodePoint: Int) =
-    curState.imageSet.fold(FailureState: NonparametricState) { (state, position) =>
-    val vector = DefaultCharacteristicVector(alphaCodePoint, automatonConfig.getWordCodePoints,
-      position.i, position.i + position.relevantSubwordMaxLength)
+  def getNextState(curState: NonparametricState, alphaCodePoint: Int): NonparametricState = {
+    val cur = newState
+    curState.imageSet.foreach { p =>
+      cur.reducedAdd(pack(p.i, p.e, p.isInstanceOf[TPosition]))
+    }
 
-    state |~ elementaryTransition(position, vector)
+    val next = getNextState(cur, alphaCodePoint, newState)
+    val positions = (0 until next.size).map { k =>
+      val p = next(k)
+      if (isT(p)) TPosition(i(p), e(p), automatonConfig)
+      else StandardPosition(i(p), e(p), automatonConfig)
+    }
+
+    if (positions.isEmpty) FailureState
+    else State(positions: _*)(automatonConfig)
   }
 }
 
@@ -92,5 +258,18 @@ object LazyLevenshteinAutomaton {
     * Creates an instance of `LevenshteinAutomaton`.
     */
   def apply(config: LevenshteinAutomatonConfig) =
-    new LazyLevenshteinAutomaton(config)
+    new LazyLevenshteinAutomaton(config.copy(), None)
+
+  /**
+    * Creates an instance of `LevenshteinAutomaton` which caches transitions in `cache`.
+    *
+    * @param cache a cache of transitions for the degree and the transposition of `config`.
+    */
+  def apply(config: LevenshteinAutomatonConfig, cache: TransitionCache) = {
+    require(cache.degree == config.getDegree &&
+      cache.inclTransposition == config.doesInclTransposition,
+      "The cache is created for other degree or transposition.")
+
+    new LazyLevenshteinAutomaton(config.copy(), Some(cache))
+  }
 }
@@ -0,0 +1,60 @@
+package io.itdraft.levenshteinautomaton
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import io.itdraft.levenshteinautomaton.description.nonparametric.{PackedPositions, PositionSet}
+
+/**
+  * A bounded cache of transitions of `LazyLevenshteinAutomaton`, so a traverse computes
+  * only the part of the DFA it visits and computes it once.
+  *
+  * A transition is keyed by the state shifted to its minimal boundary in ascending order
+  * and the characteristic vector of the alpha in the `2n + 2` letters of the word from the minimal boundary,
+  * like in the parametric description. So transitions don't depend on the word
+  * and the cache is shared by automata of the same degree built for different words.
+  *
+  * The cache is thread-safe, see [[KeyedTransitionCache]].
+  *
+  * @param degree the degree of automata using the cache.
+  * @param inclTransposition whether automata using the cache include transposition.
+  * @param capacity the max number of cached transitions.
+  */
+class TransitionCache(val degree: Int, val inclTransposition: Boolean, capacity: Int)
+  extends KeyedTransitionCache(capacity) {
+  require(degree <= PackedPositions.MaxDegree, s"Degree $degree exceeds ${PackedPositions.MaxDegree}.")
+
+  /**
+    * Loads the cached next state of `curState` into `nextState`.
+    *
+    * @param curState a current state with the key of the transition filled.
+    * @param minBoundary the minimal boundary of `curState`.
+    * @return `false` if the transition isn't cached.
+    */
+  private[levenshteinautomaton]
+  def get(curState: PositionSet, minBoundary: Int, nextState: PositionSet): Boolean =
+    lookup(curState.key, curState.keyLength, minBoundary, nextState)
+
+  /**
+    * Caches the transition from `curState` to `nextState`.
+    *
+    * @param curState a current state with the key of the transition filled.
+    * @param minBoundary the minimal boundary of `curState`.
+    */
+  private[levenshteinautomaton]
+  def put(curState: PositionSet, minBoundary: Int, nextState: PositionSet): Unit = {
+    val offset = if (nextState.size == 0) 0 else nextState.minBoundary - minBoundary
+    store(curState.key, curState.keyLength, nextState.toSortedArray(minBoundary + offset), offset)
+  }
+}
@@ -0,0 +1,261 @@
+package io.itdraft.levenshteinautomaton
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import io.itdraft.levenshteinautomaton.description.nonparametric.{PackedPositions, WeightedPositionSet}
+
+/**
+  * A class to represent the weighted Levenshtein-automaton, where edit operations
+  * cost [[EditCosts]] and the degree is the max total cost. So candidates are
+  * ranked by the distance of the final state instead of a DP over every candidate.
+  *
+  * @note A position `i^#e` means `i` letters of the word are read at the cost `e`
+  *       and a t-position `i^#e` means the letter `i + 1` is read before the letter `i`
+  *       by a transposition. Deletions are taken lazily: a position reads a letter
+  *       after any number of deletions the budget allows.
+  *
+  *       Like `LazyLevenshteinAutomaton` the automaton computes next states
+  *       on transitions into buffers given by the caller and caches them in
+  *       a [[WeightedTransitionCache]] if it's given. A transition is keyed by the state
+  *       shifted to its minimal boundary and the substitution costs of the alpha
+  *       for the letters of the word the state can read, so transitions don't depend
+  *       on the word. The degree must not exceed `15`.
+  *
+  *       Substitution costs are looked up for code points folded by the
+  *       [[CodePointFolding]] of the config, so pairs of the costs are folded
+  *       on construction as well, e.g. a pair `('0', 'o')` matches `'O'`
+  *       under `CASE_INSENSITIVE`.
+  * @example {{{
+  * val costs = EditCosts.of(2, 2, 2, 2).withSubstitutionCost('0', 'O', 1)
+  * val automaton = WeightedLevenshteinAutomaton(
+  *   new WeightedLevenshteinAutomatonConfig("BOX", 2, false, costs))
+  * var state = automaton.initialState(automaton.newState)
+  * var next = automaton.newState
+  *
+  * for (x <- "B0X") {
+  *   val cur = state
+  *   state = automaton.getNextState(cur, x, next)
+  *   next = cur
+  * }
+  *
+  * automaton.getDistance(state) // 1
+  * }}}
+  */
+class WeightedLevenshteinAutomaton private(automatonConfig: LevenshteinAutomatonConfig,
+                                           costs: EditCosts,
+                                           cache: Option[WeightedTransitionCache]) {
+  import PackedPositions._
+
+  private val codePointFolding = automatonConfig.getCodePointFolding
+  private val wordCodePoints = codePointFolding.fold(automatonConfig.getWordCodePoints)
+  private val w = automatonConfig.w
+  private val n = automatonConfig.n
+  private val inclTransposition = automatonConfig.inclTransposition
+  private val insertionCost = costs.getInsertionCost
+  private val deletionCost = costs.getDeletionCost
+  private val transpositionCost = costs.getTranspositionCost
+  private val substitutionCosts = costs.fold(codePointFolding)
+
+  require(n <= MaxDegree, s"Degree $n exceeds $MaxDegree.")
+
+  /**
+    * Creates an empty state buffer.
+    */
+  def newState: WeightedPositionSet = new WeightedPositionSet(deletionCost)
+
+  /**
+    * Resets `state` to the initial state to start an automaton traverse.
+    *
+    * @return `state`.
+    */
+  def initialState(state: WeightedPositionSet): WeightedPositionSet = {
+    state.clear()
+    state.reducedAdd(pack(0, 0, isT = false))
+    state
+  }
+
+  /**
+    * Transits to a next state.
+    *
+    * @param curState a current state, its positions are left as is and only its key
+    *                 buffer is written.
+    * @param alphaCodePoint a code point of a next alpha from a word
+    *                        is being recognized.
+    * @param nextState a buffer for the next state, it must not be `curState`.
+    * @return `nextState`.
+    */
+  def getNextState(curState: WeightedPositionSet, alphaCodePoint: Int,
+                   nextState: WeightedPositionSet): WeightedPositionSet = {
+    if (curState.size == 0) {
+      nextState.clear()
+      return nextState
+    }
+
+    val minBoundary = curState.minBoundary
+    val slotsFrom = fillKey(curState, minBoundary, codePointFolding.fold(alphaCodePoint))
+
+    cache match {
+      case Some(c) =>
+        if (!c.get(curState, minBoundary, nextState)) {
+          computeNextState(curState, minBoundary, slotsFrom, nextState)
+          c.put(curState, minBoundary, nextState)
+        }
+        nextState
+
+      case None => computeNextState(curState, minBoundary, slotsFrom, nextState)
+    }
+  }
+
+  /**
+    * Fills the key of the transition by `alphaCodePoint` in the key buffer of `curState`:
+    * the number of positions, the positions shifted to `minBoundary` in ascending order,
+    * the number of letters from `minBoundary` the state can read and a slot per letter,
+    * the substitution cost of the alpha for the letter shifted by `1` bit
+    * with the lowest bit set if the alpha is the letter.
+    *
+    * @return the index of the first slot.
+    */
+  private def fillKey(curState: WeightedPositionSet, minBoundary: Int, alphaCodePoint: Int): Int = {
+    val count = curState.size
+    // the farthest letter is read after n / deletionCost deletions and a transposition
+    val length = Math.min(w - minBoundary,
+      curState.maxBoundary - minBoundary + n / deletionCost + 2)
+    curState.ensureKeyCapacity(count + 2 + length)
+    val key = curState.key
+
+    key(0) = count
+    var k = 0
+    while (k < count) {
+      key(k + 1) = shift(curState(k), minBoundary)
+      k += 1
+    }
+    // the positions are sorted in the key, so the state the caller owns isn't reordered
+    java.util.Arrays.sort(key, 1, count + 1)
+
+    val slotsFrom = count + 2
+    key(slotsFrom - 1) = length
+    k = 0
+    while (k < length) {
+      val letter = wordCodePoints(minBoundary + k)
+      val cost = Math.min(substitutionCosts.getSubstitutionCost(letter, alphaCodePoint), n + 1)
+      key(slotsFrom + k) = cost << 1 | (if (letter == alphaCodePoint) 1 else 0)
+      k += 1
+    }
+    curState.keyLength = slotsFrom + length
+
+    slotsFrom
+  }
+
+  /**
+    * Computes the next state from the slots of the key only, so equal keys
+    * give equal next states.
+    */
+  private def computeNextState(curState: WeightedPositionSet, minBoundary: Int, slotsFrom: Int,
+                               nextState: WeightedPositionSet): WeightedPositionSet = {
+    nextState.clear()
+
+    val key = curState.key
+    val length = key(slotsFrom - 1)
+
+    var k = 0
+    while (k < curState.size) {
+      val p = curState(k)
+      val i = PackedPositions.i(p)
+      val e = PackedPositions.e(p)
+      val r = i - minBoundary
+
+      if (isT(p)) {
+        if (r < length && (key(slotsFrom + r) & 1) == 1) nextState.reducedAdd(pack(i + 2, e, isT = false))
+      } else {
+        if (e + insertionCost <= n) nextState.reducedAdd(pack(i, e + insertionCost, isT = false))
+
+        // deletes j letters and then reads the alpha
+        var j = 0
+        var cost = e
+        while (cost <= n && r + j < length) {
+          val slot = key(slotsFrom + r + j)
+          if (cost + (slot >>> 1) <= n) {
+            nextState.reducedAdd(pack(i + j + 1, cost + (slot >>> 1), isT = false))
+          }
+          if (inclTransposition && r + j + 1 < length &&
+            (key(slotsFrom + r + j + 1) & 1) == 1 && cost + transpositionCost <= n) {
+            nextState.reducedAdd(pack(i + j, cost + transpositionCost, isT = true))
+          }
+
+          cost += deletionCost
+          j += 1
+        }
+      }
+      k += 1
+    }
+
+    nextState
+  }
+
+  /**
+    * Tests if `state` is the failure state.
+    */
+  def isFailure(state: WeightedPositionSet): Boolean = state.size == 0
+
+  /**
+    * Tests if `state` is a final state.
+    */
+  def isFinal(state: WeightedPositionSet): Boolean = getDistance(state) >= 0
+
+  /**
+    * Returns the weighted Levenshtein-distance between the word the automaton is built for
+    * and a word recognized in `state` or `-1` if `state` is not final.
+    */
+  def getDistance(state: WeightedPositionSet): Int = {
+    var distance = -1
+    var k = 0
+    while (k < state.size) {
+      val p = state(k)
+      if (!isT(p)) {
+        // the rest of the word is deleted
+        val d = e(p) + (w - i(p)) * deletionCost
+        if (d <= n && (distance < 0 || d < distance)) distance = d
+      }
+      k += 1
+    }
+    distance
+  }
+}
+
+object WeightedLevenshteinAutomaton {
+
+  /**
+    * Creates an instance of `WeightedLevenshteinAutomaton`.
+    */
+  def apply(config: WeightedLevenshteinAutomatonConfig) =
+    new WeightedLevenshteinAutomaton(config.copy(),
+      config.getEditCosts, None)
+
+  /**
+    * Creates an instance of `WeightedLevenshteinAutomaton` which caches transitions in `cache`.
+    *
+    * @param cache a cache of transitions for the degree, the transposition and
+    *              the operation costs of `config`.
+    */
+  def apply(config: WeightedLevenshteinAutomatonConfig, cache: WeightedTransitionCache) = {
+    require(cache.degree == config.getDegree &&
+      cache.inclTransposition == config.doesInclTransposition &&
+      cache.costs.hasSameOperationCosts(config.getEditCosts),
+      "The cache is created for other degree, transposition or operation costs.")
+
+    new WeightedLevenshteinAutomaton(config.copy(),
+      config.getEditCosts, Some(cache))
+  }
+}
@@ -0,0 +1,62 @@
+package io.itdraft.levenshteinautomaton
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import io.itdraft.levenshteinautomaton.description.nonparametric.{PackedPositions, WeightedPositionSet}
+
+/**
+  * A bounded cache of transitions of `WeightedLevenshteinAutomaton`, the weighted
+  * counterpart of [[TransitionCache]].
+  *
+  * A transition is keyed by the state shifted to its minimal boundary and the substitution
+  * costs of the alpha for the letters of the word the state can read. So transitions
+  * don't depend on the word nor on the substitution costs and the cache is shared by
+  * automata of the same degree and operation costs built for different words.
+  *
+  * The cache is thread-safe, see [[KeyedTransitionCache]].
+  *
+  * @param degree the degree of automata using the cache.
+  * @param inclTransposition whether automata using the cache include transposition.
+  * @param costs costs of automata using the cache, only the insertion, deletion and
+  *              transposition costs matter.
+  * @param capacity the max number of cached transitions.
+  */
+class WeightedTransitionCache(val degree: Int, val inclTransposition: Boolean,
+                              val costs: EditCosts, capacity: Int)
+  extends KeyedTransitionCache(capacity) {
+  require(degree <= PackedPositions.MaxDegree, s"Degree $degree exceeds ${PackedPositions.MaxDegree}.")
+
+  /**
+    * Loads the cached next state of `curState` into `nextState`.
+    *
+    * @param curState a current state with the key of the transition filled.
+    * @param minBoundary the minimal boundary of `curState`.
+    * @return `false` if the transition isn't cached.
+    */
+  private[levenshteinautomaton]
+  def get(curState: WeightedPositionSet, minBoundary: Int, nextState: WeightedPositionSet): Boolean =
+    lookup(curState.key, curState.keyLength, minBoundary, nextState)
+
+  /**
+    * Caches the transition from `curState` to `nextState`.
+    *
+    * @param curState a current state with the key of the transition filled.
+    * @param minBoundary the minimal boundary of `curState`.
+    */
+  private[levenshteinautomaton]
+  def put(curState: WeightedPositionSet, minBoundary: Int, nextState: WeightedPositionSet): Unit =
+    // a weighted position never moves to the left, so the next state is shifted by minBoundary
+    store(curState.key, curState.keyLength, nextState.toSortedArray(minBoundary), 0)
+}
@@ -0,0 +1,257 @@
+package io.itdraft.levenshteinautomaton.description.nonparametric
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+  * Primitive counterparts of `Position`, `ImageSet` and `ElementaryTransition`.
+  * A position `i^#e` is packed into an `Int` as `i << 5 | e << 1 | t` where `t` is `1`
+  * for a t-position, so a state is just an array of ints and computing a transition
+  * doesn't allocate.
+  *
+  * @note Transitions take the index `j` of the first match in the relevant subword
+  *       of a position, so the word may be given either as code points or as bits of
+  *       an `Int` where the `k`-th letter of the word of length `w` is `1` if the bit
+  *       `w - 1 - k` is set. The latter is enough to compute the parametric description,
+  *       where the word is a characteristic vector.
+  */
+protected[levenshteinautomaton] object PackedPositions {
+
+  private val EBits = 4
+
+  /**
+    * The max degree of an automaton whose positions can be packed.
+    */
+  val MaxDegree = (1 << EBits) - 1
+
+  def pack(i: Int, e: Int, isT: Boolean): Int =
+    i << (EBits + 1) | e << 1 | (if (isT) 1 else 0)
+
+  def i(p: Int): Int = p >>> (EBits + 1)
+
+  def e(p: Int): Int = (p >>> 1) & ((1 << EBits) - 1)
+
+  def isT(p: Int): Boolean = (p & 1) == 1
+
+  /**
+    * Shifts a position to the left by `offset` letters.
+    */
+  def shift(p: Int, offset: Int): Int = p - (offset << (EBits + 1))
+
+  /**
+    * Whether position `x` subsumes position `y` for an automaton of degree `n`.
+    *
+    * @see [[StandardPosition#subsumes]] and [[TPosition#subsumes]]
+    */
+  def subsumes(x: Int, y: Int, n: Int): Boolean = {
+    val e = PackedPositions.e(x)
+    val f = PackedPositions.e(y)
+
+    if (f <= e) false
+    else if (!isT(x)) {
+      if (!isT(y)) Math.abs(i(y) - i(x)) <= f - e
+      else Math.abs(i(y) - (i(x) - 1)) <= f - e
+    } else i(x) == i(y) && (isT(y) || f == n)
+  }
+
+  /**
+    * Whether `p` is an accepting position of an automaton of degree `n`
+    * built for a word of length `w`.
+    */
+  def isAccepting(p: Int, w: Int, n: Int): Boolean = !isT(p) && w - i(p) <= n - e(p)
+
+  /**
+    * Adds positions a position turns into to `acc`.
+    *
+    * @param j the minimal index of the relevant subword characteristic vector
+    *          of `p` where `b_j = 1` or `-1` if there isn't such index.
+    * @see [[ElementaryTransition]]
+    */
+  def transit(p: Int, j: Int, w: Int, n: Int, inclTransposition: Boolean,
+              acc: PositionSet): Unit = {
+    val i = PackedPositions.i(p)
+    val e = PackedPositions.e(p)
+
+    if (e < n) {
+      if (isT(p)) {
+        if (i <= w - 2) {
+          if (j == 1) acc.reducedAdd(pack(i + 2, e, isT = false))
+        } else if (i == w - 1) transitLastButOne(i, e, j, acc)
+        else if (i == w) acc.reducedAdd(pack(w, e + 1, isT = false))
+
+      } else if (i <= w - 2) {
+        if (j == 1) acc.reducedAdd(pack(i + 1, e, isT = false))
+        else {
+          acc.reducedAdd(pack(i, e + 1, isT = false))
+          acc.reducedAdd(pack(i + 1, e + 1, isT = false))
+
+          if (j == 2 && inclTransposition) {
+            acc.reducedAdd(pack(i, e + 1, isT = true))
+            acc.reducedAdd(pack(i + 2, e + 1, isT = false))
+          } else if (j > 1) {
+            acc.reducedAdd(pack(i + j, e + j - 1, isT = false))
+          }
+        }
+      } else if (i == w - 1) transitLastButOne(i, e, j, acc)
+      else if (i == w) acc.reducedAdd(pack(w, e + 1, isT = false))
+
+    } else if (e == n && j == 1) {
+      if (!isT(p) && i <= w - 1) acc.reducedAdd(pack(i + 1, n, isT = false))
+      else if (isT(p) && i <= w - 2) acc.reducedAdd(pack(i + 2, n, isT = false))
+    }
+  }
+
+  private def transitLastButOne(i: Int, e: Int, j: Int, acc: PositionSet): Unit =
+    if (j == 1) acc.reducedAdd(pack(i + 1, e, isT = false))
+    else {
+      acc.reducedAdd(pack(i, e + 1, isT = false))
+      acc.reducedAdd(pack(i + 1, e + 1, isT = false))
+    }
+
+  /**
+    * Returns the max allowed length of a relevant subword for position `p`.
+    *
+    * @see [[Position#relevantSubwordMaxLength]]
+    */
+  def relevantSubwordMaxLength(p: Int, w: Int, n: Int): Int =
+    if (isT(p) && i(p) > w - 2) 0
+    else Math.min(n - e(p) + 1, w - i(p))
+
+  /**
+    * Returns the minimal index `j` of the relevant subword characteristic vector
+    * of position `p` where `b_j = 1` or `-1` if there isn't such index.
+    *
+    * @param word the word given as bits of an `Int`.
+    */
+  def relevantJ(p: Int, word: Int, w: Int, n: Int): Int = {
+    val i = PackedPositions.i(p)
+    val length = relevantSubwordMaxLength(p, w, n)
+
+    var k = 0
+    while (k < length) {
+      if ((word >>> (w - 1 - i - k) & 1) == 1) return k + 1
+      k += 1
+    }
+    -1
+  }
+}
+
+/**
+  * A mutable set of packed positions a cached transition is loaded into,
+  * see `KeyedTransitionCache`.
+  */
+protected[levenshteinautomaton] trait PackedPositionBuffer {
+
+  /**
+    * Replaces the positions by `ps` shifted to the right by `offset` letters.
+    */
+  def load(ps: Array[Int], offset: Int): Unit
+}
+
+/**
+  * A mutable set of packed positions where no position subsumes another one.
+  */
+protected[levenshteinautomaton] final class PositionSet(n: Int) extends PackedPositionBuffer {
+  private var positions = new Array[Int](16)
+  private var count = 0
+
+  /**
+    * A buffer for the transition key of the set, see `LazyLevenshteinAutomaton`.
+    */
+  private[levenshteinautomaton] var key = new Array[Int](16)
+  private[levenshteinautomaton] var keyLength = 0
+
+  def size: Int = count
+
+  def apply(index: Int): Int = positions(index)
+
+  def clear(): Unit = count = 0
+
+  /**
+    * Adds `p` unless it's already subsumed and removes positions subsumed by `p`.
+    *
+    * @see [[ImageSet#reducedAdd]]
+    */
+  def reducedAdd(p: Int): Unit = {
+    var k = 0
+    while (k < count) {
+      val q = positions(k)
+      if (q == p || PackedPositions.subsumes(q, p, n)) return
+      k += 1
+    }
+
+    var m = 0
+    k = 0
+    while (k < count) {
+      val q = positions(k)
+      if (!PackedPositions.subsumes(p, q, n)) {
+        positions(m) = q
+        m += 1
+      }
+      k += 1
+    }
+
+    if (m == positions.length) positions = java.util.Arrays.copyOf(positions, m * 2)
+    positions(m) = p
+    count = m + 1
+  }
+
+  /**
+    * Replaces the positions by `ps` shifted to the right by `offset` letters.
+    * Positions of `ps` must not subsume each other.
+    */
+  def load(ps: Array[Int], offset: Int): Unit = {
+    if (ps.length > positions.length) positions = new Array[Int](ps.length)
+
+    var k = 0
+    while (k < ps.length) {
+      positions(k) = PackedPositions.shift(ps(k), -offset)
+      k += 1
+    }
+    count = ps.length
+  }
+
+  /**
+    * Returns the minimal boundary of the positions.
+    */
+  def minBoundary: Int = {
+    var min = Int.MaxValue
+    var k = 0
+    while (k < count) {
+      min = Math.min(min, PackedPositions.i(positions(k)))
+      k += 1
+    }
+    min
+  }
+
+  /**
+    * Returns the positions shifted to the left by `offset` letters in ascending order.
+    */
+  def toSortedArray(offset: Int): Array[Int] = {
+    val result = new Array[Int](count)
+    var k = 0
+    while (k < count) {
+      result(k) = PackedPositions.shift(positions(k), offset)
+      k += 1
+    }
+    java.util.Arrays.sort(result)
+    result
+  }
+
+  /**
+    * Makes the key buffer at least `length` ints long.
+    */
+  private[levenshteinautomaton] def ensureKeyCapacity(length: Int): Unit =
+    if (key.length < length) key = new Array[Int](Math.max(length, key.length * 2))
+}
@@ -0,0 +1,137 @@
+package io.itdraft.levenshteinautomaton.description.nonparametric
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import PackedPositions._
+
+/**
+  * A mutable set of packed positions of a weighted automaton, where `e` of a position
+  * is the cost spent to reach it. A position is dropped if another one reaches it
+  * at no higher cost: a position of the same boundary and kind or a standard position
+  * of a lower boundary followed by deletions.
+  *
+  * @note The unit cost subsumption of [[PositionSet]] relies on every operation
+  *       costing `1`, so it doesn't hold for weighted positions.
+  * @param deletionCost the cost of a letter deleted from the word.
+  */
+protected[levenshteinautomaton] final class WeightedPositionSet(deletionCost: Int) extends PackedPositionBuffer {
+  private var positions = new Array[Int](16)
+  private var count = 0
+
+  /**
+    * A buffer for the transition key of the set, see `WeightedLevenshteinAutomaton`.
+    */
+  private[levenshteinautomaton] var key = new Array[Int](32)
+  private[levenshteinautomaton] var keyLength = 0
+
+  def size: Int = count
+
+  def apply(index: Int): Int = positions(index)
+
+  def clear(): Unit = count = 0
+
+  /**
+    * Adds `p` unless it's already reached at no higher cost and removes
+    * positions `p` reaches at no higher cost.
+    */
+  def reducedAdd(p: Int): Unit = {
+    var k = 0
+    while (k < count) {
+      if (reaches(positions(k), p)) return
+      k += 1
+    }
+
+    var m = 0
+    k = 0
+    while (k < count) {
+      val q = positions(k)
+      if (!reaches(p, q)) {
+        positions(m) = q
+        m += 1
+      }
+      k += 1
+    }
+
+    if (m == positions.length) positions = java.util.Arrays.copyOf(positions, m * 2)
+    positions(m) = p
+    count = m + 1
+  }
+
+  private def reaches(x: Int, y: Int): Boolean =
+    if (isT(x) != isT(y)) false
+    else if (i(x) == i(y)) e(x) <= e(y)
+    else !isT(x) && i(x) < i(y) && e(x) + (i(y) - i(x)) * deletionCost <= e(y)
+
+  /**
+    * Replaces the positions by `ps` shifted to the right by `offset` letters.
+    * Positions of `ps` must not reach each other.
+    */
+  def load(ps: Array[Int], offset: Int): Unit = {
+    if (ps.length > positions.length) positions = new Array[Int](ps.length)
+
+    var k = 0
+    while (k < ps.length) {
+      positions(k) = shift(ps(k), -offset)
+      k += 1
+    }
+    count = ps.length
+  }
+
+  /**
+    * Returns the minimal boundary of the positions.
+    */
+  def minBoundary: Int = {
+    var min = Int.MaxValue
+    var k = 0
+    while (k < count) {
+      min = Math.min(min, i(positions(k)))
+      k += 1
+    }
+    min
+  }
+
+  /**
+    * Returns the maximal boundary of the positions.
+    */
+  def maxBoundary: Int = {
+    var max = Int.MinValue
+    var k = 0
+    while (k < count) {
+      max = Math.max(max, i(positions(k)))
+      k += 1
+    }
+    max
+  }
+
+  /**
+    * Returns the positions shifted to the left by `offset` letters in ascending order.
+    */
+  def toSortedArray(offset: Int): Array[Int] = {
+    val result = new Array[Int](count)
+    var k = 0
+    while (k < count) {
+      result(k) = shift(positions(k), offset)
+      k += 1
+    }
+    java.util.Arrays.sort(result)
+    result
+  }
+
+  /**
+    * Makes the key buffer at least `length` ints long.
+    */
+  private[levenshteinautomaton] def ensureKeyCapacity(length: Int): Unit =
+    if (key.length < length) key = new Array[Int](Math.max(length, key.length * 2))
+}
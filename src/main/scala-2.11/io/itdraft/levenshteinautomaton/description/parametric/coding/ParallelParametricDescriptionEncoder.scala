@@ -0,0 +1,241 @@
+package io.itdraft.levenshteinautomaton.description.parametric.coding
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import io.itdraft.levenshteinautomaton.description.nonparametric.{PackedPositions, PositionSet}
+import io.itdraft.levenshteinautomaton.description.parametric.coding.ParametricDescriptionEncoder.UnsupportedDegreeException
+import io.itdraft.levenshteinautomaton.util.UIntPackedArray
+
+import java.util
+import java.util.concurrent.{ConcurrentHashMap, ForkJoinPool, ForkJoinTask, RecursiveAction}
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+  * Computes a parametric description equivalent to the one `ParametricDescriptionEncoder`
+  * computes, but states are arrays of packed positions (see `PackedPositions`) and
+  * states of every breadth-first level are expanded by the threads of a `ForkJoinPool`.
+  *
+  * @note State ids are assigned after a level is expanded in order of the states of the
+  *       level and characteristic vectors, so the result doesn't depend on the number of
+  *       threads. It's not the same numbering as `ParametricDescriptionEncoder` produces.
+  */
+object ParallelParametricDescriptionEncoder {
+
+  /**
+    * A callback to report progress after every breadth-first level is expanded.
+    */
+  trait Progress {
+    def levelExpanded(level: Int, levelStatesCount: Int, statesCount: Int): Unit
+  }
+
+  object NoProgress extends Progress {
+    def levelExpanded(level: Int, levelStatesCount: Int, statesCount: Int): Unit = ()
+  }
+
+  /**
+    * The number of states of a level expanded by a single fork-join task.
+    */
+  private val StatesPerTask = 4
+
+  /**
+    * Computes the parametric description for specified parameters and encodes it.
+    *
+    * @param degree            the degree of the Levenshtein-automaton.
+    * @param inclTransposition whether include transposition as a primitive
+    *                          edit operation.
+    * @param pool              a pool to expand states in.
+    * @param progress          a callback to report progress to.
+    * @throws UnsupportedDegreeException if the specified degree is greater
+    *                                    than the library supports.
+    * @return an instance of `EncodedParametricDescription`.
+    */
+  @throws(classOf[UnsupportedDegreeException])
+  def createEncodedParametricDescription(degree: Int, inclTransposition: Boolean,
+                                         pool: ForkJoinPool = ForkJoinPool.commonPool(),
+                                         progress: Progress = NoProgress): EncodedParametricDescription = {
+    if (degree > ParametricDescriptionEncoder.MAX_DEGREE)
+      throw UnsupportedDegreeException(ParametricDescriptionEncoder.MAX_DEGREE)
+
+    val maxVector = (CharacteristicVectorCodec.EMPTY << (2 * degree + 2)) - 1
+    val expansion = new Expansion(degree, inclTransposition, maxVector)
+    val ids = new util.HashMap[StateKey, Integer]()
+    val states = ArrayBuffer.empty[StateKey]
+    val rows = ArrayBuffer.empty[Row]
+
+    val initial = StateKey(Array(PackedPositions.pack(0, 0, isT = false)))
+    ids.put(initial, 0)
+    states += initial
+
+    var level = Array(initial)
+    var levelNumber = 0
+
+    while (level.nonEmpty) {
+      val levelRows = new Array[Row](level.length)
+      pool.invoke(new ExpandTask(expansion, level, 0, level.length, levelRows))
+
+      // ids are assigned sequentially, so they don't depend on the order tasks complete in
+      val nextLevel = ArrayBuffer.empty[StateKey]
+      for (row <- levelRows) {
+        for (v <- row.minVector to maxVector if row.nextStates(v) != null) {
+          val next = row.nextStates(v)
+          var id = ids.get(next)
+
+          if (id == null) {
+            id = states.size
+            ids.put(next, id)
+            states += next
+            nextLevel += next
+          }
+
+          row.nextIds(v) = id
+        }
+
+        rows += row
+      }
+
+      levelNumber += 1
+      progress.levelExpanded(levelNumber, level.length, states.size)
+      level = nextLevel.toArray
+    }
+
+    encode(states, rows, degree, inclTransposition, maxVector)
+  }
+
+  /**
+    * Computes transitions of states. Next states are interned in a concurrent map,
+    * so equal states found by different threads share the same instance.
+    */
+  private class Expansion(degree: Int, inclTransposition: Boolean, maxVector: Int) {
+    private val interned = new ConcurrentHashMap[StateKey, StateKey]()
+
+    def expand(state: StateKey, acc: PositionSet): Row = {
+      val row = new Row(minVector(state), maxVector)
+
+      for (v <- row.minVector to maxVector) {
+        val w = CharacteristicVectorCodec.size(v)
+        acc.clear()
+
+        for (p <- state.positions) {
+          val j = PackedPositions.relevantJ(p, v, w, degree)
+          PackedPositions.transit(p, j, w, degree, inclTransposition, acc)
+        }
+
+        if (acc.size > 0) {
+          val offset = acc.minBoundary
+          val key = StateKey(acc.toSortedArray(offset))
+          val existing = interned.putIfAbsent(key, key)
+
+          row.nextStates(v) = if (existing == null) key else existing
+          row.boundaryOffsets(v) = offset
+        }
+      }
+
+      row
+    }
+
+    def newPositionSet = new PositionSet(degree)
+  }
+
+  private class ExpandTask(expansion: Expansion, level: Array[StateKey], from: Int, until: Int,
+                           levelRows: Array[Row]) extends RecursiveAction {
+    def compute(): Unit =
+      if (until - from <= StatesPerTask) {
+        val acc = expansion.newPositionSet
+        for (k <- from until until) levelRows(k) = expansion.expand(level(k), acc)
+
+      } else {
+        val middle = (from + until) >>> 1
+        ForkJoinTask.invokeAll(new ExpandTask(expansion, level, from, middle, levelRows),
+          new ExpandTask(expansion, level, middle, until, levelRows))
+      }
+  }
+
+  private def encode(states: ArrayBuffer[StateKey], rows: ArrayBuffer[Row], degree: Int,
+                     inclTransposition: Boolean, maxVector: Int) = {
+    val statesCount = states.size
+    val failureStateId = statesCount
+    val encodedTransitions = Array.fill(statesCount * maxVector)(failureStateId)
+    val encodedBoundaryOffsets = new Array[Int](statesCount * maxVector)
+    val addendums = new Array[Int](statesCount)
+    val minErrors = new Array[Int](statesCount)
+    val maxRemainingLengthAddendums = new Array[Int](statesCount)
+
+    for (from <- 0 until statesCount) {
+      val row = rows(from)
+
+      for (v <- row.minVector to maxVector if row.nextStates(v) != null) {
+        val index = (v - 1) * statesCount + from
+        encodedTransitions(index) = row.nextIds(v)
+        encodedBoundaryOffsets(index) = row.boundaryOffsets(v)
+      }
+
+      addendums(from) = degreeMinusStateLengthAddendum(states(from))
+      minErrors(from) = states(from).positions.map(PackedPositions.e).min
+      maxRemainingLengthAddendums(from) =
+        states(from).positions.map(p => degree - PackedPositions.e(p) - PackedPositions.i(p)).max
+    }
+
+    new EncodedParametricDescription(degree, inclTransposition,
+      UIntPackedArray.pack(encodedTransitions),
+      UIntPackedArray.pack(encodedBoundaryOffsets),
+      addendums,
+      minErrors,
+      maxRemainingLengthAddendums)
+  }
+
+  /**
+    * @see `ParametricDescriptionEncoder.encodeDegreeMinusStateLengthAddendums`
+    *      and `ParametricDescriptionEncoder.encodeStatesBudgets` for the other metadata.
+    */
+  private def degreeMinusStateLengthAddendum(state: StateKey) = {
+    var max = -1
+    for (p <- state.positions if !PackedPositions.isT(p)) {
+      if (max == -1 || PackedPositions.i(p) > PackedPositions.i(max)) max = p
+    }
+    PackedPositions.e(max) - PackedPositions.i(max)
+  }
+
+  /**
+    * Returns the minimal characteristic vector the word of which isn't shorter
+    * than the max boundary of `state`.
+    */
+  private def minVector(state: StateKey) = {
+    var maxBoundary = 0
+    for (p <- state.positions) maxBoundary = Math.max(maxBoundary, PackedPositions.i(p))
+    CharacteristicVectorCodec.EMPTY << maxBoundary
+  }
+
+  /**
+    * A parametric state: packed positions with min boundary equal to 0 in ascending order.
+    */
+  private case class StateKey(positions: Array[Int]) {
+    override val hashCode: Int = util.Arrays.hashCode(positions)
+
+    override def equals(obj: Any): Boolean = obj match {
+      case other: StateKey => util.Arrays.equals(positions, other.positions)
+      case _ => false
+    }
+  }
+
+  /**
+    * Transitions of a state indexed by characteristic vectors.
+    */
+  private class Row(val minVector: Int, maxVector: Int) {
+    val nextStates = new Array[StateKey](maxVector + 1)
+    val nextIds = new Array[Int](maxVector + 1)
+    val boundaryOffsets = new Array[Int](maxVector + 1)
+  }
+}
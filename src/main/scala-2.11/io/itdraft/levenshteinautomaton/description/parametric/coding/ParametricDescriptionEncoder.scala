@@ -19,6 +19,9 @@ import io.itdraft.levenshteinautomaton.description.State
 import io.itdraft.levenshteinautomaton.description.nonparametric._
 import io.itdraft.levenshteinautomaton.util.UIntPackedArray
 
+import java.io.{BufferedOutputStream, FileOutputStream}
+import java.util.concurrent.ForkJoinPool
+
 import scala.collection.immutable.HashSet
 import scala.collection.mutable
 import scala.collection.mutable.ListBuffer
@@ -39,17 +42,48 @@ object ParametricDescriptionEncoder {
   val DEFAULT_DEGREE = 1
   val DEFAULT_INCL_TRANSPOSITION = false
 
+  /**
+    * Usage: `ParametricDescriptionEncoder [-e degree] [-t] [-o file] [-p]`.
+    *
+    * Prints the description as Java source or writes it to `file` in the binary
+    * format of `EncodedParametricDescriptionFormat` if `-o` is specified.
+    * `-p` computes the description by `ParallelParametricDescriptionEncoder`
+    * and reports progress to the standard error.
+    */
   def main(args: Array[String]) {
     val (degree, inclTransposition) = parseArgs(args)
+    val outputFile = parseOutputFile(args)
+    val parallel = parseArgs(args.toList).contains('parallel)
 
     try {
-      println(createEncodedParametricDescription(degree, inclTransposition).toString)
+      val description =
+        if (parallel) ParallelParametricDescriptionEncoder.createEncodedParametricDescription(
+          degree, inclTransposition, ForkJoinPool.commonPool(), ConsoleProgress)
+        else createEncodedParametricDescription(degree, inclTransposition)
+
+      outputFile match {
+        case Some(file) => write(description, file)
+        case None => println(description.toString)
+      }
 
     } catch {
       case e: UnsupportedDegreeException => println(e.getMessage); System.exit(1)
     }
   }
 
+  private object ConsoleProgress extends ParallelParametricDescriptionEncoder.Progress {
+    def levelExpanded(level: Int, levelStatesCount: Int, statesCount: Int): Unit =
+      System.err.println(s"Level $level: $levelStatesCount states expanded, $statesCount states found")
+  }
+
+  def parseOutputFile(args: Array[String]): Option[String] =
+    parseArgs(args.toList).get('outputFile).map(_.asInstanceOf[String])
+
+  private def write(description: EncodedParametricDescription, file: String): Unit = {
+    val out = new BufferedOutputStream(new FileOutputStream(file))
+    try EncodedParametricDescriptionFormat.write(description, out) finally out.close()
+  }
+
   def parseArgs(args: Array[String]): (Int, Boolean) = {
     val argsMap = parseArgs(args.toList)
     val degree = argsMap.getOrElse('degree, DEFAULT_DEGREE).asInstanceOf[Int]
@@ -64,6 +98,10 @@ object ParametricDescriptionEncoder {
         parseArgs(tail, acc ++ Map('degree -> value.toInt))
       case "-t" :: tail =>
         parseArgs(tail, acc ++ Map('inclTransposition -> true))
+      case "-o" :: value :: tail =>
+        parseArgs(tail, acc ++ Map('outputFile -> value))
+      case "-p" :: tail =>
+        parseArgs(tail, acc ++ Map('parallel -> true))
       case option :: tail =>
         println(s"Unknown option: $option")
         System.exit(1)
@@ -163,11 +201,34 @@ object ParametricDescriptionEncoder {
         encodeParametricTransitionTable(parametricDescription)
       val encodedDegreeMinusStateLengthAddendums =
         encodeDegreeMinusStateLengthAddendums(parametricDescription)
+      val (minErrors, maxRemainingLengthAddendums) = encodeStatesBudgets(parametricDescription)
 
       new EncodedParametricDescription(degree, inclTransposition,
         UIntPackedArray.pack(encodedTransitions),
         UIntPackedArray.pack(encodedBoundaryOffsets),
-        encodedDegreeMinusStateLengthAddendums)
+        encodedDegreeMinusStateLengthAddendums,
+        minErrors,
+        maxRemainingLengthAddendums)
+    }
+
+    /**
+      * The min number of errors of positions of a state and the max of `n - e - i`
+      * over positions `i^#e` of a state (its min boundary is 0). A position reads
+      * `w - i` code points at most by matches and `n - e` by other edit operations,
+      * so a state with min boundary `b` reads `w - b + addendum` code points at most.
+      */
+    def encodeStatesBudgets(parametricDescription: ParametricDescription) = {
+      val minErrors = Array.fill(parametricDescription.parametricStatesCount)(0)
+      val maxRemainingLengthAddendums = Array.fill(parametricDescription.parametricStatesCount)(0)
+
+      parametricDescription.foreachParametricState { (parametricState, stateId) =>
+        val positions = parametricState.asNonparametricState.imageSet.fold(List.empty[Position])(
+          (acc, p) => p :: acc)
+
+        minErrors(stateId) = positions.map(_.e).min
+        maxRemainingLengthAddendums(stateId) = positions.map(p => degree - p.e - p.i).max
+      }
+      (minErrors, maxRemainingLengthAddendums)
     }
 
     def encodeParametricTransitionTable(parametricDescription: ParametricDescription) = {
@@ -191,7 +252,8 @@ object ParametricDescriptionEncoder {
 
     /**
       * This addendums are required for `ParametricStateCodec` to detect whether
-      * an encoded parametric state is final.
+      * an encoded parametric state is final. The same addendums give the
+      * Levenshtein-distance of a final state: `w - minBoundary + addendum`.
       *
       * @note Inspect javadoc of
       *       [[io.itdraft.levenshteinautomaton.description.parametric.coding.EncodedParametricDescription#getDegreeMinusStateLengthAddendums() EncodedParametricDescription#getDegreeMinusStateLengthAddendums()]]
@@ -303,6 +365,7 @@ object ParametricDescriptionEncoder {
   private class ParametricDescription {
     val InitialStateId = 0
     private val parametricStates = ListBuffer.empty[PseudoParametricState]
+    private val parametricStateIds = mutable.HashMap.empty[PseudoParametricState, StateId]
     private val transitionTable =
       mutable.HashMap.empty[CharacteristicVectorAsInt, HashSet[Transition]]
 
@@ -312,15 +375,11 @@ object ParametricDescriptionEncoder {
       *              assumed as the parametric state.
       * @return id of the parametric state.
       */
-    def addParametricState(state: PseudoParametricState): StateId = {
-      val id = parametricStates.indexOf(state)
-
-      if (id == -1) {
+    def addParametricState(state: PseudoParametricState): StateId =
+      parametricStateIds.getOrElseUpdate(state, {
         parametricStates += state
         parametricStates.size - 1
-
-      } else id
-    }
+      })
 
     /**
       * Adds transition for characteristic vector.
@@ -343,7 +402,7 @@ object ParametricDescriptionEncoder {
       * @param state a `NonparametricState` with minimal boundary equal to 0
       *              assumed as the parametric state.
       */
-    def hasParametricState(state: PseudoParametricState) = parametricStates.contains(state)
+    def hasParametricState(state: PseudoParametricState) = parametricStateIds.contains(state)
 
     /**
       * Parametric states count excluding failure state.
@@ -24,23 +24,23 @@ package object levenshteinautomaton {
                                        inclTransposition: Boolean = false) =
     new LevenshteinAutomatonConfig(word, degree, inclTransposition)
 
-  implicit class LevenshteinAutomatonConfigExt(config: LevenshteinAutomatonConfig) {
+  implicit class LevenshteinAutomatonConfigExt(val config: LevenshteinAutomatonConfig) extends AnyVal {
     /**
       * Max boundary of a word the Levenshtein-automaton is built for.
       */
-    val w = config.getWordCodePoints.length
+    def w: Int = config.getWordLength
 
     /**
       * Automaton recognizes the set of all words
       * where the Levenshtein-distance between a word from the set
       * and a word the automaton is built for does not exceed `n`.
       */
-    val n = config.getDegree
+    def n: Int = config.getDegree
 
     /**
       * Whether include transposition as a primitive edit operation.
       */
-    val inclTransposition = config.doesInclTransposition
+    def inclTransposition: Boolean = config.doesInclTransposition
   }
 
 }
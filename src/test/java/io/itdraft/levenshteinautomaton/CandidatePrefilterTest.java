@@ -0,0 +1,100 @@
+package io.itdraft.levenshteinautomaton;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static io.itdraft.levenshteinautomaton.LevenshteinDistanceUtil.distance;
+import static io.itdraft.levenshteinautomaton.util.StringUtil.toCodePoints;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CandidatePrefilterTest {
+
+    @Test
+    public void testNeverRejectsAccepted() throws Exception {
+        Random random = new Random(17);
+
+        for (String word : new String[]{"", "a", "abcabc", "aaaaaab", "levenshtein", "\uD83D\uDE00ab\u0430"}) {
+            for (int degree = 1; degree <= 3; degree++) {
+                for (boolean inclTransposition : new boolean[]{false, true}) {
+                    CandidatePrefilter prefilter = CandidatePrefilter.create(
+                            new LevenshteinAutomatonConfig(word, degree, inclTransposition));
+                    int accepted = 0;
+
+                    for (int i = 0; i < 2000; i++) {
+                        String candidate = randomCandidate(random, word);
+                        int[] codePoints = toCodePoints(candidate);
+                        boolean mayMatch = prefilter.mayMatch(candidate);
+
+                        assertEquals(mayMatch, prefilter.mayMatch(codePoints, 0, codePoints.length));
+                        if (distance(word, candidate, inclTransposition) <= degree) {
+                            assertTrue(mayMatch);
+                            accepted++;
+                        }
+                    }
+
+                    assertEquals(4000, prefilter.getCandidatesCount());
+                    assertTrue(prefilter.getRejectedCount() > 0);
+                    assertTrue(prefilter.getRejectedCount() <= 4000 - 2 * accepted);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBounds() throws Exception {
+        CandidatePrefilter prefilter = CandidatePrefilter.create(new LevenshteinAutomatonConfig("abcd", 2));
+
+        assertTrue(prefilter.mayMatch("ab"));
+        assertFalse(prefilter.mayMatch("a"));
+        assertTrue(prefilter.mayMatch("abcdef"));
+        assertFalse(prefilter.mayMatch("abcdefg"));
+        // the same length, but three code points aren't in the word
+        assertFalse(prefilter.mayMatch("axyz"));
+        assertTrue(prefilter.mayMatch("abyz"));
+        // one more "a" than in the word and a deleted "d"
+        assertTrue(prefilter.mayMatch("aabc"));
+        // "x" and "y" substitute two code points and one more is deleted
+        assertTrue(prefilter.mayMatch("abx"));
+        assertFalse(prefilter.mayMatch("xyd"));
+        assertEquals(4, prefilter.getRejectedCount());
+    }
+
+    private static String randomCandidate(Random random, String word) {
+        StringBuilder sb = new StringBuilder(word);
+
+        for (int k = random.nextInt(6); k > 0; k--) {
+            int at = random.nextInt(sb.length() + 1);
+            char c = "abcx".charAt(random.nextInt(4));
+
+            switch (random.nextInt(3)) {
+                case 0:
+                    sb.insert(at, c);
+                    break;
+                case 1:
+                    if (at < sb.length() && !Character.isSurrogate(sb.charAt(at))) sb.deleteCharAt(at);
+                    break;
+                default:
+                    if (at < sb.length() && !Character.isSurrogate(sb.charAt(at))) sb.setCharAt(at, c);
+            }
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,113 @@
+package io.itdraft.levenshteinautomaton;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import static io.itdraft.levenshteinautomaton.LevenshteinDistanceUtil.distance;
+import static io.itdraft.levenshteinautomaton.util.StringUtil.toCodePoints;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CodePointFoldingTest {
+
+    private static final String CREME = "Cr\u00E8me Br\u00FBl\u00E9e";
+    private static final String YOLKA = "\u0401\u041B\u041A\u0410";
+    private static final String YOGA = "\u0419\u043E\u0433\u0430";
+
+    @Test
+    public void testFoldings() throws Exception {
+        CodePointFolding caseFolding = CodePointFolding.CASE_INSENSITIVE;
+        CodePointFolding accentFolding = CodePointFolding.CASE_AND_ACCENT_INSENSITIVE;
+
+        assertEquals('a', caseFolding.fold('A'));
+        assertEquals('\u00E9', caseFolding.fold('\u00C9'));
+        assertEquals('e', accentFolding.fold('\u00C9'));
+        assertEquals('\u0435', accentFolding.fold('\u0401'));
+        assertEquals('\u0451', caseFolding.fold('\u0401'));
+        assertEquals('\u0439', accentFolding.fold('\u0419'));
+        assertEquals('\u03C3', accentFolding.fold('\u03A3'));
+        assertEquals('a', accentFolding.fold('\u1EA0'));
+        assertEquals('\u00DF', accentFolding.fold('\u00DF'));
+        assertEquals('1', accentFolding.fold('1'));
+        assertEquals(0x1F600, accentFolding.fold(0x1F600));
+    }
+
+    @Test
+    public void testFoldingsAreIdempotent() throws Exception {
+        for (CodePointFolding folding : new CodePointFolding[]{
+                CodePointFolding.CASE_INSENSITIVE, CodePointFolding.CASE_AND_ACCENT_INSENSITIVE}) {
+            for (int codePoint = 0; codePoint < 0x2000; codePoint++) {
+                int folded = folding.fold(codePoint);
+                assertEquals(folded, folding.fold(folded));
+            }
+        }
+    }
+
+    @Test
+    public void testFoldedAutomata() throws Exception {
+        String[] candidates = {"creme brulee", "CREME BRULEE", "cr\u00E8me-br\u00FBl\u00E9e", "creme brule",
+                "\u0435\u043B\u043A\u0430", "\u0451\u043B\u043A\u0430", "\u0439\u043E\u0433\u0430",
+                "\u0438\u043E\u0433\u0430", "\u0438\u043E\u0433", ""};
+
+        for (String word : new String[]{CREME, YOLKA, YOGA}) {
+            for (int degree = 1; degree <= 2; degree++) {
+                LevenshteinAutomatonConfig config = new LevenshteinAutomatonConfig(
+                        toCodePoints(word), degree, true, CodePointFolding.CASE_AND_ACCENT_INSENSITIVE);
+                ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(config);
+                CompiledLevenshteinAutomaton compiled = automaton.compile();
+                ReusableLevenshteinAutomaton reusable = ReusableLevenshteinAutomaton.create(degree, true)
+                        .setCodePointFolding(CodePointFolding.CASE_AND_ACCENT_INSENSITIVE)
+                        .reset(word);
+                CandidatePrefilter prefilter = CandidatePrefilter.create(config);
+
+                for (String candidate : candidates) {
+                    int d = distance(fold(word), fold(candidate), true);
+                    int expected = d <= degree ? d : -1;
+
+                    assertEquals(expected, automaton.distance(candidate));
+                    assertEquals(expected, traverse(compiled, candidate));
+                    assertEquals(expected >= 0, reusable.matches(candidate));
+                    if (expected >= 0) assertTrue(prefilter.mayMatch(candidate));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCopyKeepsFolding() throws Exception {
+        LevenshteinAutomatonConfig config = new LevenshteinAutomatonConfig("abc", 1);
+        config.setCodePointFolding(CodePointFolding.CASE_INSENSITIVE);
+        ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(config);
+        config.setCodePointFolding(CodePointFolding.IDENTITY);
+
+        assertTrue(automaton.matches("ABC"));
+    }
+
+    private static String fold(String s) {
+        StringBuilder sb = new StringBuilder();
+        s.codePoints().forEach(c ->
+                sb.appendCodePoint(CodePointFolding.CASE_AND_ACCENT_INSENSITIVE.fold(c)));
+        return sb.toString();
+    }
+
+    private static int traverse(LevenshteinAutomaton automaton, String candidate) {
+        int stateId = automaton.getInitialStateId();
+        for (int i = 0; i < candidate.length() && !automaton.isFailureState(stateId); i++) {
+            stateId = automaton.getNextStateId(stateId, candidate.charAt(i));
+        }
+        return automaton.isFailureState(stateId) ? -1 : automaton.getDistance(stateId);
+    }
+}
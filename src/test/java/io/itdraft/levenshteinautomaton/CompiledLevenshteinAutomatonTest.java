@@ -0,0 +1,135 @@
+package io.itdraft.levenshteinautomaton;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static io.itdraft.levenshteinautomaton.LevenshteinDistanceUtil.distance;
+import static io.itdraft.levenshteinautomaton.util.StringUtil.toCodePoints;
+import static org.junit.Assert.assertTrue;
+
+public class CompiledLevenshteinAutomatonTest {
+
+    private static final String ALPHABET = "abcx\u0000\u00E9\uD83D\uDE00";
+
+    @Test
+    public void testAcceptsAsParametric() throws Exception {
+        Random random = new Random(42);
+
+        for (int degree = 1; degree <= 2; degree++) {
+            for (boolean inclTransposition : new boolean[]{false, true}) {
+                for (int k = 0; k < 50; k++) {
+                    String word = randomWord(random, 8);
+                    ParametricLevenshteinAutomaton parametric = ParametricLevenshteinAutomaton.create(
+                            new LevenshteinAutomatonConfig(word, degree, inclTransposition));
+                    CompiledLevenshteinAutomaton compiled = parametric.compile();
+
+                    for (int m = 0; m < 50; m++) {
+                        String candidate = randomWord(random, 10);
+                        boolean expected = distance(word, candidate, inclTransposition) <= degree;
+
+                        assertTrue(accepts(parametric, candidate) == expected);
+                        assertTrue(accepts(compiled, candidate) == expected);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDistance() throws Exception {
+        Random random = new Random(11);
+
+        for (int degree = 1; degree <= 2; degree++) {
+            for (boolean inclTransposition : new boolean[]{false, true}) {
+                for (int k = 0; k < 50; k++) {
+                    String word = randomWord(random, 8);
+                    ParametricLevenshteinAutomaton parametric = ParametricLevenshteinAutomaton.create(
+                            new LevenshteinAutomatonConfig(word, degree, inclTransposition));
+                    CompiledLevenshteinAutomaton compiled = parametric.compile();
+
+                    for (int m = 0; m < 50; m++) {
+                        String candidate = randomWord(random, 10);
+                        int d = distance(word, candidate, inclTransposition);
+                        int expected = d <= degree ? d : -1;
+
+                        assertTrue(distanceTo(parametric, candidate) == expected);
+                        assertTrue(distanceTo(compiled, candidate) == expected);
+                        assertTrue(parametric.distance(candidate) == expected);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFailureState() throws Exception {
+        CompiledLevenshteinAutomaton compiled = ParametricLevenshteinAutomaton.create(
+                new LevenshteinAutomatonConfig("abc", 1)).compile();
+        int stateId = compiled.getInitialStateId();
+
+        for (int codePoint : toCodePoints("xyz")) {
+            stateId = compiled.getNextStateId(stateId, codePoint);
+        }
+
+        assertTrue(compiled.isFailureState(stateId));
+        assertTrue(compiled.isFailureState(compiled.getNextStateId(stateId, 'a')));
+        assertTrue(!compiled.isFinalState(stateId));
+        assertTrue(compiled.getDistance(stateId) == -1);
+    }
+
+    @Test
+    public void testEmptyWord() throws Exception {
+        CompiledLevenshteinAutomaton compiled = ParametricLevenshteinAutomaton.create(
+                new LevenshteinAutomatonConfig("", 2)).compile();
+
+        assertTrue(accepts(compiled, ""));
+        assertTrue(accepts(compiled, "xy"));
+        assertTrue(!accepts(compiled, "xyz"));
+    }
+
+    private static boolean accepts(LevenshteinAutomaton automaton, String word) {
+        int stateId = automaton.getInitialStateId();
+
+        for (int codePoint : toCodePoints(word)) {
+            stateId = automaton.getNextStateId(stateId, codePoint);
+            if (automaton.isFailureState(stateId)) return false;
+        }
+
+        return automaton.isFinalState(stateId);
+    }
+
+    private static int distanceTo(LevenshteinAutomaton automaton, String word) {
+        int stateId = automaton.getInitialStateId();
+
+        for (int codePoint : toCodePoints(word)) {
+            stateId = automaton.getNextStateId(stateId, codePoint);
+            if (automaton.isFailureState(stateId)) return -1;
+        }
+
+        return automaton.getDistance(stateId);
+    }
+
+    private static String randomWord(Random random, int maxLength) {
+        int[] alphabet = toCodePoints(ALPHABET);
+        int[] word = new int[random.nextInt(maxLength + 1)];
+
+        for (int i = 0; i < word.length; i++) word[i] = alphabet[random.nextInt(alphabet.length)];
+
+        return new String(word, 0, word.length);
+    }
+}
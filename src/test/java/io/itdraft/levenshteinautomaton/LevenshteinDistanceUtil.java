@@ -0,0 +1,50 @@
+package io.itdraft.levenshteinautomaton;
+
+import static io.itdraft.levenshteinautomaton.util.StringUtil.toCodePoints;
+
+/**
+ * The straightforward dynamic programming computation of the
+ * Levenshtein-distance used as a reference in tests.
+ */
+public class LevenshteinDistanceUtil {
+
+    public static int distance(String s, String t, boolean inclTransposition) {
+        int[] a = toCodePoints(s);
+        int[] b = toCodePoints(t);
+        int[][] d = new int[a.length + 1][b.length + 1];
+
+        for (int i = 0; i <= a.length; i++) d[i][0] = i;
+        for (int j = 0; j <= b.length; j++) d[0][j] = j;
+
+        for (int i = 1; i <= a.length; i++) {
+            for (int j = 1; j <= b.length; j++) {
+                int cost = a[i - 1] == b[j - 1] ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+
+                if (inclTransposition && i > 1 && j > 1 &&
+                        a[i - 1] == b[j - 2] && a[i - 2] == b[j - 1]) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+
+        return d[a.length][b.length];
+    }
+
+    /**
+     * Returns the least distance between {@code s} and a prefix of {@code t}.
+     */
+    public static int prefixDistance(String s, String t, boolean inclTransposition) {
+        int result = distance(s, "", inclTransposition);
+
+        for (int i = 0; i < t.length(); ) {
+            i += Character.charCount(t.codePointAt(i));
+            result = Math.min(result, distance(s, t.substring(0, i), inclTransposition));
+        }
+
+        return result;
+    }
+
+    private LevenshteinDistanceUtil() {
+    }
+}
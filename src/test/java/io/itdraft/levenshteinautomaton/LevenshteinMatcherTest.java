@@ -0,0 +1,122 @@
+package io.itdraft.levenshteinautomaton;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static io.itdraft.levenshteinautomaton.LevenshteinDistanceUtil.distance;
+import static io.itdraft.levenshteinautomaton.ParametricLevenshteinAutomatonTest.randomCandidates;
+import static io.itdraft.levenshteinautomaton.util.StringUtil.toCodePoints;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LevenshteinMatcherTest {
+
+    private static final String WORD = "abcdefg";
+
+    @Test
+    public void testMatcher() throws Exception {
+        ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(
+                new LevenshteinAutomatonConfig(WORD, 2, true));
+        String[] candidates = randomCandidates(new Random(3), 1000);
+
+        for (LevenshteinAutomaton a : new LevenshteinAutomaton[]{automaton, automaton.compile()}) {
+            LevenshteinMatcher matcher = a.matcher();
+
+            for (String candidate : candidates) {
+                int d = distance(WORD, candidate, true);
+                assertEquals(d <= 2 ? d : -1, matcher.distance(candidate));
+            }
+        }
+    }
+
+    @Test
+    public void testAdvance() throws Exception {
+        LevenshteinMatcher matcher = ParametricLevenshteinAutomaton.create(
+                new LevenshteinAutomatonConfig(WORD, 1)).matcher();
+
+        assertTrue(matcher.advance("abc"));
+        assertFalse(matcher.isFinal());
+        assertTrue(matcher.advance("defgx"));
+        assertEquals(1, matcher.distance());
+        assertFalse(matcher.advance("xx"));
+        assertTrue(matcher.isFailure());
+        assertFalse(matcher.advance('a'));
+        assertEquals(-1, matcher.distance());
+
+        assertTrue(matcher.reset().advance(WORD));
+        assertEquals(0, matcher.distance());
+    }
+
+    @Test
+    public void testSharedAutomaton() throws Exception {
+        final ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(
+                new LevenshteinAutomatonConfig(WORD, 3, true));
+        final String[] candidates = randomCandidates(new Random(5), 2000);
+        final int[] expected = new int[candidates.length];
+
+        for (int i = 0; i < candidates.length; i++) {
+            int d = distance(WORD, candidates[i], true);
+            expected[i] = d <= 3 ? d : -1;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<int[]>> results = new ArrayList<>();
+
+            for (int t = 0; t < 16; t++) {
+                results.add(executor.submit(() -> {
+                    LevenshteinMatcher matcher = automaton.matcher();
+                    int[] distances = new int[candidates.length];
+
+                    for (int i = 0; i < candidates.length; i++) {
+                        distances[i] = matcher.distance(candidates[i]);
+                    }
+
+                    return distances;
+                }));
+            }
+
+            for (Future<int[]> result : results) {
+                assertArrayEquals(expected, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testDefensiveCopy() throws Exception {
+        int[] word = toCodePoints(WORD);
+        LevenshteinAutomatonConfig config = new LevenshteinAutomatonConfig(word, 1);
+        ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(config);
+
+        word[0] = 'x';
+        config.setWord(toCodePoints("xyz"));
+        config.setDegree(2);
+
+        assertTrue(automaton.matches(WORD));
+        assertFalse(automaton.matches("xyz"));
+    }
+}
@@ -0,0 +1,90 @@
+package io.itdraft.levenshteinautomaton;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static io.itdraft.levenshteinautomaton.LevenshteinDistanceUtil.distance;
+import static io.itdraft.levenshteinautomaton.util.StringUtil.toCodePoints;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MultiPatternMatcherTest {
+
+    @Test
+    public void testMatch() throws Exception {
+        Random random = new Random(13);
+        String[] patterns = randomWords(random, 500, 1, 9);
+        String[] candidates = randomWords(random, 300, 0, 10);
+
+        for (int degree = 1; degree <= 2; degree++) {
+            for (boolean inclTransposition : new boolean[]{false, true}) {
+                MultiPatternMatcher matcher = MultiPatternAutomaton.create(
+                        patterns, degree, inclTransposition).matcher();
+                int matched = 0;
+
+                for (String candidate : candidates) {
+                    Map<Integer, Integer> expected = new TreeMap<>();
+                    for (int i = 0; i < patterns.length; i++) {
+                        int d = distance(patterns[i], candidate, inclTransposition);
+                        if (d <= degree) expected.put(i, d);
+                    }
+
+                    Map<Integer, Integer> found = new TreeMap<>();
+                    matcher.match(candidate, (pattern, distance) ->
+                            assertEquals(null, found.put(pattern, distance)));
+                    assertEquals(expected, found);
+
+                    found.clear();
+                    int[] codePoints = toCodePoints("#" + candidate + "#");
+                    matcher.match(codePoints, 1, codePoints.length - 1, found::put);
+                    assertEquals(expected, found);
+
+                    assertEquals(expected.keySet(), toSet(matcher.match(candidate)));
+                    matched += expected.size();
+                }
+
+                assertTrue(matched > 0);
+            }
+        }
+    }
+
+    @Test
+    public void testNoPatterns() throws Exception {
+        MultiPatternMatcher matcher = MultiPatternAutomaton.create(new String[0], 1, false).matcher();
+
+        assertTrue(matcher.match("abc").isEmpty());
+    }
+
+    private static Set<Integer> toSet(BitSet bits) {
+        Set<Integer> result = new TreeSet<>();
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) result.add(i);
+        return result;
+    }
+
+    private static String[] randomWords(Random random, int count, int minLength, int maxLength) {
+        String[] result = new String[count];
+
+        for (int i = 0; i < count; i++) {
+            char[] word = new char[minLength + random.nextInt(maxLength - minLength + 1)];
+            for (int k = 0; k < word.length; k++) word[k] = (char) ('a' + random.nextInt(3));
+            result[i] = new String(word);
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,163 @@
+package io.itdraft.levenshteinautomaton;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static io.itdraft.levenshteinautomaton.LevenshteinDistanceUtil.distance;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OccurrenceMatcherTest {
+
+    private static final String TEXT = "the levenstein automaton, a levenshtein autmaton and " +
+            "\u043B\u0435\u0432\u0435\u043D\u0448\u0442\u0435\u0439\u043D \uD83D\uDE00levenshtien\uD83D\uDE00";
+
+    @Test
+    public void testFeedChars() throws Exception {
+        Random random = new Random(3);
+
+        for (String word : Arrays.asList("levenshtein", "automaton", "\u043B\u0435\u0432\u0435\u043D", "\uD83D\uDE00l")) {
+            for (int degree = 1; degree <= 2; degree++) {
+                for (boolean inclTransposition : new boolean[]{false, true}) {
+                    ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(
+                            new LevenshteinAutomatonConfig(word, degree, inclTransposition));
+                    Set<List<Long>> expected = occurrences(word, TEXT, degree, inclTransposition, false);
+                    assertTrue(!expected.isEmpty());
+
+                    Set<List<Long>> found = new HashSet<>();
+                    OccurrenceMatcher matcher = OccurrenceMatcher.create(automaton, collector(found));
+
+                    matcher.feed(TEXT).finish();
+                    assertEquals(expected, drain(found));
+
+                    matcher.reset().feed(new StringReader(TEXT)).finish();
+                    assertEquals(expected, drain(found));
+
+                    matcher.reset();
+                    for (int i = 0; i < TEXT.length(); ) {
+                        int until = Math.min(TEXT.length(), i + 1 + random.nextInt(5));
+                        CharBuffer chunk = CharBuffer.wrap(TEXT, i, until);
+                        matcher.feed(chunk);
+                        assertEquals(0, chunk.remaining());
+                        i = until;
+                    }
+                    matcher.finish();
+                    assertEquals(expected, drain(found));
+                    assertEquals(TEXT.length(), matcher.getPosition());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFeedUtf8Bytes() throws Exception {
+        Random random = new Random(5);
+        byte[] bytes = TEXT.getBytes(StandardCharsets.UTF_8);
+
+        for (String word : Arrays.asList("levenshtein", "\u043B\u0435\u0432\u0435\u043D", "\uD83D\uDE00l")) {
+            ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(
+                    new LevenshteinAutomatonConfig(word, 2, true));
+            Set<List<Long>> expected = occurrences(word, TEXT, 2, true, true);
+            Set<List<Long>> found = new HashSet<>();
+            OccurrenceMatcher matcher = OccurrenceMatcher.create(automaton, collector(found));
+
+            // chunks split multi-byte sequences
+            for (int i = 0; i < bytes.length; ) {
+                int until = Math.min(bytes.length, i + 1 + random.nextInt(3));
+                ByteBuffer chunk = ByteBuffer.allocateDirect(until - i);
+                chunk.put(bytes, i, until - i).flip();
+                matcher.feed(chunk);
+                i = until;
+            }
+            matcher.finish();
+
+            assertEquals(expected, found);
+            assertEquals(bytes.length, matcher.getPosition());
+        }
+    }
+
+    @Test
+    public void testMalformedUtf8() throws Exception {
+        ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(
+                new LevenshteinAutomatonConfig("a\uFFFDb", 1));
+        Set<List<Long>> found = new HashSet<>();
+        OccurrenceMatcher matcher = OccurrenceMatcher.create(automaton, collector(found));
+
+        // a truncated 3-byte sequence takes 2 bytes
+        matcher.feed(ByteBuffer.wrap(new byte[]{'a', (byte) 0xE2, (byte) 0x82, 'b'})).finish();
+
+        assertTrue(found.contains(Arrays.asList(0L, 4L, 0L)));
+    }
+
+    @Test
+    public void testMemoryIsBounded() throws Exception {
+        ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(
+                new LevenshteinAutomatonConfig("aaaa", 2));
+        int[] count = {0};
+        OccurrenceMatcher matcher = OccurrenceMatcher.create(automaton,
+                (offset, length, distance) -> {
+                    assertTrue(length <= 6);
+                    count[0]++;
+                });
+
+        // every traverse keeps matching, so only the length bound drops them
+        char[] as = new char[100000];
+        Arrays.fill(as, 'a');
+        matcher.feed(CharBuffer.wrap(as)).finish();
+
+        assertTrue(count[0] > 0);
+    }
+
+    private static OccurrenceHandler collector(Set<List<Long>> found) {
+        return (offset, length, distance) ->
+                assertTrue(found.add(Arrays.asList(offset, (long) length, (long) distance)));
+    }
+
+    private static Set<List<Long>> drain(Set<List<Long>> found) {
+        Set<List<Long>> result = new HashSet<>(found);
+        found.clear();
+        return result;
+    }
+
+    private static Set<List<Long>> occurrences(String word, String text, int degree,
+                                               boolean inclTransposition, boolean inBytes) {
+        Set<List<Long>> result = new HashSet<>();
+
+        for (int i = 0; i < text.length(); i = text.offsetByCodePoints(i, 1)) {
+            for (int j = text.offsetByCodePoints(i, 1); ; j = text.offsetByCodePoints(j, 1)) {
+                int d = distance(word, text.substring(i, j), inclTransposition);
+                if (d <= degree) {
+                    long offset = inBytes ? utf8Length(text.substring(0, i)) : i;
+                    long length = inBytes ? utf8Length(text.substring(i, j)) : j - i;
+                    result.add(Arrays.asList(offset, length, (long) d));
+                }
+                if (j == text.length()) break;
+            }
+        }
+
+        return result;
+    }
+
+    private static int utf8Length(String s) {
+        return s.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
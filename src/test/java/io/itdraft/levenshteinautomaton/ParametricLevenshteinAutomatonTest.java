@@ -0,0 +1,353 @@
+package io.itdraft.levenshteinautomaton;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import io.itdraft.levenshteinautomaton.description.parametric.coding.EncodedParametricDescriptionFactory;
+import io.itdraft.levenshteinautomaton.description.parametric.coding.FastParametricDescriptionFactory;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static io.itdraft.levenshteinautomaton.LevenshteinDistanceUtil.distance;
+import static io.itdraft.levenshteinautomaton.LevenshteinDistanceUtil.prefixDistance;
+import static io.itdraft.levenshteinautomaton.util.StringUtil.toCodePoints;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParametricLevenshteinAutomatonTest {
+
+    private static final String WORD = "abcdefg";
+
+    @Test
+    public void testMatchAll() throws Exception {
+        String[] candidates = randomCandidates(new Random(7), 5000);
+        int[][] codePoints = new int[candidates.length][];
+        int[] offsets = new int[candidates.length + 1];
+        int[] packed = new int[candidates.length * 12];
+
+        for (int i = 0; i < candidates.length; i++) {
+            codePoints[i] = toCodePoints(candidates[i]);
+            System.arraycopy(codePoints[i], 0, packed, offsets[i], codePoints[i].length);
+            offsets[i + 1] = offsets[i] + codePoints[i].length;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int degree = 1; degree <= 2; degree++) {
+                for (boolean inclTransposition : new boolean[]{false, true}) {
+                    ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(
+                            new LevenshteinAutomatonConfig(WORD, degree, inclTransposition));
+                    BitSet expected = new BitSet();
+
+                    for (int i = 0; i < candidates.length; i++) {
+                        if (distance(WORD, candidates[i], inclTransposition) <= degree) expected.set(i);
+                    }
+
+                    assertTrue(!expected.isEmpty());
+                    assertEquals(expected, automaton.matchAll(candidates));
+                    assertEquals(expected, automaton.matchAll(codePoints));
+                    assertEquals(expected, automaton.matchAll(packed, offsets));
+                    assertEquals(expected, automaton.matchAll(candidates, pool));
+                    assertEquals(expected, automaton.matchAll(codePoints, pool));
+                    assertEquals(expected, automaton.matchAll(packed, offsets, pool));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testDistanceAll() throws Exception {
+        String[] candidates = randomCandidates(new Random(13), 3000);
+        int[][] codePoints = new int[candidates.length][];
+
+        for (int i = 0; i < candidates.length; i++) codePoints[i] = toCodePoints(candidates[i]);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int degree = 1; degree <= 2; degree++) {
+                for (boolean inclTransposition : new boolean[]{false, true}) {
+                    ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(
+                            new LevenshteinAutomatonConfig(WORD, degree, inclTransposition));
+                    int[] expected = new int[candidates.length];
+
+                    for (int i = 0; i < candidates.length; i++) {
+                        int d = distance(WORD, candidates[i], inclTransposition);
+                        expected[i] = d <= degree ? d : -1;
+                    }
+
+                    assertArrayEquals(expected, automaton.distanceAll(candidates));
+                    assertArrayEquals(expected, automaton.distanceAll(codePoints, pool));
+
+                    ParametricLevenshteinAutomaton fast = ParametricLevenshteinAutomaton.create(
+                            new LevenshteinAutomatonConfig(WORD, degree, inclTransposition),
+                            new FastParametricDescriptionFactory(new EncodedParametricDescriptionFactory()));
+                    assertArrayEquals(expected, fast.distanceAll(candidates));
+                    assertArrayEquals(expected, fast.distanceAll(codePoints, pool));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testBatchLengthCheck() throws Exception {
+        String g = new String(Character.toChars(0x1D11E));
+        ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(
+                new LevenshteinAutomatonConfig(g + g + "a", 1, false));
+        // the chars count of the candidates is out of the degree, but the code points count isn't
+        String[] candidates = {g + g + g + "a", g + g, g + g + "a" + g + g, "ab", "a"};
+
+        assertArrayEquals(new int[]{1, 1, -1, -1, -1}, automaton.distanceAll(candidates));
+        for (int i = 0; i < candidates.length; i++) {
+            assertEquals(automaton.distanceAll(candidates)[i], automaton.distance(candidates[i]));
+            assertEquals(automaton.distanceAll(candidates)[i],
+                    automaton.distance(candidates[i].toCharArray(), 0, candidates[i].length()));
+        }
+    }
+
+    @Test
+    public void testPrefixMatching() throws Exception {
+        String[] candidates = randomCandidates(new Random(11), 2000);
+
+        for (String word : new String[]{"", "ab", "abcd", WORD}) {
+            for (int degree = 1; degree <= 2; degree++) {
+                for (boolean inclTransposition : new boolean[]{false, true}) {
+                    ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(
+                            new LevenshteinAutomatonConfig(word, degree, inclTransposition));
+
+                    for (String candidate : candidates) {
+                        int expected = prefixDistance(word, candidate, inclTransposition);
+
+                        assertEquals(expected <= degree ? expected : -1, automaton.prefixDistance(candidate));
+                        assertEquals(expected <= degree, automaton.matchesPrefix(candidate));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testHigherDegrees() throws Exception {
+        String[] candidates = randomCandidates(new Random(17), 2000);
+
+        for (int degree = 3; degree <= 4; degree++) {
+            for (boolean inclTransposition : new boolean[]{false, true}) {
+                ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(
+                        new LevenshteinAutomatonConfig(WORD, degree, inclTransposition));
+                int[] expected = new int[candidates.length];
+
+                for (int i = 0; i < candidates.length; i++) {
+                    int d = distance(WORD, candidates[i], inclTransposition);
+                    expected[i] = d <= degree ? d : -1;
+                }
+
+                assertArrayEquals(expected, automaton.distanceAll(candidates));
+            }
+        }
+    }
+
+    @Test
+    public void testStateBudgets() throws Exception {
+        String[] candidates = randomCandidates(new Random(19), 300);
+        Random random = new Random(29);
+
+        for (int degree = 1; degree <= 4; degree++) {
+            for (boolean inclTransposition : new boolean[]{false, true}) {
+                ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(
+                        new LevenshteinAutomatonConfig(WORD, degree, inclTransposition));
+
+                for (String candidate : candidates) {
+                    int stateId = automaton.getInitialStateId();
+
+                    for (int end = 0; end <= candidate.length(); end++) {
+                        if (end > 0) stateId = automaton.getNextStateId(stateId, candidate.charAt(end - 1));
+                        if (automaton.isFailureState(stateId)) {
+                            assertTrue(!automaton.canAdvance(stateId));
+                            break;
+                        }
+
+                        String prefix = candidate.substring(0, end);
+                        int minErrors = automaton.getMinErrors(stateId);
+                        int maxRemainingLength = automaton.getMaxRemainingLength(stateId);
+                        int minDistance = Integer.MAX_VALUE;
+                        boolean longestFits = false;
+
+                        // the best continuations are suffixes of the word, maybe followed by insertions
+                        for (int k = 0; k <= WORD.length(); k++) {
+                            String suffix = WORD.substring(k);
+                            minDistance = Math.min(minDistance, distance(WORD, prefix + suffix, inclTransposition));
+
+                            int insertions = maxRemainingLength - suffix.length();
+                            if (insertions >= 0) {
+                                String longest = prefix + suffix + repeat('x', insertions);
+                                longestFits |= !automaton.isFailureState(state(automaton, longest));
+                            }
+                        }
+
+                        assertEquals(minDistance, minErrors);
+                        assertTrue(longestFits);
+                        assertEquals(maxRemainingLength > 0, automaton.canAdvance(stateId));
+
+                        StringBuilder tooLong = new StringBuilder(prefix);
+                        for (int k = 0; k <= maxRemainingLength; k++) {
+                            tooLong.append((char) ('a' + random.nextInt(8)));
+                        }
+                        assertTrue(automaton.isFailureState(state(automaton, tooLong)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLongWord() throws Exception {
+        // the word is longer than a long, so characteristic vectors cross bitmask elements
+        String word = "\u0443\u043b\u0438\u0446\u0430 " + WORD + " \ud83d\ude00 "
+                + WORD + WORD + "0123456789" + WORD + WORD + "!" + WORD;
+        Random random = new Random(23);
+
+        for (int degree = 1; degree <= 4; degree++) {
+            ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(
+                    new LevenshteinAutomatonConfig(word, degree, true));
+
+            for (int i = 0; i < 500; i++) {
+                StringBuilder candidate = new StringBuilder(word);
+                for (int k = random.nextInt(degree + 2); k > 0; k--) {
+                    // keeps the surrogate pair whole
+                    int at = random.nextInt(candidate.length() - 17) + 17;
+                    if (random.nextBoolean()) candidate.insert(at, 'x');
+                    else candidate.deleteCharAt(at);
+                }
+
+                int d = distance(word, candidate.toString(), true);
+                assertEquals(d <= degree ? d : -1, automaton.distance(candidate));
+            }
+        }
+    }
+
+    @Test
+    public void testRangesAndUtf8() throws Exception {
+        String[] candidates = randomCandidates(new Random(29), 500);
+        String[] words = {WORD, "\u0443\u043b\u0438\u0446\u0430", "ab\ud83d\ude00cd"};
+
+        for (String word : words) {
+            ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(
+                    new LevenshteinAutomatonConfig(word, 2, true));
+
+            for (String candidate : candidates) {
+                int expected = automaton.distance(candidate);
+                String padded = "\u00e9" + candidate + "\ud83d\ude00";
+                int until = padded.length() - 2;
+                byte[] utf8 = padded.getBytes(StandardCharsets.UTF_8);
+                int utf8Until = utf8.length - 4;
+
+                assertEquals(expected, automaton.distance(padded, 1, until));
+                assertEquals(expected, automaton.distance(padded.toCharArray(), 1, until));
+                assertEquals(expected, automaton.distance(utf8, 2, utf8Until));
+                assertEquals(expected, automaton.distance(
+                        (ByteBuffer) ByteBuffer.wrap(utf8).position(2).limit(utf8Until)));
+                assertEquals(expected >= 0, automaton.matches(utf8, 2, utf8Until));
+            }
+        }
+    }
+
+    @Test
+    public void testMalformedUtf8() throws Exception {
+        ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(
+                new LevenshteinAutomatonConfig("abc", 1));
+        byte[] utf8 = {'a', (byte) 0xE2, (byte) 0x82, 'c'};
+
+        // the truncated sequence is a single U+FFFD
+        assertEquals(1, automaton.distance(utf8, 0, utf8.length));
+        // the range ends inside the sequence, so it's read as "a\ufffd"
+        assertEquals(-1, automaton.distance(utf8, 0, 2));
+        // a surrogate pair isn't decoded across the end of a range
+        assertEquals(1, automaton.distance("ab\ud83d\ude00", 0, 3));
+    }
+
+    @Test
+    public void testMatchAllEmpty() throws Exception {
+        ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(
+                new LevenshteinAutomatonConfig(WORD, 1));
+
+        assertTrue(automaton.matchAll(new String[0]).isEmpty());
+        assertTrue(automaton.matchAll(new int[0], new int[]{0}).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMatchAllOffsetsMustBeNotEmpty() throws Exception {
+        ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(
+                new LevenshteinAutomatonConfig(WORD, 1));
+
+        automaton.matchAll(new int[0], new int[0]);
+    }
+
+    private static int state(ParametricLevenshteinAutomaton automaton, CharSequence s) {
+        int stateId = automaton.getInitialStateId();
+        for (int i = 0; i < s.length() && !automaton.isFailureState(stateId); i++) {
+            stateId = automaton.getNextStateId(stateId, s.charAt(i));
+        }
+        return stateId;
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    static String[] randomCandidates(Random random, int count) {
+        String[] result = new String[count];
+
+        for (int i = 0; i < count; i++) {
+            StringBuilder sb = new StringBuilder(WORD);
+
+            for (int k = random.nextInt(4); k > 0; k--) {
+                int at = random.nextInt(sb.length() + 1);
+
+                switch (random.nextInt(4)) {
+                    case 0:
+                        sb.insert(at, 'x');
+                        break;
+                    case 1:
+                        if (at < sb.length()) sb.deleteCharAt(at);
+                        break;
+                    case 2:
+                        if (at < sb.length()) sb.setCharAt(at, 'y');
+                        break;
+                    default:
+                        if (at + 1 < sb.length()) {
+                            char c = sb.charAt(at);
+                            sb.setCharAt(at, sb.charAt(at + 1));
+                            sb.setCharAt(at + 1, c);
+                        }
+                }
+            }
+
+            result[i] = sb.toString();
+        }
+
+        return result;
+    }
+}
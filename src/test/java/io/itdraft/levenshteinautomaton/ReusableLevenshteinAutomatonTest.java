@@ -0,0 +1,99 @@
+package io.itdraft.levenshteinautomaton;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import io.itdraft.levenshteinautomaton.description.parametric.ParametricDescriptionNotFoundException;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static io.itdraft.levenshteinautomaton.LevenshteinDistanceUtil.distance;
+import static io.itdraft.levenshteinautomaton.ParametricLevenshteinAutomatonTest.randomCandidates;
+import static io.itdraft.levenshteinautomaton.util.StringUtil.toCodePoints;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ReusableLevenshteinAutomatonTest {
+
+    @Test
+    public void testReset() throws Exception {
+        String[] words = {"abcdefg", "", "ab", "\ud83d\ude00bcdefg", "abcdefgabcdefgabcdefg", "abc"};
+        String[] candidates = randomCandidates(new Random(13), 300);
+
+        for (int degree = 1; degree <= 4; degree++) {
+            ReusableLevenshteinAutomaton automaton = ReusableLevenshteinAutomaton.create(degree, true);
+
+            for (String word : words) {
+                automaton.reset(word);
+                assertEquals(word.codePointCount(0, word.length()), automaton.getWordLength());
+
+                for (String candidate : candidates) {
+                    int d = distance(word, candidate, true);
+                    assertEquals(d <= degree ? d : -1, automaton.distance(candidate));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testResetToCodePoints() throws Exception {
+        ReusableLevenshteinAutomaton automaton = ReusableLevenshteinAutomaton.create(2, false);
+        int[] codePoints = toCodePoints("xxabcdefgxx");
+
+        automaton.reset(codePoints, 2, 9);
+
+        assertTrue(automaton.matches("abcdefg"));
+        assertEquals(2, automaton.distance(codePoints, 1, 10));
+        assertEquals(1, automaton.matcher().distance("abcdef"));
+    }
+
+    @Test
+    public void testResetToUtf8() throws Exception {
+        ReusableLevenshteinAutomaton automaton = ReusableLevenshteinAutomaton.create(2, true);
+        byte[] utf8 = "xx\u0443\u043b\u0438\u0446\u0430xx".getBytes(StandardCharsets.UTF_8);
+
+        automaton.reset(utf8, 2, utf8.length - 2);
+        assertEquals(5, automaton.getWordLength());
+        assertEquals(1, automaton.distance("\u0443\u043b\u0438\u0446"));
+
+        automaton.reset(ByteBuffer.wrap(utf8));
+        assertEquals(0, automaton.distance(utf8, 0, utf8.length));
+        assertEquals(2, automaton.distance(ByteBuffer.wrap(utf8, 2, utf8.length - 2)));
+
+        automaton.reset("xxabcxx".toCharArray(), 2, 5);
+        assertTrue(automaton.matches("xxabdxx", 2, 5));
+        assertEquals(2, automaton.distance("xxabdxx".toCharArray(), 1, 5));
+    }
+
+    @Test
+    public void testLengthCheck() throws Exception {
+        String g = new String(Character.toChars(0x1D11E));
+        ReusableLevenshteinAutomaton automaton = ReusableLevenshteinAutomaton.create(1, false);
+        automaton.reset(g + g + "a");
+
+        // the chars count is out of the degree, but the code points count isn't
+        assertEquals(1, automaton.distance(g + g + g + "a"));
+        assertEquals(1, automaton.distance((g + g).toCharArray(), 0, 4));
+        assertEquals(-1, automaton.distance(g + g + "a" + g + g));
+        assertEquals(-1, automaton.distance("a"));
+    }
+
+    @Test(expected = ParametricDescriptionNotFoundException.class)
+    public void testDescriptionNotFound() throws Exception {
+        ReusableLevenshteinAutomaton.create(5, false);
+    }
+}
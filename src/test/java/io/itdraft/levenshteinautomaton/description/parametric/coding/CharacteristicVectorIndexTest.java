@@ -0,0 +1,61 @@
+package io.itdraft.levenshteinautomaton.description.parametric.coding;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static io.itdraft.levenshteinautomaton.description.parametric.coding.CharacteristicVectorCodec.computeEncodedCharacteristicVector;
+import static io.itdraft.levenshteinautomaton.util.StringUtil.toCodePoints;
+import static org.junit.Assert.assertTrue;
+
+public class CharacteristicVectorIndexTest {
+
+    // ASCII, Cyrillic, a supplementary code point and zero
+    private static final int[] ALPHABET = {'a', 'b', 'c', 0x0430, 0x0431, 0x1F600, 0};
+
+    @Test
+    public void testSameAsCodec() throws Exception {
+        Random random = new Random(11);
+
+        for (int w : new int[]{0, 1, 7, 63, 64, 65, 130}) {
+            int[] word = new int[w];
+            for (int k = 0; k < w; k++) word[k] = ALPHABET[random.nextInt(ALPHABET.length)];
+
+            CharacteristicVectorIndex index = CharacteristicVectorIndex.create(word);
+
+            for (int alpha : new int[]{'a', 'c', 'z', 0x0431, 0x1F600, 0x1F601, 0, -1}) {
+                for (int from = -2; from <= w + 2; from++) {
+                    for (int size = 0; size <= CharacteristicVectorCodec.MAX_ALLOWED_VECTOR_SIZE; size++) {
+                        assertTrue(index.getEncodedCharacteristicVector(alpha, from, from + size) ==
+                                computeEncodedCharacteristicVector(alpha, word, from, from + size));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEncoded() throws Exception {
+        CharacteristicVectorIndex index = CharacteristicVectorIndex.create(toCodePoints("xoxoxo"));
+
+        assertTrue(index.getEncodedCharacteristicVector('x', 4, 6) == Integer.parseInt("110", 2));
+        assertTrue(index.getEncodedCharacteristicVector('o', 0, 6) == Integer.parseInt("1010101", 2));
+        assertTrue(index.getEncodedCharacteristicVector('y', 1, 4) == Integer.parseInt("1000", 2));
+        assertTrue(index.getEncodedCharacteristicVector('x', 100, 1000) == CharacteristicVectorCodec.EMPTY);
+        assertTrue(index.getEncodedCharacteristicVector('x', 0, 0) == CharacteristicVectorCodec.EMPTY);
+    }
+}
@@ -0,0 +1,103 @@
+package io.itdraft.levenshteinautomaton.description.parametric.coding;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import io.itdraft.levenshteinautomaton.LevenshteinAutomatonConfig;
+import io.itdraft.levenshteinautomaton.ParametricLevenshteinAutomaton;
+import io.itdraft.levenshteinautomaton.util.MappedUIntPackedArray;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static io.itdraft.levenshteinautomaton.description.parametric.coding.EncodedParametricDescriptionFactory.getResourceName;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DirectoryParametricDescriptionFactoryTest {
+
+    private final EncodedParametricDescriptionFactory resources = new EncodedParametricDescriptionFactory();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testMapsDescriptions() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        write(directory.resolve(getResourceName(2, true)), resources.getParametricDescription(2, true));
+        write(directory.resolve(getResourceName(3, false)), resources.getParametricDescription(3, false));
+
+        DirectoryParametricDescriptionFactory factory = new DirectoryParametricDescriptionFactory(directory);
+
+        for (int degree = 2; degree <= 3; degree++) {
+            boolean inclTransposition = degree == 2;
+            EncodedParametricDescription mapped = factory.getParametricDescription(degree, inclTransposition);
+
+            assertTrue(mapped.getEncodedTransitionsTable() instanceof MappedUIntPackedArray);
+            assertEquals(resources.getParametricDescription(degree, inclTransposition).toJavaString(),
+                    mapped.toJavaString());
+            assertTrue(mapped == factory.getParametricDescription(degree, inclTransposition));
+        }
+
+        assertTrue(factory.getParametricDescription(1, false) == null);
+        assertTrue(factory.getParametricDescription(2, false) == null);
+    }
+
+    @Test
+    public void testMappedAutomaton() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        write(directory.resolve(getResourceName(2, false)), resources.getParametricDescription(2, false));
+
+        String[] candidates = {"abcdefg", "abdcefg", "bcdefg", "abxdefgh", "xbcdxfg", "gfedcba", ""};
+        LevenshteinAutomatonConfig config = new LevenshteinAutomatonConfig("abcdefg", 2);
+        ParametricLevenshteinAutomaton expected = ParametricLevenshteinAutomaton.create(config);
+        ParametricLevenshteinAutomaton mapped = ParametricLevenshteinAutomaton.create(config,
+                new DirectoryParametricDescriptionFactory(directory));
+
+        assertArrayEquals(expected.distanceAll(candidates), mapped.distanceAll(candidates));
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void testUnexpectedDescription() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        write(directory.resolve(getResourceName(1, false)), resources.getParametricDescription(2, false));
+
+        new DirectoryParametricDescriptionFactory(directory).getParametricDescription(1, false);
+    }
+
+    @Test(expected = IOException.class)
+    public void testMapTruncated() throws Exception {
+        Path file = folder.getRoot().toPath().resolve(getResourceName(2, false));
+        write(file, resources.getParametricDescription(2, false));
+
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 8));
+
+        EncodedParametricDescriptionFormat.map(file);
+    }
+
+    private static void write(Path file, EncodedParametricDescription description) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            EncodedParametricDescriptionFormat.write(description, out);
+        }
+    }
+}
@@ -19,8 +19,13 @@ import io.itdraft.levenshteinautomaton.description.parametric.ParametricDescript
 import io.itdraft.levenshteinautomaton.util.StringUtil;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.NoSuchElementException;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class EncodedParametricDescriptionTest {
@@ -71,4 +76,85 @@ public class EncodedParametricDescriptionTest {
 
         assertTrue(description.isFinalState(stateId, StringUtil.codePointCount(word)));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testBinaryFormat() throws Exception {
+        for (int degree = 1; degree <= 3; degree++) {
+            for (boolean inclTransposition : new boolean[]{false, true}) {
+                EncodedParametricDescription description =
+                        (EncodedParametricDescription) factory.getParametricDescription(degree, inclTransposition);
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+                EncodedParametricDescriptionFormat.write(description, out);
+                EncodedParametricDescription read = EncodedParametricDescriptionFormat.read(
+                        new ByteArrayInputStream(out.toByteArray()));
+
+                assertEquals(description.toJavaString(), read.toJavaString());
+            }
+        }
+    }
+
+    @Test
+    public void testBinaryFormatVersion1() throws Exception {
+        EncodedParametricDescription description =
+                (EncodedParametricDescription) factory.getParametricDescription(2, true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EncodedParametricDescriptionFormat.write(description, out);
+        ByteBuffer bytes = ByteBuffer.wrap(out.toByteArray());
+
+        // version 1 is version 2 without the per state metadata,
+        // the metadata is 8 bytes per state so the packed arrays stay aligned
+        int statesCount = bytes.getInt(16);
+        int metadataStart = 20 + statesCount * 4;
+        int metadataEnd = metadataStart + statesCount * 8;
+        ByteBuffer version1 = ByteBuffer.allocate(bytes.capacity() - statesCount * 8);
+        version1.put(bytes.array(), 0, metadataStart)
+                .put(bytes.array(), metadataEnd, bytes.capacity() - metadataEnd)
+                .putInt(4, 1);
+
+        EncodedParametricDescription read = EncodedParametricDescriptionFormat.read(
+                new ByteArrayInputStream(version1.array()));
+        int w = 7;
+
+        assertTrue(read.getDegree() == 2);
+        for (int stateId = 0; stateId < (w + 1) * (statesCount + 1); stateId++) {
+            if (read.isFailureState(stateId)) continue;
+
+            // without the metadata the bounds are conservative
+            assertEquals(0, read.getMinErrors(stateId));
+            assertTrue(read.getMaxRemainingLength(stateId, w) >=
+                    description.getMaxRemainingLength(stateId, w));
+        }
+        assertEquals(
+                description.getNextStateId(3, description.getInitialStateId()),
+                read.getNextStateId(3, read.getInitialStateId()));
+    }
+
+    @Test(expected = IOException.class)
+    public void testBinaryFormatWithWrongMagic() throws Exception {
+        EncodedParametricDescriptionFormat.read(new ByteArrayInputStream(new byte[16]));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testResourceDescriptions() throws Exception {
+        for (int degree = 3; degree <= EncodedParametricDescriptionFactory.MAX_RESOURCE_DEGREE; degree++) {
+            for (boolean inclTransposition : new boolean[]{false, true}) {
+                EncodedParametricDescription description =
+                        (EncodedParametricDescription) factory.getParametricDescription(degree, inclTransposition);
+
+                assertTrue(description.getDegree() == degree);
+                assertTrue(description.doesInclTransposition() == inclTransposition);
+                assertTrue(description == factory.getParametricDescription(degree, inclTransposition));
+            }
+        }
+
+        assertTrue(EncodedParametricDescriptionFactory.EXCL_TRANSPOSITION_BY_DEGREE.get(1) ==
+                factory.getParametricDescription(1, false));
+        assertTrue(EncodedParametricDescriptionFactory.INCL_TRANSPOSITION_BY_DEGREE.get(3) ==
+                factory.getParametricDescription(3, true));
+
+        assertTrue(factory.getParametricDescription(
+                EncodedParametricDescriptionFactory.MAX_RESOURCE_DEGREE + 1, false) == null);
+    }
+}
@@ -0,0 +1,85 @@
+package io.itdraft.levenshteinautomaton.description.parametric.coding;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import io.itdraft.levenshteinautomaton.LevenshteinAutomatonConfig;
+import io.itdraft.levenshteinautomaton.ParametricLevenshteinAutomaton;
+import io.itdraft.levenshteinautomaton.description.parametric.ParametricDescription;
+import io.itdraft.levenshteinautomaton.description.parametric.ParametricDescriptionFactory;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FastParametricDescriptionTest {
+
+    private final ParametricDescriptionFactory compact = new EncodedParametricDescriptionFactory();
+
+    private final ParametricDescriptionFactory fast = new FastParametricDescriptionFactory(compact);
+
+    @Test
+    public void testSameTransitions() throws Exception {
+        for (int degree = 1; degree <= EncodedParametricDescriptionFactory.MAX_RESOURCE_DEGREE; degree++) {
+            for (boolean inclTransposition : new boolean[]{false, true}) {
+                ParametricDescription expected = compact.getParametricDescription(degree, inclTransposition);
+                ParametricDescription actual = fast.getParametricDescription(degree, inclTransposition);
+                int maxVector = (1 << (2 * degree + 2)) - 1;
+
+                assertTrue(actual instanceof FastParametricDescription);
+
+                // state ids of the min boundaries 0 to 3 including the failure states
+                for (int stateId = 0; stateId < statesCount(expected) * 4; stateId++) {
+                    assertEquals(expected.isFailureState(stateId), actual.isFailureState(stateId));
+
+                    for (int w = 0; w < 12; w++) {
+                        assertEquals(expected.isFinalState(stateId, w), actual.isFinalState(stateId, w));
+                        assertEquals(expected.getDistance(stateId, w), actual.getDistance(stateId, w));
+                    }
+
+                    for (int vector = 1; vector <= maxVector; vector++) {
+                        assertEquals(expected.getNextStateId(vector, stateId),
+                                actual.getNextStateId(vector, stateId));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFastAutomaton() throws Exception {
+        String[] words = {"abcdefg", "abdcefg", "bacdefgx", "abc", "xyzabcdefg", ""};
+
+        for (int degree = 1; degree <= 2; degree++) {
+            LevenshteinAutomatonConfig config = new LevenshteinAutomatonConfig("abcdefg", degree, true);
+
+            assertArrayEquals(ParametricLevenshteinAutomaton.create(config, compact).distanceAll(words),
+                    ParametricLevenshteinAutomaton.create(config, fast).distanceAll(words));
+        }
+    }
+
+    @Test
+    public void testFactory() throws Exception {
+        assertSame(fast.getParametricDescription(3, true), fast.getParametricDescription(3, true));
+        assertNull(fast.getParametricDescription(5, false));
+        assertNull(fast.getParametricDescription(0, false));
+    }
+
+    private static int statesCount(ParametricDescription description) {
+        return ((EncodedParametricDescription) description).getDegreeMinusStateLengthAddendums().length + 1;
+    }
+}
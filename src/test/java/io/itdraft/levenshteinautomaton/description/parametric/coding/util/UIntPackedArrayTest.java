@@ -17,6 +17,8 @@ package io.itdraft.levenshteinautomaton.description.parametric.coding.util;
 import io.itdraft.levenshteinautomaton.util.UIntPackedArray;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 import static org.junit.Assert.assertTrue;
 
 public class UIntPackedArrayTest {
@@ -33,6 +35,16 @@ public class UIntPackedArrayTest {
         }
     }
 
+    @Test
+    public void testPackedLength() throws Exception {
+        int[] xs = new int[65];
+        for (int i = 0; i < xs.length; i++) xs[i] = i % 8;
+
+        assertTrue(UIntPackedArray.pack(Arrays.copyOf(xs, 64)).getPackedLength() == 3);
+        assertTrue(UIntPackedArray.pack(xs).getPackedLength() == 4);
+        assertTrue(UIntPackedArray.pack(xs).get(64) == 0);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testPackMustBeNotEmpty() {
         UIntPackedArray.pack(new int[]{});
@@ -0,0 +1,148 @@
+package io.itdraft.levenshteinautomaton.dictionary;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import io.itdraft.levenshteinautomaton.LevenshteinAutomatonConfig;
+import io.itdraft.levenshteinautomaton.ParametricLevenshteinAutomaton;
+import org.junit.Test;
+
+import java.util.*;
+
+import static io.itdraft.levenshteinautomaton.LevenshteinDistanceUtil.distance;
+import static io.itdraft.levenshteinautomaton.LevenshteinDistanceUtil.prefixDistance;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DictionarySearchTest {
+
+    static final List<String> WORDS = Arrays.asList(
+            "", "a", "ab", "abc", "abd", "abcd", "bacd", "acbd", "abdc", "xbcd", "abcde",
+            "abcdef", "dcba", "hello", "help", "hell", "shell", "yellow", "fellow", "\uD83D\uDE00bcd");
+
+    @Test
+    public void testSearch() throws Exception {
+        Trie trie = Trie.create(WORDS);
+
+        for (String query : Arrays.asList("", "abcd", "hello", "\uD83D\uDE00bc", "zzz")) {
+            for (int degree = 1; degree <= 2; degree++) {
+                for (boolean inclTransposition : new boolean[]{false, true}) {
+                    ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(
+                            new LevenshteinAutomatonConfig(query, degree, inclTransposition));
+                    Set<String> expected = new TreeSet<>();
+
+                    for (String word : WORDS) {
+                        if (distance(query, word, inclTransposition) <= degree) expected.add(word);
+                    }
+
+                    assertEquals(expected, new TreeSet<>(DictionarySearch.search(trie, automaton)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFinalStates() throws Exception {
+        Trie trie = Trie.create(WORDS);
+        ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(
+                new LevenshteinAutomatonConfig("abcd", 1));
+        final int[] count = {0};
+
+        DictionarySearch.search(trie, automaton, (word, finalState) -> {
+            assertTrue(automaton.isFinalState(finalState));
+            count[0]++;
+        });
+
+        assertTrue(count[0] > 0);
+    }
+
+    @Test
+    public void testSearchPrefix() throws Exception {
+        Trie trie = Trie.create(WORDS);
+
+        for (String query : Arrays.asList("", "a", "ab", "hel", "yelo", "\uD83D\uDE00b", "zzz")) {
+            for (int degree = 1; degree <= 2; degree++) {
+                for (boolean inclTransposition : new boolean[]{false, true}) {
+                    ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(
+                            new LevenshteinAutomatonConfig(query, degree, inclTransposition));
+                    Set<String> expected = new TreeSet<>();
+
+                    for (String word : WORDS) {
+                        if (prefixDistance(query, word, inclTransposition) <= degree) expected.add(word);
+                    }
+
+                    List<String> found = DictionarySearch.searchPrefix(trie, automaton);
+                    assertEquals(expected.size(), found.size());
+                    assertEquals(expected, new TreeSet<>(found));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSearchPrefixEmitsSubtrees() throws Exception {
+        Trie trie = Trie.create(WORDS);
+        ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(
+                new LevenshteinAutomatonConfig("hel", 1));
+        List<String> prefixes = new ArrayList<>();
+
+        DictionarySearch.searchPrefix(trie, automaton, (prefix, node, finalState) -> {
+            assertTrue(automaton.isPrefixFinalState(finalState));
+            prefixes.add(prefix);
+        });
+
+        // "he" is within 1 edit of "hel", so its subtree isn't traversed any deeper
+        assertTrue(prefixes.contains("he"));
+        assertTrue(!prefixes.contains("hel"));
+        assertTrue(!prefixes.contains("hello"));
+    }
+
+    @Test
+    public void testSearchTopK() throws Exception {
+        Trie trie = Trie.create(WORDS);
+
+        for (String query : Arrays.asList("", "abcd", "hello", "yelow", "zzz")) {
+            for (int k = 1; k <= 5; k++) {
+                for (boolean inclTransposition : new boolean[]{false, true}) {
+                    List<Suggestion> expected = new ArrayList<>();
+
+                    for (String word : WORDS) {
+                        int distance = distance(query, word, inclTransposition);
+                        if (distance <= 2) expected.add(new Suggestion(word, distance, weight(word)));
+                    }
+                    expected.sort(Suggestion.BEST_FIRST);
+
+                    assertEquals(expected.subList(0, Math.min(k, expected.size())),
+                            DictionarySearch.searchTopK(trie, query, 2, inclTransposition, k,
+                                    DictionarySearchTest::weight));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSearchTopKStopsAtSmallestDistance() throws Exception {
+        Trie trie = Trie.create(WORDS);
+
+        // "hello" itself is enough, so no description is even requested
+        List<Suggestion> suggestions = DictionarySearch.searchTopK(trie, "hello", 2, false, 1,
+                word -> 1.0, (degree, inclTransposition) -> null);
+
+        assertEquals(Collections.singletonList(new Suggestion("hello", 0, 1.0)), suggestions);
+    }
+
+    private static double weight(String word) {
+        return word.length() % 3;
+    }
+}
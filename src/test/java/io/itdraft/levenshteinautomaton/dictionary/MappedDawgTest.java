@@ -0,0 +1,221 @@
+package io.itdraft.levenshteinautomaton.dictionary;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import io.itdraft.levenshteinautomaton.LevenshteinAutomatonConfig;
+import io.itdraft.levenshteinautomaton.ParametricLevenshteinAutomaton;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static io.itdraft.levenshteinautomaton.dictionary.DictionarySearchTest.WORDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MappedDawgTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSearchLikeTrie() throws Exception {
+        List<String> words = new ArrayList<>(WORDS);
+        words.addAll(Arrays.asList("\u0451\u043B\u043A\u0430", "\u0435\u043B\u043A\u0430", "caf\u00E9", "\uFF41bc"));
+        Trie trie = Trie.create(words);
+        MappedDawg dawg = MappedDawg.map(build(sorted(words), false));
+
+        assertEquals(trie.getWordsCount(), dawg.getWordsCount());
+        assertEquals(trie.getMaxWordLength(), dawg.getMaxWordLength());
+        assertFalse(dawg.hasPayloads());
+
+        for (String query : Arrays.asList("", "abcd", "hello", "\uD83D\uDE00bc", "\u0435\u043B\u043A", "abc")) {
+            for (int degree = 1; degree <= 2; degree++) {
+                ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(
+                        new LevenshteinAutomatonConfig(query, degree, true));
+
+                assertEquals(new TreeSet<>(DictionarySearch.search(trie, automaton)),
+                        new TreeSet<>(DictionarySearch.search(dawg, automaton)));
+                assertEquals(new TreeSet<>(DictionarySearch.searchPrefix(trie, automaton)),
+                        new TreeSet<>(DictionarySearch.searchPrefix(dawg, automaton)));
+            }
+        }
+    }
+
+    @Test
+    public void testOrdinalsAndPayloads() throws Exception {
+        List<String> words = sorted(WORDS);
+        MappedDawg dawg = MappedDawg.map(build(words, true));
+
+        assertTrue(dawg.hasPayloads());
+        for (int i = 0; i < words.size(); i++) {
+            assertEquals(i, dawg.getOrdinal(words.get(i)));
+            assertEquals(ByteBuffer.wrap(payload(words.get(i))), dawg.getPayload(words.get(i)));
+        }
+
+        assertEquals(-1, dawg.getOrdinal("abcdx"));
+        assertEquals(-1, dawg.getOrdinal("ac"));
+        assertNull(dawg.getPayload("zzz"));
+    }
+
+    @Test
+    public void testMinimization() throws Exception {
+        List<String> words = new ArrayList<>();
+        for (String prefix : Arrays.asList("re", "pre", "un", "")) {
+            for (String stem : Arrays.asList("play", "work", "load")) {
+                for (String suffix : Arrays.asList("", "ed", "ing", "s")) words.add(prefix + stem + suffix);
+            }
+        }
+        Trie trie = Trie.create(words);
+        Path file = build(sorted(words), false);
+        MappedDawg dawg = MappedDawg.map(file);
+
+        // the endings are shared by every prefix and stem
+        assertTrue(countNodes(dawg) * 4 < trie.getNodesCount());
+        for (String word : words) assertTrue(dawg.contains(word));
+        assertFalse(dawg.contains("relo"));
+        assertFalse(dawg.contains("workings"));
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        MappedDawg dawg = MappedDawg.map(build(Collections.<String>emptyList(), false));
+
+        assertEquals(0, dawg.getWordsCount());
+        assertTrue(dawg.getFirstArc(dawg.getRootNode()) == Dictionary.NO_ARC);
+        assertFalse(dawg.contains(""));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsortedTerms() throws Exception {
+        try (MappedDawgBuilder builder = MappedDawgBuilder.create(folder.newFile().toPath(), false)) {
+            builder.add("b").add("a");
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateTerms() throws Exception {
+        try (MappedDawgBuilder builder = MappedDawgBuilder.create(folder.newFile().toPath(), false)) {
+            builder.add("ab").add("ab");
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnpairedSurrogate() throws Exception {
+        try (MappedDawgBuilder builder = MappedDawgBuilder.create(folder.newFile().toPath(), false)) {
+            builder.add("a\ud83d");
+        }
+    }
+
+    @Test
+    public void testMapSectionsBeyondSingleBuffer() throws Exception {
+        Path small = build(Collections.singletonList("a"), true);
+        ByteBuffer source = ByteBuffer.wrap(Files.readAllBytes(small));
+        int nodesLength = source.getInt(7 * Integer.BYTES);
+        int payloadsLength = Integer.MAX_VALUE - 16;
+
+        // the sections are written after a sparse payloads section
+        ByteBuffer header = ByteBuffer.allocate(MappedDawg.HEADER_SIZE);
+        header.put(source.array(), 0, MappedDawg.HEADER_SIZE);
+        header.putInt(6 * Integer.BYTES, payloadsLength);
+        header.flip();
+        ByteBuffer tail = ByteBuffer.allocate(2 * Integer.BYTES + nodesLength);
+        tail.putInt(0).putInt(payloadsLength);
+        tail.put(source.array(), source.limit() - nodesLength, nodesLength);
+        tail.flip();
+
+        Path file = folder.newFile().toPath();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(header, 0);
+            channel.write(tail, MappedDawg.HEADER_SIZE + (long) payloadsLength);
+        }
+        assertTrue(Files.size(file) > Integer.MAX_VALUE);
+
+        MappedDawg dawg = MappedDawg.map(file);
+        assertTrue(dawg.contains("a"));
+        assertEquals(payloadsLength, dawg.getPayload("a").remaining());
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotADawg() throws Exception {
+        Path file = folder.newFile().toPath();
+        Files.write(file, new byte[64]);
+
+        MappedDawg.map(file);
+    }
+
+    private Path build(List<String> sortedWords, boolean storePayloads) throws IOException {
+        Path file = folder.newFile().toPath();
+
+        try (MappedDawgBuilder builder = MappedDawgBuilder.create(file, storePayloads)) {
+            for (String word : sortedWords) {
+                if (storePayloads) builder.add(word, payload(word));
+                else builder.add(word);
+            }
+            builder.finish();
+        }
+
+        return file;
+    }
+
+    private static byte[] payload(String word) {
+        return ("#" + word).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Sorts distinct words in the code point order, which is the order of UTF-8 bytes.
+     */
+    private static List<String> sorted(List<String> words) {
+        SortedSet<String> result = new TreeSet<>(Comparator.comparing(
+                (String word) -> word.getBytes(StandardCharsets.UTF_8), MappedDawgTest::compareUnsigned));
+        result.addAll(words);
+        return new ArrayList<>(result);
+    }
+
+    private static int compareUnsigned(byte[] a, byte[] b) {
+        for (int i = 0; i < Math.min(a.length, b.length); i++) {
+            int c = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (c != 0) return c;
+        }
+        return a.length - b.length;
+    }
+
+    private static int countNodes(Dictionary dictionary) {
+        Set<Integer> visited = new HashSet<>();
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(dictionary.getRootNode());
+
+        while (!stack.isEmpty()) {
+            int node = stack.pop();
+            if (!visited.add(node)) continue;
+
+            for (int arc = dictionary.getFirstArc(node); arc != Dictionary.NO_ARC; arc = dictionary.getNextArc(arc)) {
+                stack.push(dictionary.getArcTarget(arc));
+            }
+        }
+
+        return visited.size();
+    }
+}
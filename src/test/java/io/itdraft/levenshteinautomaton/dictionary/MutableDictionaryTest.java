@@ -0,0 +1,158 @@
+package io.itdraft.levenshteinautomaton.dictionary;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import io.itdraft.levenshteinautomaton.LevenshteinAutomatonConfig;
+import io.itdraft.levenshteinautomaton.ParametricLevenshteinAutomaton;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static io.itdraft.levenshteinautomaton.dictionary.DictionarySearchTest.WORDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MutableDictionaryTest {
+
+    @Test
+    public void testUpdates() throws Exception {
+        MutableDictionary dictionary = MutableDictionary.create(WORDS, 100, Runnable::run);
+        Set<String> expected = new HashSet<>(WORDS);
+
+        assertTrue(dictionary.insert("helps"));
+        assertFalse(dictionary.insert("help"));
+        assertTrue(dictionary.delete("hello"));
+        assertFalse(dictionary.delete("hello"));
+        assertTrue(dictionary.insert("hello"));
+        assertTrue(dictionary.delete("helps"));
+        assertTrue(dictionary.delete("shell"));
+        assertTrue(dictionary.insert("yell"));
+        expected.remove("shell");
+        expected.add("yell");
+
+        assertEquals(expected.size(), dictionary.size());
+        assertEquals(2, dictionary.getDeltaSize());
+        assertSearchesLike(expected, dictionary);
+
+        dictionary.compact();
+        assertEquals(0, dictionary.getDeltaSize());
+        assertEquals(expected.size(), dictionary.size());
+        assertSearchesLike(expected, dictionary);
+    }
+
+    @Test
+    public void testCompactionIsTriggeredByDeltaSize() throws Exception {
+        MutableDictionary dictionary = MutableDictionary.create(WORDS, 3, Runnable::run);
+
+        dictionary.insert("w1");
+        dictionary.insert("w2");
+        dictionary.delete("abc");
+        assertEquals(3, dictionary.getDeltaSize());
+
+        dictionary.insert("w3");
+        assertEquals(0, dictionary.getDeltaSize());
+        assertTrue(dictionary.contains("w3"));
+        assertFalse(dictionary.contains("abc"));
+    }
+
+    @Test
+    public void testRejectedCompaction() throws Exception {
+        boolean[] rejecting = {true};
+        MutableDictionary dictionary = MutableDictionary.create(WORDS, 1, command -> {
+            if (rejecting[0]) throw new RejectedExecutionException();
+            command.run();
+        });
+
+        assertTrue(dictionary.insert("w1"));
+        assertTrue(dictionary.insert("w2"));
+        assertTrue(dictionary.delete("abc"));
+        assertEquals(2, dictionary.getRejectedCompactionsCount());
+        assertEquals(3, dictionary.getDeltaSize());
+        assertTrue(dictionary.contains("w2"));
+        assertFalse(dictionary.contains("abc"));
+
+        rejecting[0] = false;
+        dictionary.insert("w3");
+        assertEquals(0, dictionary.getDeltaSize());
+        assertTrue(dictionary.contains("w2"));
+    }
+
+    @Test
+    public void testConcurrentUpdatesAndSearches() throws Exception {
+        ExecutorService compactor = Executors.newSingleThreadExecutor();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        MutableDictionary dictionary = MutableDictionary.create(WORDS, 50, compactor);
+        ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(
+                new LevenshteinAutomatonConfig("abcd", 1, true));
+        // words near "abcd" are never updated
+        Set<String> expected = new TreeSet<>(DictionarySearch.search(Trie.create(WORDS), automaton));
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 3; t++) {
+                final String prefix = "w" + t + "-";
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 300; i++) {
+                        assertTrue(dictionary.insert(prefix + i));
+                        if (i % 2 == 1) assertTrue(dictionary.delete(prefix + (i - 1)));
+                    }
+                }));
+            }
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    assertEquals(expected, new TreeSet<>(dictionary.search(automaton)));
+                }
+            }));
+            for (Future<?> future : futures) future.get();
+
+            compactor.shutdown();
+            assertTrue(compactor.awaitTermination(10, TimeUnit.SECONDS));
+            dictionary.compact();
+
+            assertEquals(0, dictionary.getDeltaSize());
+            assertEquals(WORDS.size() + 3 * 150, dictionary.size());
+            for (int t = 0; t < 3; t++) {
+                for (int i = 0; i < 300; i++) {
+                    assertEquals(i % 2 == 1, dictionary.contains("w" + t + "-" + i));
+                }
+            }
+
+        } finally {
+            pool.shutdownNow();
+            compactor.shutdownNow();
+        }
+    }
+
+    private static void assertSearchesLike(Set<String> words, MutableDictionary dictionary) throws Exception {
+        Trie trie = Trie.create(words);
+
+        for (String query : Arrays.asList("", "help", "yellow", "abcd")) {
+            ParametricLevenshteinAutomaton automaton = ParametricLevenshteinAutomaton.create(
+                    new LevenshteinAutomatonConfig(query, 1, true));
+
+            assertEquals(new TreeSet<>(DictionarySearch.search(trie, automaton)),
+                    new TreeSet<>(dictionary.search(automaton)));
+            assertEquals(new TreeSet<>(DictionarySearch.searchPrefix(trie, automaton)),
+                    new TreeSet<>(dictionary.searchPrefix(automaton)));
+        }
+        for (String word : words) assertTrue(dictionary.contains(word));
+    }
+}
@@ -0,0 +1,88 @@
+package io.itdraft.levenshteinautomaton.dictionary;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PersistentTrieTest {
+
+    @Test
+    public void testWithAndWithout() throws Exception {
+        PersistentTrie empty = PersistentTrie.empty();
+        PersistentTrie trie = empty.with("car").with("cart").with("cat").with("").with("\uD83D\uDE00x");
+
+        assertEquals(5, trie.getWordsCount());
+        assertTrue(trie.contains("car"));
+        assertTrue(trie.contains(""));
+        assertTrue(trie.contains("\uD83D\uDE00x"));
+        assertFalse(trie.contains("ca"));
+        assertSame(trie, trie.with("cart"));
+        assertSame(trie, trie.without("ca"));
+
+        PersistentTrie removed = trie.without("car").without("");
+        assertEquals(3, removed.getWordsCount());
+        assertFalse(removed.contains("car"));
+        assertFalse(removed.contains(""));
+        assertTrue(removed.contains("cart"));
+
+        // versions don't change
+        assertTrue(trie.contains("car"));
+        assertEquals(0, empty.getWordsCount());
+        assertEquals(new TreeSet<>(words(trie)), new TreeSet<>(words(removed.with("car").with(""))));
+    }
+
+    @Test
+    public void testRandomUpdates() throws Exception {
+        Random random = new Random(7);
+        PersistentTrie trie = PersistentTrie.empty();
+        TreeSet<String> expected = new TreeSet<>();
+
+        // updates cancel each other, so unreachable nodes are dropped many times
+        for (int i = 0; i < 20000; i++) {
+            String word = Integer.toString(random.nextInt(300), 4);
+
+            if (random.nextBoolean()) {
+                trie = trie.with(word);
+                expected.add(word);
+            } else {
+                trie = trie.without(word);
+                expected.remove(word);
+            }
+        }
+
+        assertEquals(expected.size(), trie.getWordsCount());
+        assertEquals(expected, new TreeSet<>(words(trie)));
+        for (int i = 0; i < 300; i++) {
+            String word = Integer.toString(i, 4);
+            assertEquals(expected.contains(word), trie.contains(word));
+        }
+    }
+
+    private static List<String> words(PersistentTrie trie) {
+        List<String> result = new ArrayList<>();
+        DictionarySearch.collectWords(trie, "", trie.getRootNode(), result);
+        return result;
+    }
+}
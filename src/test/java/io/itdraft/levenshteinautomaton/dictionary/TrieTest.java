@@ -0,0 +1,68 @@
+package io.itdraft.levenshteinautomaton.dictionary;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TrieTest {
+
+    @Test
+    public void testContains() throws Exception {
+        Trie trie = Trie.create(Arrays.asList("car", "cart", "cat", "dog", "car", "", "\uD83D\uDE00x"));
+
+        assertTrue(trie.getWordsCount() == 6);
+        assertTrue(trie.contains("car"));
+        assertTrue(trie.contains("cart"));
+        assertTrue(trie.contains("cat"));
+        assertTrue(trie.contains("dog"));
+        assertTrue(trie.contains(""));
+        assertTrue(trie.contains("\uD83D\uDE00x"));
+        assertFalse(trie.contains("ca"));
+        assertFalse(trie.contains("carts"));
+        assertFalse(trie.contains("x"));
+    }
+
+    @Test
+    public void testStructure() throws Exception {
+        Trie trie = Trie.create(Arrays.asList("ab", "ac", "\uD83D\uDE00"));
+
+        // root, a, U+1F600, ab, ac
+        assertTrue(trie.getNodesCount() == 5);
+        assertTrue(trie.getMaxWordLength() == 2);
+
+        int arc = trie.getFirstArc(trie.getRootNode());
+        assertTrue(trie.getArcLabel(arc) == 'a');
+        arc = trie.getNextArc(arc);
+        assertTrue(trie.getArcLabel(arc) == 0x1F600);
+        assertTrue(trie.isFinalNode(trie.getArcTarget(arc)));
+        assertTrue(trie.getFirstArc(trie.getArcTarget(arc)) == Dictionary.NO_ARC);
+        assertTrue(trie.getNextArc(arc) == Dictionary.NO_ARC);
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        Trie trie = Trie.create(Collections.<String>emptyList());
+
+        assertTrue(trie.getNodesCount() == 1);
+        assertTrue(trie.getFirstArc(trie.getRootNode()) == Dictionary.NO_ARC);
+        assertFalse(trie.contains(""));
+    }
+}
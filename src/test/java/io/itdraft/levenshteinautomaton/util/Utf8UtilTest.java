@@ -0,0 +1,98 @@
+package io.itdraft.levenshteinautomaton.util;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static io.itdraft.levenshteinautomaton.util.Utf8Util.REPLACEMENT_CHARACTER;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class Utf8UtilTest {
+
+    @Test
+    public void testDecodeWellFormed() throws Exception {
+        String s = "a\u00e9\u0439\u20ac\ud83d\ude00z";
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+
+        assertArrayEquals(s.codePoints().toArray(), decodeAll(bytes));
+        assertArrayEquals(s.codePoints().toArray(), decodeAll(ByteBuffer.wrap(bytes)));
+    }
+
+    @Test
+    public void testDecodeMalformed() throws Exception {
+        int r = REPLACEMENT_CHARACTER;
+
+        // a stray continuation and an invalid lead byte
+        assertArrayEquals(new int[]{r, 'a', r}, decodeAll(bytes(0x80, 'a', 0xFF)));
+        // a truncated sequence is replaced up to the byte which isn't a continuation
+        assertArrayEquals(new int[]{r, 'a'}, decodeAll(bytes(0xE2, 0x82, 'a')));
+        assertArrayEquals(new int[]{'a', r}, decodeAll(bytes('a', 0xF0, 0x9F, 0x98)));
+        // overlong, a surrogate and beyond U+10FFFF
+        assertArrayEquals(new int[]{r, r}, decodeAll(bytes(0xC0, 0xAF)));
+        assertArrayEquals(new int[]{r}, decodeAll(bytes(0xE0, 0x80, 0xAF)));
+        assertArrayEquals(new int[]{r}, decodeAll(bytes(0xED, 0xA0, 0x80)));
+        assertArrayEquals(new int[]{r}, decodeAll(bytes(0xF4, 0x90, 0x80, 0x80)));
+    }
+
+    @Test
+    public void testDecodeRespectsUntil() throws Exception {
+        byte[] bytes = "\u20ac".getBytes(StandardCharsets.UTF_8);
+
+        int decoded = Utf8Util.decode(bytes, 0, 2);
+        assertEquals(REPLACEMENT_CHARACTER, Utf8Util.codePoint(decoded));
+        assertEquals(2, Utf8Util.length(decoded));
+
+        decoded = Utf8Util.decode(bytes, 0, 3);
+        assertEquals(0x20ac, Utf8Util.codePoint(decoded));
+        assertEquals(3, Utf8Util.length(decoded));
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] result = new byte[values.length];
+        for (int i = 0; i < values.length; i++) result[i] = (byte) values[i];
+        return result;
+    }
+
+    private static int[] decodeAll(byte[] bytes) {
+        int[] result = new int[bytes.length];
+        int count = 0;
+
+        for (int i = 0; i < bytes.length; ) {
+            int decoded = Utf8Util.decode(bytes, i, bytes.length);
+            result[count++] = Utf8Util.codePoint(decoded);
+            i += Utf8Util.length(decoded);
+        }
+
+        return Arrays.copyOf(result, count);
+    }
+
+    private static int[] decodeAll(ByteBuffer buffer) {
+        int[] result = new int[buffer.remaining()];
+        int count = 0;
+
+        for (int i = buffer.position(); i < buffer.limit(); ) {
+            int decoded = Utf8Util.decode(buffer, i, buffer.limit());
+            result[count++] = Utf8Util.codePoint(decoded);
+            i += Utf8Util.length(decoded);
+        }
+
+        return Arrays.copyOf(result, count);
+    }
+}
@@ -56,6 +56,73 @@ class LazyLevenshteinAutomatonSpec extends Specification with Tables {
             LazyLevenshteinAutomaton(correct, degree, inclTransp) must notAccept(misspelled)
       }
     }
+
+    "accept acceptable misspelled words by state buffers" in {
+      val rows = generateRowsForAcceptableMisspelledWords
+
+      Table4("correct" :: "misspelled" :: "degree" :: "inclTranspositions" :: Nil, rows) |> {
+        (correct, misspelled, degree, inclTransp) =>
+            LazyLevenshteinAutomaton(correct, degree, inclTransp) must acceptByPositionSets(misspelled)
+      }
+    }
+
+    "reject not acceptable misspelled words by state buffers" in {
+      "correct" | "misspelled" | "degree" | "inclTranspositions" |>
+        "abcdefg" ! "abcdefgx" ! 0 ! true |
+        "abcdefg" ! "abcdef" ! 0 ! false |
+        "abcdefg" ! "abcdefgxx" ! 1 ! true |
+        "abcdefg" ! "abcde" ! 1 ! false |
+        "abcdefg" ! "abcdefgxxx" ! 2 ! true |
+        "abcdefg" ! "abcd" ! 2 ! false |
+        "ab" * 15 ! ("ab" * 15).takeRight(14) ! 15 ! true |
+        "ab" * 15 ! ("ab" * 15) + ("d" * 16) ! 15 ! false |
+        "ab" * 15 ! ("ac" * 14) + "cc" ! 15 ! true | {
+        (correct, misspelled, degree, inclTransp) =>
+            LazyLevenshteinAutomaton(correct, degree, inclTransp) must notAcceptByPositionSets(misspelled)
+      }
+    }
+
+    "compute the Levenshtein-distance to a recognized word" in {
+      val alphabet = Seq('a', 'b', 'c')
+      val words = for (a <- alphabet; b <- alphabet; c <- alphabet; d <- alphabet)
+        yield s"$a$b$c$d"
+
+      for (degree <- 0 to 5; inclTransp <- Seq(false, true);
+           correct <- Seq("", "abc", "abcab"); misspelled <- words :+ "") {
+        val automaton = LazyLevenshteinAutomaton(correct, degree, inclTransp)
+        val expected = LevenshteinDistanceUtil.distance(correct, misspelled, inclTransp)
+
+        automaton.getDistance(processPositionSets(automaton, misspelled)) must
+          be equalTo (if (expected <= degree) expected else -1)
+      }
+      ok
+    }
+
+    "fold code points of the word and of alphas" in {
+      val config = createLevenshteinAutomatonConfig("Stra\u00dfe", 1)
+      config.setCodePointFolding(CodePointFolding.CASE_AND_ACCENT_INSENSITIVE)
+      val automaton = LazyLevenshteinAutomaton(config)
+
+      automaton.getDistance(processPositionSets(automaton, "STRASE")) must be equalTo 1
+      automaton.getDistance(processPositionSets(automaton, "str\u00e0\u00dfe")) must be equalTo 0
+    }
+
+    "transit the same way with state buffers and with states" in {
+      val automaton = LazyLevenshteinAutomaton("abcabc", 2, inclTransposition = true)
+      var state = automaton.initialState
+      var cur = automaton.initialState(automaton.newState)
+      var next = automaton.newState
+
+      for (x <- "bacbxc".toSeq) {
+        state = automaton.getNextState(state, x)
+        val t = automaton.getNextState(cur, x, next)
+        next = cur
+        cur = t
+        state.isFinal must be equalTo automaton.isFinal(cur)
+        state.isFailure must be equalTo automaton.isFailure(cur)
+      }
+      ok
+    }
   }
 
   def accept(misspelled: String): Matcher[LazyLevenshteinAutomaton] = {
@@ -76,6 +143,30 @@ class LazyLevenshteinAutomatonSpec extends Specification with Tables {
     state
   }
 
+  def acceptByPositionSets(misspelled: String): Matcher[LazyLevenshteinAutomaton] = {
+    automaton: LazyLevenshteinAutomaton =>
+      val state = processPositionSets(automaton, misspelled)
+      (automaton.isFinal(state), s"Levenshtein automaton must accept a misspelled word")
+  }
+
+  def notAcceptByPositionSets(misspelled: String): Matcher[LazyLevenshteinAutomaton] = {
+    automaton: LazyLevenshteinAutomaton =>
+      val state = processPositionSets(automaton, misspelled)
+      (!automaton.isFinal(state), s"Levenshtein automaton must not accept a misspelled word")
+  }
+
+  def processPositionSets(automaton: LazyLevenshteinAutomaton, misspelled: String) = {
+    var state = automaton.initialState(automaton.newState)
+    var next = automaton.newState
+
+    for (x <- misspelled) {
+      val cur = state
+      state = automaton.getNextState(cur, x, next)
+      next = cur
+    }
+    state
+  }
+
   def generateRowsForAcceptableMisspelledWords = {
     var rows: List[DataRow4[String, String, Int, Boolean]] = Nil
 
@@ -52,7 +52,7 @@ class ParametricLevenshteinAutomatonSpec extends Specification with Tables {
 
     "throw ParametricDescriptionNotFoundException when " +
       "it's being created and parametric description is not found" in {
-      val config = createLevenshteinAutomatonConfig("any", 3, true)
+      val config = createLevenshteinAutomatonConfig("any", 5, true)
       ParametricLevenshteinAutomaton.create(config) must throwA[ParametricDescriptionNotFoundException]
     }
   }
@@ -0,0 +1,110 @@
+package io.itdraft.levenshteinautomaton
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.{Callable, Executors, TimeUnit}
+
+import org.specs2.mutable.Specification
+
+class TransitionCacheSpec extends Specification {
+
+  private val alphabet = Seq('a', 'b', 'c')
+
+  private val words = for (a <- alphabet; b <- alphabet; c <- alphabet; d <- alphabet)
+    yield s"$a$b$c$d"
+
+  "Transition cache" should {
+    "give the same distances as computed transitions" in {
+      for (degree <- 1 to 3; inclTransp <- Seq(false, true); capacity <- Seq(8, 4096)) {
+        val cache = new TransitionCache(degree, inclTransp, capacity)
+
+        for (correct <- Seq("", "abc", "abcab", "cabbacab"); misspelled <- words) {
+          val config = createLevenshteinAutomatonConfig(correct, degree, inclTransp)
+          val cached = LazyLevenshteinAutomaton(config, cache)
+          val automaton = LazyLevenshteinAutomaton(config)
+
+          distance(cached, misspelled) must be equalTo distance(automaton, misspelled)
+        }
+
+        cache.size must be lessThanOrEqualTo capacity
+        cache.hits must be greaterThan 0L
+        if (capacity == 8) cache.evictions must be greaterThan 0L
+      }
+      ok
+    }
+
+    "count hits and misses" in {
+      val cache = new TransitionCache(2, false, 1024)
+      val automaton = LazyLevenshteinAutomaton(
+        createLevenshteinAutomatonConfig("levenshtein", 2), cache)
+
+      distance(automaton, "levenstein")
+      val (hits, misses) = (cache.hits, cache.misses)
+      hits + misses must be equalTo "levenstein".length
+      cache.size must be equalTo misses.toInt
+
+      distance(automaton, "levenstein")
+      cache.misses must be equalTo misses
+      cache.hits must be equalTo hits + "levenstein".length
+      cache.evictions must be equalTo 0L
+    }
+
+    "share transitions between words" in {
+      val cache = new TransitionCache(1, false, 1024)
+
+      distance(LazyLevenshteinAutomaton(createLevenshteinAutomatonConfig("abcdef", 1), cache), "abcdef")
+      distance(LazyLevenshteinAutomaton(createLevenshteinAutomatonConfig("uvwxyz", 1), cache), "uvwxyz")
+
+      cache.hits must be greaterThan 0L
+    }
+
+    "be shared by threads" in {
+      val cache = new TransitionCache(2, true, 64)
+      val pool = Executors.newFixedThreadPool(4)
+
+      try {
+        val tasks = for (correct <- Seq("abcab", "bacab", "cabbacab", "abcabcabc")) yield pool.submit(
+          new Callable[Boolean] {
+            def call() = {
+              val config = createLevenshteinAutomatonConfig(correct, 2, inclTransposition = true)
+              val cached = LazyLevenshteinAutomaton(config, cache)
+              val automaton = LazyLevenshteinAutomaton(config)
+              words.forall(w => distance(cached, w) == distance(automaton, w))
+            }
+          })
+
+        tasks.forall(_.get(1, TimeUnit.MINUTES)) must beTrue
+      } finally pool.shutdown()
+    }
+
+    "reject an automaton of other degree" in {
+      val cache = new TransitionCache(2, false, 16)
+      LazyLevenshteinAutomaton(createLevenshteinAutomatonConfig("abc", 1), cache) must
+        throwA[IllegalArgumentException]
+    }
+  }
+
+  private def distance(automaton: LazyLevenshteinAutomaton, word: String) = {
+    var state = automaton.initialState(automaton.newState)
+    var next = automaton.newState
+
+    for (x <- word) {
+      val cur = state
+      state = automaton.getNextState(cur, x, next)
+      next = cur
+    }
+    automaton.getDistance(state)
+  }
+}
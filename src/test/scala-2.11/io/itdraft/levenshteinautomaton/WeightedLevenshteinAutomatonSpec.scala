@@ -0,0 +1,173 @@
+package io.itdraft.levenshteinautomaton
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.specs2.mutable.Specification
+
+class WeightedLevenshteinAutomatonSpec extends Specification {
+
+  private val alphabet = Seq('a', 'b', 'c')
+
+  private val words = Seq("") ++ (for (a <- alphabet; b <- alphabet; c <- alphabet; d <- alphabet)
+    yield s"$a$b$c$d") ++ (for (a <- alphabet; b <- alphabet) yield s"$a$b")
+
+  private val costs = Seq(
+    EditCosts.UNIT,
+    EditCosts.of(2, 3, 4, 1),
+    EditCosts.of(3, 1, 2, 5).withSubstitutionCost('a', 'b', 0),
+    EditCosts.of(2, 2, 3, 2).withSubstitutionCost('a', 'c', 1).withSubstitutionCost('b', 'c', 5))
+
+  "Weighted Levenshtein automaton" should {
+    "compute the Levenshtein-distance with unit costs" in {
+      for (degree <- 0 to 4; inclTransp <- Seq(false, true); correct <- Seq("", "abc", "abcab");
+           misspelled <- words) {
+        val automaton = WeightedLevenshteinAutomaton(
+          new WeightedLevenshteinAutomatonConfig(correct, degree, inclTransp, EditCosts.UNIT))
+        val expected = LevenshteinDistanceUtil.distance(correct, misspelled, inclTransp)
+
+        distance(automaton, misspelled) must be equalTo (if (expected <= degree) expected else -1)
+      }
+      ok
+    }
+
+    "compute the weighted Levenshtein-distance" in {
+      for (c <- costs; degree <- Seq(0, 2, 5, 8); inclTransp <- Seq(false, true);
+           correct <- Seq("", "b", "abc", "cabba"); misspelled <- words) {
+        val automaton = WeightedLevenshteinAutomaton(
+          new WeightedLevenshteinAutomatonConfig(correct, degree, inclTransp, c))
+        val expected = weightedDistance(correct, misspelled, inclTransp, c)
+
+        distance(automaton, misspelled) must be equalTo (if (expected <= degree) expected else -1)
+      }
+      ok
+    }
+
+    "rank confusable substitutions first" in {
+      val c = EditCosts.of(2, 2, 2, 2).withSubstitutionCost('0', 'O', 1).withSubstitutionCost('1', 'l', 1)
+      val automaton = WeightedLevenshteinAutomaton(new WeightedLevenshteinAutomatonConfig("BOX1", 3, false, c))
+
+      distance(automaton, "B0X1") must be equalTo 1
+      distance(automaton, "B0Xl") must be equalTo 2
+      distance(automaton, "BAX1") must be equalTo 2
+      distance(automaton, "BAXl") must be equalTo 3
+      distance(automaton, "BAXY") must be equalTo -1
+    }
+
+    "fold substitution pairs" in {
+      val c = EditCosts.of(2, 2, 2, 2).withSubstitutionCost('0', 'O', 1)
+      val config = new WeightedLevenshteinAutomatonConfig("box", 3, false, c)
+      config.setCodePointFolding(CodePointFolding.CASE_INSENSITIVE)
+      val automaton = WeightedLevenshteinAutomaton(config)
+
+      distance(automaton, "B0X") must be equalTo 1
+      distance(automaton, "b0x") must be equalTo 1
+      distance(automaton, "BAX") must be equalTo 2
+    }
+
+    "give the same distances with a transition cache" in {
+      for (c <- costs; degree <- Seq(2, 5); inclTransp <- Seq(false, true); capacity <- Seq(8, 4096)) {
+        val cache = new WeightedTransitionCache(degree, inclTransp, c, capacity)
+
+        for (correct <- Seq("", "abc", "abcab", "cabbacab"); misspelled <- words) {
+          val config = new WeightedLevenshteinAutomatonConfig(correct, degree, inclTransp, c)
+
+          distance(WeightedLevenshteinAutomaton(config, cache), misspelled) must
+            be equalTo distance(WeightedLevenshteinAutomaton(config), misspelled)
+        }
+
+        cache.size must be lessThanOrEqualTo capacity
+        cache.hits must be greaterThan 0L
+      }
+      ok
+    }
+
+    "share a transition cache between substitution costs" in {
+      val c = EditCosts.of(2, 2, 2, 2)
+      val cache = new WeightedTransitionCache(3, false, c, 1024)
+      val plain = new WeightedLevenshteinAutomatonConfig("abcab", 3, false, c)
+      val confusable = new WeightedLevenshteinAutomatonConfig("abcab", 3, false,
+        c.withSubstitutionCost('a', 'c', 1))
+
+      distance(WeightedLevenshteinAutomaton(plain, cache), "cbcab") must be equalTo 2
+      distance(WeightedLevenshteinAutomaton(confusable, cache), "cbcab") must be equalTo 1
+      distance(WeightedLevenshteinAutomaton(plain, cache), "cbcab") must be equalTo 2
+    }
+
+    "reject a cache of other operation costs" in {
+      val cache = new WeightedTransitionCache(2, false, EditCosts.UNIT, 16)
+      WeightedLevenshteinAutomaton(new WeightedLevenshteinAutomatonConfig(
+        "abc", 2, false, EditCosts.of(1, 2, 1, 1)), cache) must throwA[IllegalArgumentException]
+    }
+
+    "look up costs of many pairs" in {
+      val pairs = for (a <- 0 until 64; b <- a + 1 until 64 if (a * 7 + b) % 3 == 0) yield (a, b)
+      val c = pairs.foldLeft(EditCosts.of(1, 1, 100, 1)) { case (acc, (a, b)) =>
+        acc.withSubstitutionCost(a, b, a + b)
+      }
+
+      forall(for (a <- 0 until 64; b <- 0 until 64) yield (a, b)) { case (a, b) =>
+        val expected = if (a == b) 0 else if (pairs.contains((a min b, a max b))) a + b else 100
+        c.getSubstitutionCost(a, b) must be equalTo expected
+      }
+    }
+
+    "reject non-positive costs" in {
+      EditCosts.of(0, 1, 1, 1) must throwA[IllegalArgumentException]
+      EditCosts.UNIT.withSubstitutionCost('a', 'a', 0) must throwA[IllegalArgumentException]
+    }
+  }
+
+  private def distance(automaton: WeightedLevenshteinAutomaton, word: String) = {
+    var state = automaton.initialState(automaton.newState)
+    var next = automaton.newState
+
+    for (x <- word) {
+      val cur = state
+      state = automaton.getNextState(cur, x, next)
+      next = cur
+    }
+    automaton.getDistance(state)
+  }
+
+  /**
+    * The optimal string alignment distance where the letters of `correct` are deleted,
+    * substituted and transposed and letters are inserted into it.
+    */
+  private def weightedDistance(correct: String, misspelled: String, inclTransposition: Boolean,
+                               c: EditCosts): Int = {
+    val d = Array.ofDim[Int](correct.length + 1, misspelled.length + 1)
+
+    for (i <- 0 to correct.length; j <- 0 to misspelled.length) {
+      d(i)(j) =
+        if (i == 0) j * c.getInsertionCost
+        else if (j == 0) i * c.getDeletionCost
+        else {
+          var best = Seq(
+            d(i - 1)(j) + c.getDeletionCost,
+            d(i)(j - 1) + c.getInsertionCost,
+            d(i - 1)(j - 1) + c.getSubstitutionCost(correct.charAt(i - 1), misspelled.charAt(j - 1))
+          ).min
+
+          if (inclTransposition && i > 1 && j > 1 &&
+            correct.charAt(i - 1) == misspelled.charAt(j - 2) &&
+            correct.charAt(i - 2) == misspelled.charAt(j - 1)) {
+            best = Math.min(best, d(i - 2)(j - 2) + c.getTranspositionCost)
+          }
+          best
+        }
+    }
+    d(correct.length)(misspelled.length)
+  }
+}
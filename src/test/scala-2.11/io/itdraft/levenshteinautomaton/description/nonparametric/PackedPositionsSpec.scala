@@ -0,0 +1,82 @@
+package io.itdraft.levenshteinautomaton.description.nonparametric
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import io.itdraft.levenshteinautomaton.LevenshteinAutomatonConfig
+import io.itdraft.levenshteinautomaton.description.DefaultCharacteristicVector
+import org.specs2.mutable.Specification
+
+class PackedPositionsSpec extends Specification {
+  import io.itdraft.levenshteinautomaton._
+
+  "Packed positions" should {
+    "subsume the same positions as positions do" in {
+      implicit val c = createLevenshteinAutomatonConfig("10101010", degree = 3)
+      val all = allPositions
+
+      all.forall { case (x, px) =>
+        all.forall { case (y, py) =>
+          PackedPositions.subsumes(px, py, c.n) == x.subsumes(y)
+        }
+      } must beTrue
+    }
+
+    "turn into the same positions as the elementary transition gives" in {
+      for (degree <- 1 to 3; inclTransposition <- Seq(false, true); vector <- 2 until 256) {
+        val word = Integer.toBinaryString(vector).substring(1)
+        implicit val c = createLevenshteinAutomatonConfig(word, degree, inclTransposition)
+        val transition = ElementaryTransition()
+        val acc = new PositionSet(degree)
+
+        // t-positions occur with transposition only and are never error-free
+        for ((position, packed) <- allPositions
+             if !PackedPositions.isT(packed) || inclTransposition && position.e > 0) {
+          val v = DefaultCharacteristicVector('1', c.getWordCodePoints,
+            position.i, position.i + position.relevantSubwordMaxLength)
+          val expected = transition(position, v).imageSet.fold(Set.empty[Int])(_ + pack(_))
+
+          acc.clear()
+          val j = PackedPositions.relevantJ(packed, vector, c.w, degree)
+          PackedPositions.transit(packed, j, c.w, degree, inclTransposition, acc)
+
+          (0 until acc.size).map(acc(_)).toSet must be equalTo expected
+        }
+      }
+      ok
+    }
+  }
+
+  "PositionSet" should {
+    "keep positions which don't subsume each other" in {
+      implicit val c = createLevenshteinAutomatonConfig("10101010", degree = 2)
+      val set = new PositionSet(2)
+
+      set.reducedAdd(pack(2 ^# 1))
+      set.reducedAdd(pack(3 ^# 2))
+      set.reducedAdd(pack(5 ^# 2))
+      set.reducedAdd(pack(2 ^# 1))
+
+      (0 until set.size).map(set(_)).toSet must be equalTo Set(pack(2 ^# 1), pack(5 ^# 2))
+      set.minBoundary must be equalTo 2
+      set.toSortedArray(2).toSeq must be equalTo Seq(pack(0 ^# 1), pack(3 ^# 2))
+    }
+  }
+
+  private def pack(p: Position) = PackedPositions.pack(p.i, p.e, p.isInstanceOf[TPosition])
+
+  private def allPositions(implicit c: LevenshteinAutomatonConfig) =
+    for (i <- 0 to c.w; e <- 0 to c.n; isT <- Seq(false, true))
+      yield (if (isT) i.t ^# e else i ^# e, PackedPositions.pack(i, e, isT))
+}
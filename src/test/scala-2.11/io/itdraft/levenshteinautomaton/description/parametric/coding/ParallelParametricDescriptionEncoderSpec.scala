@@ -0,0 +1,105 @@
+package io.itdraft.levenshteinautomaton.description.parametric.coding
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.ForkJoinPool
+
+import org.specs2.mutable.Specification
+
+import scala.collection.mutable
+
+class ParallelParametricDescriptionEncoderSpec extends Specification {
+
+  "ParallelParametricDescriptionEncoder" should {
+    "compute descriptions equivalent to the shipped ones" in {
+      val factory = new EncodedParametricDescriptionFactory
+
+      for (degree <- 1 to 3; inclTransposition <- Seq(false, true)) {
+        val computed = ParallelParametricDescriptionEncoder.createEncodedParametricDescription(
+          degree, inclTransposition)
+
+        isomorphic(factory.getParametricDescription(degree, inclTransposition), computed) must beTrue
+      }
+      ok
+    }
+
+    "compute the fourth degree descriptions equivalent to the shipped ones" in {
+      // the slowest example: an encode of the fourth degree takes tens of seconds
+      val factory = new EncodedParametricDescriptionFactory
+
+      for (inclTransposition <- Seq(false, true)) {
+        val computed = ParallelParametricDescriptionEncoder.createEncodedParametricDescription(
+          4, inclTransposition)
+
+        isomorphic(factory.getParametricDescription(4, inclTransposition), computed) must beTrue
+      }
+      ok
+    }
+
+    "number states independently of the number of threads" in {
+      val pool = new ForkJoinPool(1)
+      try {
+        val single = ParallelParametricDescriptionEncoder.createEncodedParametricDescription(2, true, pool)
+        val common = ParallelParametricDescriptionEncoder.createEncodedParametricDescription(2, true)
+
+        single.toJavaString must be equalTo common.toJavaString
+      } finally pool.shutdown()
+    }
+
+    "report progress for every level" in {
+      val levels = mutable.ArrayBuffer.empty[(Int, Int)]
+      val description = ParallelParametricDescriptionEncoder.createEncodedParametricDescription(2, false,
+        progress = new ParallelParametricDescriptionEncoder.Progress {
+          def levelExpanded(level: Int, levelStatesCount: Int, statesCount: Int) =
+            levels += level -> statesCount
+        })
+
+      levels.map(_._1).toList must be equalTo (1 to levels.size).toList
+      levels.last._2 must be equalTo description.getDegreeMinusStateLengthAddendums.length
+    }
+  }
+
+  /**
+    * Tests if descriptions have the same transitions up to numbering of states.
+    */
+  private def isomorphic(x: EncodedParametricDescription, y: EncodedParametricDescription) = {
+    val statesCount = x.getDegreeMinusStateLengthAddendums.length
+    val maxVector = (CharacteristicVectorCodec.EMPTY << (2 * x.getDegree + 2)) - 1
+    val ids = mutable.HashMap(0 -> 0)
+    val queue = mutable.Queue(0)
+    var result = statesCount == y.getDegreeMinusStateLengthAddendums.length
+
+    while (result && queue.nonEmpty) {
+      val s = queue.dequeue()
+      val t = ids(s)
+      result = x.getDegreeMinusStateLengthAddendums()(s) == y.getDegreeMinusStateLengthAddendums()(t)
+
+      for (v <- 1 to maxVector if result) {
+        val xi = (v - 1) * statesCount + s
+        val yi = (v - 1) * statesCount + t
+        val xNext = x.getEncodedTransitionsTable.get(xi)
+        val yNext = y.getEncodedTransitionsTable.get(yi)
+
+        if (xNext == statesCount || yNext == statesCount) result = xNext == yNext
+        else {
+          result = x.getEncodedBoundaryOffsets.get(xi) == y.getEncodedBoundaryOffsets.get(yi) &&
+            ids.getOrElseUpdate(xNext, { queue += xNext; yNext }) == yNext
+        }
+      }
+    }
+
+    result
+  }
+}